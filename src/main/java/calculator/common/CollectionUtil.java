@@ -21,14 +21,8 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.ListIterator;
 
 public class CollectionUtil {
 
@@ -56,63 +50,76 @@ public class CollectionUtil {
 
 
     /**
-     * Sort the collection or array.
+     * Reset the elements of collection or object array, the size of array can not be changed.
      *
      * @param listOrArray the collection/array
-     * @param comparator  the comparator to determine the order of the collection/array
+     * @param elements    the new elements
      */
-    public static void sortListOrArray(Object listOrArray, Comparator<Object> comparator) {
-        if (listOrArray instanceof List) {
-            Collections.sort((List<Object>) listOrArray, comparator);
+    public static void resetListOrArray(Object listOrArray, Object[] elements) {
+        if (listOrArray instanceof List && ((List<?>) listOrArray).size() == elements.length) {
+            // the elements are from the list itself, only reordered or replaced by the handlers.
+            @SuppressWarnings("unchecked")
+            List<Object> list = (List<Object>) listOrArray;
+            ListIterator<Object> iterator = list.listIterator();
+            for (Object element : elements) {
+                iterator.next();
+                iterator.set(element);
+            }
         } else if (listOrArray instanceof Collection) {
-            List<Object> list = new ArrayList<>((Collection) listOrArray);
-            Collections.sort(list, comparator);
             Collection<Object> collection = (Collection) listOrArray;
             collection.clear();
-            collection.addAll(list);
-        } else if (listOrArray.getClass().isArray()) {
-            Arrays.sort((Object[]) listOrArray, comparator);
+            collection.addAll(Arrays.asList(elements));
+        } else if (listOrArray instanceof Object[] && ((Object[]) listOrArray).length == elements.length) {
+            System.arraycopy(elements, 0, listOrArray, 0, elements.length);
         } else {
             throw new IllegalArgumentException("Unsupported object type: " + listOrArray.getClass().getName());
         }
     }
 
-
     /**
-     * Just keep the element that satisfy the given predicate.
+     * Copy the elements of collection or array to a new Object array, the primitive elements are boxed.
      *
-     * @param collection the list to be filtered
-     * @param willKeep    a predicate which returns {@code true} for elements to be keep
+     * @param listOrArray the collection/array
+     * @return the new array which contains the elements in order
      */
-    public static void filterCollection(Collection collection, Predicate<Object> willKeep) {
-        if (collection instanceof Collection) {
-            collection.removeIf(ele -> !willKeep.test(ele));
+    public static Object[] toObjectArray(Object listOrArray) {
+        if (listOrArray instanceof Object[]) {
+            return ((Object[]) listOrArray).clone();
+        } else if (listOrArray instanceof Collection) {
+            return ((Collection<?>) listOrArray).toArray();
+        } else if (listOrArray instanceof int[]) {
+            int[] intArray = (int[]) listOrArray;
+            Object[] elements = new Object[intArray.length];
+            for (int i = 0; i < intArray.length; i++) {
+                elements[i] = intArray[i];
+            }
+            return elements;
+        } else if (listOrArray instanceof long[]) {
+            long[] longArray = (long[]) listOrArray;
+            Object[] elements = new Object[longArray.length];
+            for (int i = 0; i < longArray.length; i++) {
+                elements[i] = longArray[i];
+            }
+            return elements;
+        } else if (listOrArray instanceof double[]) {
+            double[] doubleArray = (double[]) listOrArray;
+            Object[] elements = new Object[doubleArray.length];
+            for (int i = 0; i < doubleArray.length; i++) {
+                elements[i] = doubleArray[i];
+            }
+            return elements;
+        } else if (listOrArray != null && listOrArray.getClass().isArray()) {
+            Object[] elements = new Object[Array.getLength(listOrArray)];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = Array.get(listOrArray, i);
+            }
+            return elements;
         } else {
-            throw new IllegalArgumentException("Unsupported object type: " + collection.getClass().getName());
+            throw new IllegalArgumentException("Unsupported object type: " +
+                    (listOrArray == null ? null : listOrArray.getClass().getName()));
         }
     }
 
-    /**
-     * Distinct the list by comparator.
-     *
-     * @param collection        the list will be handled
-     * @param comparator        the function to determine whether the element is equal
-     */
-    public static void distinctCollection(Collection collection, Function<Object, Integer> comparator) {
-        if (collection == null) {
-            return;
-        }
-
-        Map<Integer, Object> resultValue = new LinkedHashMap(collection.size());
-        for (Object element : collection) {
-            Integer comparatorValue = comparator.apply(element);
-            resultValue.putIfAbsent(comparatorValue, element);
-        }
-
-        collection.clear();
-        collection.addAll(resultValue.values());
-    }
-
 
     /**
      * Convert array or collection to List which support filter operation.
@@ -125,9 +132,10 @@ public class CollectionUtil {
             return null;
         } else if (listOrArray instanceof List) {
             return (List) listOrArray;
+        } else if (listOrArray instanceof Object[]) {
+            return new ArrayList<>(Arrays.asList((Object[]) listOrArray));
         } else if (listOrArray.getClass().isArray()) {
-            Object[] array = (Object[]) listOrArray;
-            return Arrays.stream(array).collect(Collectors.toList());
+            return new ArrayList<>(Arrays.asList(toObjectArray(listOrArray)));
         } else if (listOrArray instanceof Collection) {
             return new ArrayList<>((Collection<?>) listOrArray);
         } else {
@@ -152,7 +160,7 @@ public class CollectionUtil {
         } else if (collectionOrArray instanceof List) {
             return collectionOrArray;
         } else if (collectionOrArray instanceof Collection) {
-            return new ArrayList<>((List) collectionOrArray);
+            return new ArrayList<>((Collection<?>) collectionOrArray);
         } else {
             throw new IllegalArgumentException("Unsupported object type: " + collectionOrArray.getClass().getName());
         }
@@ -33,6 +33,9 @@ import graphql.language.Value;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 import static calculator.common.GraphQLUtil.PATH_SEPARATOR;
@@ -100,6 +103,30 @@ public class CommonUtil {
         return (T) parseValue(argument.getValue());
     }
 
+    /**
+     * Get list argument value on directive by argument name, the single value is regarded as a list with one element.
+     *
+     * @param directive    dir
+     * @param argumentName argument name
+     * @param <T>          the type of list element
+     * @return the argument value
+     */
+    public static <T> List<T> getListArgumentFromDirective(Directive directive, String argumentName) {
+        Object value = getArgumentFromDirective(directive, argumentName);
+        if (value == null) {
+            return null;
+        }
+
+        if (value instanceof List) {
+            @SuppressWarnings("unchecked")
+            List<T> listValue = (List<T>) value;
+            return listValue;
+        }
+        @SuppressWarnings("unchecked")
+        T singleValue = (T) value;
+        return Collections.singletonList(singleValue);
+    }
+
 
     public static Object parseValue(Value value) {
         if (value instanceof StringValue) {
@@ -147,29 +174,44 @@ public class CommonUtil {
 
     // 获取当前字段的查询路径，使用 '.' 分割
     public static String fieldPath(final ResultPath stepInfo) {
-        StringBuilder sb = new StringBuilder();
-        ResultPath tmpEnv = stepInfo;
-        while (tmpEnv != null) {
-            if (!tmpEnv.isNamedSegment()) {
-                tmpEnv = tmpEnv.getParent();
-                continue;
+        // 先计算路径长度，然后从后向前填充，避免 insert(0) 带来的重复拷贝
+        int length = 0;
+        for (ResultPath tmpEnv = stepInfo; tmpEnv != null; tmpEnv = tmpEnv.getParent()) {
+            String segmentName = namedSegment(tmpEnv);
+            if (segmentName != null) {
+                length += length == 0 ? segmentName.length() : segmentName.length() + PATH_SEPARATOR.length();
             }
+        }
 
-            String segmentName = tmpEnv.getSegmentName();
-            if (segmentName == null || segmentName.length() == 0) {
-                tmpEnv = tmpEnv.getParent();
+        char[] pathChars = new char[length];
+        int end = length;
+        for (ResultPath tmpEnv = stepInfo; tmpEnv != null; tmpEnv = tmpEnv.getParent()) {
+            String segmentName = namedSegment(tmpEnv);
+            if (segmentName == null) {
                 continue;
             }
 
-            if (sb.length() == 0) {
-                sb.append(segmentName);
-            } else {
-                sb.insert(0, segmentName + PATH_SEPARATOR);
+            if (end != length) {
+                end -= PATH_SEPARATOR.length();
+                PATH_SEPARATOR.getChars(0, PATH_SEPARATOR.length(), pathChars, end);
             }
-            tmpEnv = tmpEnv.getParent();
+            end -= segmentName.length();
+            segmentName.getChars(0, segmentName.length(), pathChars, end);
         }
 
-        return sb.toString();
+        return new String(pathChars);
+    }
+
+    private static String namedSegment(ResultPath resultPath) {
+        if (!resultPath.isNamedSegment()) {
+            return null;
+        }
+
+        String segmentName = resultPath.getSegmentName();
+        if (segmentName == null || segmentName.length() == 0) {
+            return null;
+        }
+        return segmentName;
     }
 
 
@@ -250,4 +292,28 @@ public class CommonUtil {
         }
     }
 
+    /**
+     * Get the hex string of SHA-256 digest of text.
+     *
+     * @param text text
+     * @return hex string of SHA-256 digest
+     */
+    public static String sha256Hex(String text) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every implementation of the Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        byte[] digest = messageDigest.digest(text.getBytes(StandardCharsets.UTF_8));
+        char[] hexChars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hexChars[i * 2] = Character.forDigit((digest[i] >> 4) & 0xF, 16);
+            hexChars[i * 2 + 1] = Character.forDigit(digest[i] & 0xF, 16);
+        }
+        return new String(hexChars);
+    }
+
 }
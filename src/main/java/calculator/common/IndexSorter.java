@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.common;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Sort the indexes of elements by their keys, the sort is stable and null keys are always last.
+ *
+ * <p>If all the non-null keys are integral numbers or floating numbers, they are extracted to {@code long[]}
+ * or {@code double[]} and compared without unboxing and {@link Comparable#compareTo} dispatching.
+ */
+@Internal
+public class IndexSorter {
+
+    private static final int KEY_TYPE_LONG = 0;
+    private static final int KEY_TYPE_DOUBLE = 1;
+    private static final int KEY_TYPE_OBJECT = 2;
+
+    // the short runs are sorted by insertion sort before merging.
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * Return the indexes of keys in sorted order.
+     *
+     * @param keys     the keys of elements, which are Comparable or null
+     * @param reversed whether the non-null keys are in descending order
+     * @return the sorted indexes
+     */
+    public static int[] sortedIndexes(Object[] keys, boolean reversed) {
+        int[] indexes = new int[keys.length];
+        // the indexes of non-null keys are in the front and null keys are in the tail, both in original order.
+        int nonNullCount = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                indexes[nonNullCount++] = i;
+            }
+        }
+        int nullIndex = nonNullCount;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) {
+                indexes[nullIndex++] = i;
+            }
+        }
+
+        int sign = reversed ? -1 : 1;
+        switch (keyType(keys)) {
+            case KEY_TYPE_LONG: {
+                long[] longKeys = new long[keys.length];
+                for (int i = 0; i < nonNullCount; i++) {
+                    longKeys[indexes[i]] = ((Number) keys[indexes[i]]).longValue();
+                }
+                mergeSort(indexes, nonNullCount, (i1, i2) -> sign * Long.compare(longKeys[i1], longKeys[i2]));
+                break;
+            }
+            case KEY_TYPE_DOUBLE: {
+                double[] doubleKeys = new double[keys.length];
+                for (int i = 0; i < nonNullCount; i++) {
+                    doubleKeys[indexes[i]] = ((Number) keys[indexes[i]]).doubleValue();
+                }
+                mergeSort(indexes, nonNullCount, (i1, i2) -> sign * Double.compare(doubleKeys[i1], doubleKeys[i2]));
+                break;
+            }
+            default: {
+                Comparator<Object> comparator = IndexSorter::compareObject;
+                Comparator<Object> keyComparator = reversed ? comparator.reversed() : comparator;
+                mergeSort(indexes, nonNullCount, (i1, i2) -> keyComparator.compare(keys[i1], keys[i2]));
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Return the indexes of composite keys in sorted order, the composite keys are compared by each key in order,
+     * and null is always last for each key.
+     *
+     * @param keyColumns the keys of elements, one array for each key
+     * @param reversed   whether each key is in descending order
+     * @return the sorted indexes
+     */
+    public static int[] sortedIndexes(List<Object[]> keyColumns, boolean[] reversed) {
+        if (keyColumns.size() == 1) {
+            return sortedIndexes(keyColumns.get(0), reversed[0]);
+        }
+
+        IntBinaryOperator[] columnComparators = new IntBinaryOperator[keyColumns.size()];
+        for (int column = 0; column < columnComparators.length; column++) {
+            columnComparators[column] = columnComparator(keyColumns.get(column), reversed[column]);
+        }
+        IntBinaryOperator comparator = (i1, i2) -> {
+            for (IntBinaryOperator columnComparator : columnComparators) {
+                int result = columnComparator.applyAsInt(i1, i2);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+
+        int size = keyColumns.get(0).length;
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        mergeSort(indexes, size, comparator);
+        return indexes;
+    }
+
+    private static IntBinaryOperator columnComparator(Object[] keys, boolean reversed) {
+        int sign = reversed ? -1 : 1;
+        switch (keyType(keys)) {
+            case KEY_TYPE_LONG: {
+                long[] longKeys = new long[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    longKeys[i] = keys[i] == null ? 0 : ((Number) keys[i]).longValue();
+                }
+                return (i1, i2) -> keys[i1] == null || keys[i2] == null
+                        ? compareNull(keys[i1], keys[i2])
+                        : sign * Long.compare(longKeys[i1], longKeys[i2]);
+            }
+            case KEY_TYPE_DOUBLE: {
+                double[] doubleKeys = new double[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    doubleKeys[i] = keys[i] == null ? 0 : ((Number) keys[i]).doubleValue();
+                }
+                return (i1, i2) -> keys[i1] == null || keys[i2] == null
+                        ? compareNull(keys[i1], keys[i2])
+                        : sign * Double.compare(doubleKeys[i1], doubleKeys[i2]);
+            }
+            default: {
+                return (i1, i2) -> keys[i1] == null || keys[i2] == null
+                        ? compareNull(keys[i1], keys[i2])
+                        : (reversed ? compareObject(keys[i2], keys[i1]) : compareObject(keys[i1], keys[i2]));
+            }
+        }
+    }
+
+    // at least one of the keys is null, and null is always last.
+    private static int compareNull(Object key1, Object key2) {
+        if (key1 == key2) {
+            return 0;
+        }
+        return key1 == null ? 1 : -1;
+    }
+
+    // the non-null keys of object type must be comparable with each other.
+    private static int compareObject(Object key1, Object key2) {
+        @SuppressWarnings("unchecked")
+        Comparable<Object> comparableKey = (Comparable<Object>) key1;
+        return comparableKey.compareTo(key2);
+    }
+
+    /**
+     * Determine the key type by the first non-null key, and all the other non-null keys must be the same type.
+     */
+    private static int keyType(Object[] keys) {
+        int keyType = -1;
+        for (Object key : keys) {
+            if (key == null) {
+                continue;
+            }
+
+            int currentType;
+            if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+                currentType = KEY_TYPE_LONG;
+            } else if (key instanceof Double || key instanceof Float) {
+                currentType = KEY_TYPE_DOUBLE;
+            } else {
+                return KEY_TYPE_OBJECT;
+            }
+
+            if (keyType == -1) {
+                keyType = currentType;
+            } else if (keyType != currentType) {
+                return KEY_TYPE_OBJECT;
+            }
+        }
+        return keyType == -1 ? KEY_TYPE_OBJECT : keyType;
+    }
+
+    /**
+     * Stable merge sort for the first {@code size} indexes.
+     */
+    private static void mergeSort(int[] indexes, int size, IntBinaryOperator comparator) {
+        if (size < 2) {
+            return;
+        }
+
+        for (int start = 0; start < size; start += INSERTION_SORT_THRESHOLD) {
+            insertionSort(indexes, start, Math.min(size, start + INSERTION_SORT_THRESHOLD), comparator);
+        }
+        if (size <= INSERTION_SORT_THRESHOLD) {
+            return;
+        }
+
+        int[] src = indexes;
+        int[] dest = new int[size];
+        for (int width = INSERTION_SORT_THRESHOLD; width < size; width <<= 1) {
+            for (int low = 0; low < size; low += width << 1) {
+                int mid = Math.min(size, low + width);
+                int high = Math.min(size, low + (width << 1));
+                merge(src, dest, low, mid, high, comparator);
+            }
+            int[] tmp = src;
+            src = dest;
+            dest = tmp;
+        }
+
+        if (src != indexes) {
+            System.arraycopy(src, 0, indexes, 0, size);
+        }
+    }
+
+    private static void insertionSort(int[] indexes, int low, int high, IntBinaryOperator comparator) {
+        for (int i = low + 1; i < high; i++) {
+            int index = indexes[i];
+            int j = i - 1;
+            while (j >= low && comparator.applyAsInt(indexes[j], index) > 0) {
+                indexes[j + 1] = indexes[j];
+                j--;
+            }
+            indexes[j + 1] = index;
+        }
+    }
+
+    private static void merge(int[] src, int[] dest, int low, int mid, int high, IntBinaryOperator comparator) {
+        if (mid >= high || comparator.applyAsInt(src[mid - 1], src[mid]) <= 0) {
+            // already in order.
+            System.arraycopy(src, low, dest, low, high - low);
+            return;
+        }
+
+        int left = low, right = mid, target = low;
+        while (left < mid && right < high) {
+            // take the left one if equal, which keeps the sort stable.
+            if (comparator.applyAsInt(src[left], src[right]) <= 0) {
+                dest[target++] = src[left++];
+            } else {
+                dest[target++] = src[right++];
+            }
+        }
+        if (left < mid) {
+            System.arraycopy(src, left, dest, target, mid - left);
+        } else if (right < high) {
+            System.arraycopy(src, right, dest, target, high - right);
+        }
+    }
+}
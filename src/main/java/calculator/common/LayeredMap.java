@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.common;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The script arguments composed of layers, which resolves key through the layers from the top layer to the bottom one,
+ * instead of copying all the layers into a new map.
+ *
+ * <p>A layer is either a map or a single key-value binding, e.g. variables, dependency sources, source object and 'ele'.
+ * The layers are never modified, the value put by script is saved in a private top layer.
+ * The instance could be reused for elements of list by resetting the layers, but it is not thread-safe.
+ */
+@Internal
+public class LayeredMap extends AbstractMap<String, Object> {
+
+    private final Map<String, Object>[] maps;
+
+    private final String[] keys;
+
+    private final Object[] values;
+
+    // the values put by script, which takes precedence over all layers.
+    private Map<String, Object> writes;
+
+    /**
+     * Create a layered map with fixed count of layers, the layer with bigger index takes precedence.
+     *
+     * @param layerCount count of layers
+     */
+    public LayeredMap(int layerCount) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map<String, Object>[] maps = new Map[layerCount];
+        this.maps = maps;
+        this.keys = new String[layerCount];
+        this.values = new Object[layerCount];
+    }
+
+    /**
+     * Set the layer as map, null map means an empty layer.
+     *
+     * @param layer layer index
+     * @param map   the map of layer
+     * @return this map
+     */
+    @SuppressWarnings("unchecked")
+    public LayeredMap layer(int layer, Map<String, ?> map) {
+        this.maps[layer] = (Map<String, Object>) map;
+        this.keys[layer] = null;
+        this.values[layer] = null;
+        return this;
+    }
+
+    /**
+     * Set the layer as a single key-value binding.
+     *
+     * @param layer layer index
+     * @param key   key
+     * @param value value
+     * @return this map
+     */
+    public LayeredMap layer(int layer, String key, Object value) {
+        this.maps[layer] = null;
+        this.keys[layer] = key;
+        this.values[layer] = value;
+        return this;
+    }
+
+    /**
+     * Discard the values put by script, which should be invoked before the instance is reused.
+     *
+     * @return this map
+     */
+    public LayeredMap clearWrites() {
+        if (writes != null) {
+            writes.clear();
+        }
+        return this;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (writes != null && !writes.isEmpty()) {
+            Object value = writes.get(key);
+            if (value != null || writes.containsKey(key)) {
+                return value;
+            }
+        }
+
+        for (int layer = maps.length - 1; layer >= 0; layer--) {
+            Map<String, Object> map = maps[layer];
+            if (map != null) {
+                Object value = map.get(key);
+                if (value != null || map.containsKey(key)) {
+                    return value;
+                }
+            } else if (keys[layer] != null && keys[layer].equals(key)) {
+                return values[layer];
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (writes != null && writes.containsKey(key)) {
+            return true;
+        }
+
+        for (int layer = maps.length - 1; layer >= 0; layer--) {
+            Map<String, Object> map = maps[layer];
+            if (map != null ? map.containsKey(key) : keys[layer] != null && keys[layer].equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        if (writes == null) {
+            writes = new HashMap<>();
+        }
+        Object previous = get(key);
+        writes.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException("the script arguments can not be removed.");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("the script arguments can not be removed.");
+    }
+
+    /**
+     * The merged view of all the layers, which is only used when the whole map is read, e.g. iterating.
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        Map<String, Object> merged = new LinkedHashMap<>();
+        for (int layer = 0; layer < maps.length; layer++) {
+            if (maps[layer] != null) {
+                merged.putAll(maps[layer]);
+            } else if (keys[layer] != null) {
+                merged.put(keys[layer], values[layer]);
+            }
+        }
+        if (writes != null) {
+            merged.putAll(writes);
+        }
+        return Collections.unmodifiableMap(merged).entrySet();
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.common;
+
+import calculator.engine.annotation.Internal;
+import graphql.language.Argument;
+import graphql.language.AstPrinter;
+import graphql.language.AstTransformer;
+import graphql.language.Definition;
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.Node;
+import graphql.language.NodeVisitorStub;
+import graphql.language.ObjectField;
+import graphql.language.ObjectValue;
+import graphql.language.OperationDefinition;
+import graphql.language.VariableDefinition;
+import graphql.util.TraversalControl;
+import graphql.util.TraverserContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static calculator.common.CommonUtil.sha256Hex;
+import static graphql.util.TreeTransformerUtil.changeNode;
+
+/**
+ * Normalize query to the stable cache key, so that the semantically identical queries
+ * could share the cached document and execution plan.
+ *
+ * <p>The normalized query is the compact printing of the document, in which the arguments,
+ * variable definitions and object fields are sorted by name. The order of selections, directives
+ * and definitions are kept because they affect the result or the execution of calculator directives.
+ */
+@Internal
+public class QueryNormalizer {
+
+    private static final Comparator<Argument> ARGUMENT_COMPARATOR = Comparator.comparing(Argument::getName);
+
+    private static final Comparator<VariableDefinition> VARIABLE_COMPARATOR = Comparator.comparing(VariableDefinition::getName);
+
+    private static final Comparator<ObjectField> OBJECT_FIELD_COMPARATOR = Comparator.comparing(ObjectField::getName);
+
+    // the visitor methods of graphql-java take the raw type of node.
+    @SuppressWarnings("rawtypes")
+    private static final NodeVisitorStub SORT_VISITOR = new NodeVisitorStub() {
+        @Override
+        public TraversalControl visitField(Field node, TraverserContext<Node> context) {
+            if (isSorted(node.getArguments(), ARGUMENT_COMPARATOR)) {
+                return TraversalControl.CONTINUE;
+            }
+            return changeNode(context, node.transform(builder -> builder.arguments(sorted(node.getArguments(), ARGUMENT_COMPARATOR))));
+        }
+
+        @Override
+        public TraversalControl visitDirective(Directive node, TraverserContext<Node> context) {
+            if (isSorted(node.getArguments(), ARGUMENT_COMPARATOR)) {
+                return TraversalControl.CONTINUE;
+            }
+            return changeNode(context, node.transform(builder -> builder.arguments(sorted(node.getArguments(), ARGUMENT_COMPARATOR))));
+        }
+
+        @Override
+        public TraversalControl visitOperationDefinition(OperationDefinition node, TraverserContext<Node> context) {
+            if (isSorted(node.getVariableDefinitions(), VARIABLE_COMPARATOR)) {
+                return TraversalControl.CONTINUE;
+            }
+            return changeNode(context, node.transform(
+                    builder -> builder.variableDefinitions(sorted(node.getVariableDefinitions(), VARIABLE_COMPARATOR))
+            ));
+        }
+
+        @Override
+        public TraversalControl visitObjectValue(ObjectValue node, TraverserContext<Node> context) {
+            if (isSorted(node.getObjectFields(), OBJECT_FIELD_COMPARATOR)) {
+                return TraversalControl.CONTINUE;
+            }
+            return changeNode(context, node.transform(builder -> builder.objectFields(sorted(node.getObjectFields(), OBJECT_FIELD_COMPARATOR))));
+        }
+    };
+
+    /**
+     * Normalize the document to the stable text.
+     *
+     * <p>The name of operation is removed if there is only one operation in document and
+     * it is not required by execution, since the name makes no difference to the result.
+     *
+     * @param document              document
+     * @param keepOperationName     whether the operation name is used to choose the operation
+     * @return the normalized query
+     */
+    @SuppressWarnings("rawtypes")
+    public static String normalize(Document document, boolean keepOperationName) {
+        Document sortedDocument = (Document) new AstTransformer().transform(document, SORT_VISITOR);
+
+        List<OperationDefinition> operations = sortedDocument.getDefinitionsOfType(OperationDefinition.class);
+        if (!keepOperationName && operations.size() == 1 && operations.get(0).getName() != null) {
+            OperationDefinition operation = operations.get(0);
+            OperationDefinition unnamedOperation = operation.transform(builder -> builder.name(null));
+            List<Definition> definitions = replace(sortedDocument.getDefinitions(), operation, unnamedOperation);
+            return AstPrinter.printAstCompact(sortedDocument.transform(builder -> builder.definitions(definitions)));
+        }
+
+        return AstPrinter.printAstCompact(sortedDocument);
+    }
+
+    /**
+     * The compact hash of the normalized document, which could be used as cache key.
+     *
+     * @param document          document
+     * @param keepOperationName whether the operation name is used to choose the operation
+     * @return the hex string of SHA-256 digest of the normalized query
+     */
+    public static String normalizedHash(Document document, boolean keepOperationName) {
+        return sha256Hex(normalize(document, keepOperationName));
+    }
+
+    /**
+     * The lexical fingerprint of query computed without parsing, in which the comments
+     * and the insignificant whitespaces and commas are removed. The queries with the same
+     * fingerprint must be parsed to the same document.
+     *
+     * @param query query
+     * @return the fingerprint of query
+     */
+    public static String fingerprint(String query) {
+        StringBuilder fingerprint = new StringBuilder(query.length());
+        boolean pendingSeparator = false;
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+
+            if (c == '#') {
+                while (i < length && query.charAt(i) != '\n' && query.charAt(i) != '\r') {
+                    i++;
+                }
+                pendingSeparator = true;
+                continue;
+            }
+
+            if (isIgnoredChar(c)) {
+                pendingSeparator = true;
+                i++;
+                continue;
+            }
+
+            if (pendingSeparator && fingerprint.length() > 0
+                    && isNameChar(fingerprint.charAt(fingerprint.length() - 1)) && isNameChar(c)) {
+                fingerprint.append(' ');
+            }
+            pendingSeparator = false;
+
+            if (c == '"') {
+                int end = query.startsWith("\"\"\"", i) ? blockStringEnd(query, i) : stringEnd(query, i);
+                fingerprint.append(query, i, end);
+                i = end;
+                continue;
+            }
+
+            fingerprint.append(c);
+            i++;
+        }
+        return fingerprint.toString();
+    }
+
+    private static boolean isIgnoredChar(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == ',' || c == '\uFEFF';
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    // the index after the closing quote, or the end of line for unterminated string
+    private static int stringEnd(String query, int start) {
+        int i = start + 1;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '"') {
+                return i + 1;
+            }
+            if (c == '\n' || c == '\r') {
+                return i;
+            }
+            i++;
+        }
+        return query.length();
+    }
+
+    // the index after the closing triple quote, or the end of query for unterminated block string
+    private static int blockStringEnd(String query, int start) {
+        int i = start + 3;
+        while (i < query.length()) {
+            if (query.startsWith("\\\"\"\"", i)) {
+                i += 4;
+                continue;
+            }
+            if (query.startsWith("\"\"\"", i)) {
+                return i + 3;
+            }
+            i++;
+        }
+        return query.length();
+    }
+
+    private static <T> boolean isSorted(List<T> list, Comparator<T> comparator) {
+        for (int i = 1; i < list.size(); i++) {
+            if (comparator.compare(list.get(i - 1), list.get(i)) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <T> List<T> sorted(List<T> list, Comparator<T> comparator) {
+        List<T> sortedList = new ArrayList<>(list);
+        sortedList.sort(comparator);
+        return sortedList;
+    }
+
+    private static <T> List<T> replace(List<T> list, T oldElement, T newElement) {
+        List<T> replacedList = new ArrayList<>(list.size());
+        for (T element : list) {
+            replacedList.add(element == oldElement ? newElement : element);
+        }
+        return replacedList;
+    }
+}
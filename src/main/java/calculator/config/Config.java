@@ -19,8 +19,12 @@ package calculator.config;
 
 import calculator.engine.ObjectMapper;
 import calculator.engine.annotation.PublicApi;
+import calculator.engine.metadata.CustomDirective;
+import calculator.engine.script.ExpressionMemoStatistics;
 import calculator.engine.script.ScriptEvaluator;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 @PublicApi
@@ -44,4 +48,42 @@ public interface Config {
      * @return Get the thread pool which used in {@link calculator.engine.ExecutionEngine}.
      */
     Executor getExecutor();
+
+    /**
+     * The min size of list argument which is transformed by '@argumentTransform' in parallel on {@link #getExecutor()},
+     * the list argument is always transformed in current thread if it is not positive.
+     *
+     * @return the min size of list argument transformed in parallel
+     */
+    default int getParallelTransformThreshold() {
+        return 2048;
+    }
+
+    /**
+     * The count of elements transformed by one task when the list argument is transformed in parallel.
+     *
+     * @return the count of elements transformed by one task
+     */
+    default int getParallelTransformChunkSize() {
+        return 512;
+    }
+
+    /**
+     * The statistics of request-scoped memo of pure expressions used by '@map' and '@argumentTransform(operateType: MAP)',
+     * the memo is enabled only if the statistics is not null.
+     *
+     * @return the statistics of memo, or null if memo is disabled
+     */
+    default ExpressionMemoStatistics getExpressionMemoStatistics() {
+        return null;
+    }
+
+    /**
+     * The directives implemented by Java, which are added to the wrapped schema and executed alongside the calculator directives.
+     *
+     * @return the custom directives
+     */
+    default List<CustomDirective> getCustomDirectives() {
+        return Collections.emptyList();
+    }
 }
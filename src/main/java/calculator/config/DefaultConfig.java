@@ -19,9 +19,15 @@ package calculator.config;
 import calculator.engine.ObjectMapper;
 import calculator.engine.DefaultObjectMapper;
 import calculator.engine.annotation.PublicApi;
+import calculator.engine.metadata.CustomDirective;
 import calculator.engine.script.AviatorScriptEvaluator;
+import calculator.engine.script.ExpressionMemoStatistics;
 import calculator.engine.script.ScriptEvaluator;
+import calculator.engine.script.ScriptExecutionLimits;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
@@ -38,18 +44,38 @@ public class DefaultConfig implements Config {
 
     private final ScriptEvaluator scriptEvaluator;
 
+    private final int parallelTransformThreshold;
+
+    private final int parallelTransformChunkSize;
+
+    private final ExpressionMemoStatistics expressionMemoStatistics;
+
+    private final List<CustomDirective> customDirectives;
+
     private static final ObjectMapper DEFAULT_MAPPER = new DefaultObjectMapper();
 
+    private static final ObjectMapper PASS_THROUGH_MAPPER = new DefaultObjectMapper(true);
+
     private static final Executor DEFAULT_EXECUTOR = ForkJoinPool.commonPool();
 
     private static final AviatorScriptEvaluator DEFAULT_EVALUATOR = new AviatorScriptEvaluator();
 
     private DefaultConfig(Executor threadPool,
                           ObjectMapper objectMapper,
-                          ScriptEvaluator scriptEvaluator) {
+                          ScriptEvaluator scriptEvaluator,
+                          Integer parallelTransformThreshold,
+                          Integer parallelTransformChunkSize,
+                          ExpressionMemoStatistics expressionMemoStatistics,
+                          List<CustomDirective> customDirectives) {
         this.threadPool = threadPool != null ? threadPool : DEFAULT_EXECUTOR;
         this.objectMapper = objectMapper != null ? objectMapper : DEFAULT_MAPPER;
         this.scriptEvaluator = scriptEvaluator != null ? scriptEvaluator : DEFAULT_EVALUATOR;
+        this.parallelTransformThreshold = parallelTransformThreshold != null
+                ? parallelTransformThreshold : Config.super.getParallelTransformThreshold();
+        this.parallelTransformChunkSize = parallelTransformChunkSize != null
+                ? parallelTransformChunkSize : Config.super.getParallelTransformChunkSize();
+        this.expressionMemoStatistics = expressionMemoStatistics;
+        this.customDirectives = Collections.unmodifiableList(new ArrayList<>(customDirectives));
     }
 
     @Override
@@ -67,6 +93,26 @@ public class DefaultConfig implements Config {
         return threadPool;
     }
 
+    @Override
+    public int getParallelTransformThreshold() {
+        return parallelTransformThreshold;
+    }
+
+    @Override
+    public int getParallelTransformChunkSize() {
+        return parallelTransformChunkSize;
+    }
+
+    @Override
+    public ExpressionMemoStatistics getExpressionMemoStatistics() {
+        return expressionMemoStatistics;
+    }
+
+    @Override
+    public List<CustomDirective> getCustomDirectives() {
+        return customDirectives;
+    }
+
     public static Builder newConfig() {
         return new Builder();
     }
@@ -79,6 +125,16 @@ public class DefaultConfig implements Config {
 
         private ScriptEvaluator scriptEvaluator;
 
+        private Integer parallelTransformThreshold;
+
+        private Integer parallelTransformChunkSize;
+
+        private ExpressionMemoStatistics expressionMemoStatistics;
+
+        private ScriptExecutionLimits scriptExecutionLimits;
+
+        private final List<CustomDirective> customDirectives = new ArrayList<>();
+
         public Builder threadPool(Executor threadPool) {
             Objects.requireNonNull(threadPool, "threadPool can not be null.");
             this.threadPool = threadPool;
@@ -91,14 +147,93 @@ public class DefaultConfig implements Config {
             return this;
         }
 
+        /**
+         * Use the default object mapper which returns the Map and List as-is if they are already simple,
+         * e.g. the results built from json, instead of copying them for each script evaluation.
+         * The scripts must not modify the nested Map and List of the arguments in this mode.
+         *
+         * @return this builder
+         */
+        public Builder passThroughSimpleCollection() {
+            this.objectMapper = PASS_THROUGH_MAPPER;
+            return this;
+        }
+
         public Builder scriptEvaluator(ScriptEvaluator scriptEvaluator) {
             Objects.requireNonNull(scriptEvaluator, "scriptEvaluator can not be null.");
             this.scriptEvaluator = scriptEvaluator;
             return this;
         }
 
+        /**
+         * Set the min size of list argument transformed in parallel, not positive value disables parallel transformation.
+         *
+         * @param parallelTransformThreshold the min size of list argument transformed in parallel
+         * @return this builder
+         */
+        public Builder parallelTransformThreshold(int parallelTransformThreshold) {
+            this.parallelTransformThreshold = parallelTransformThreshold;
+            return this;
+        }
+
+        public Builder parallelTransformChunkSize(int parallelTransformChunkSize) {
+            if (parallelTransformChunkSize <= 0) {
+                throw new IllegalArgumentException("parallelTransformChunkSize must be positive.");
+            }
+            this.parallelTransformChunkSize = parallelTransformChunkSize;
+            return this;
+        }
+
+        /**
+         * Memoize the results of pure expressions used by '@map' and '@argumentTransform(operateType: MAP)' in each execution,
+         * the expression is pure if it does not contain statement, lambda or assignment, and does not call the known impure
+         * functions, e.g. 'rand()', and the custom functions must be pure in this mode.
+         *
+         * @return this builder
+         */
+        public Builder memoizePureExpression() {
+            this.expressionMemoStatistics = new ExpressionMemoStatistics();
+            return this;
+        }
+
+        /**
+         * Limit each evaluation of the default script evaluator, the custom script evaluator
+         * should be created with the limits itself, e.g. {@link AviatorScriptEvaluator#AviatorScriptEvaluator(ScriptExecutionLimits)}.
+         *
+         * @param scriptExecutionLimits the limits of script evaluation
+         * @return this builder
+         */
+        public Builder scriptExecutionLimits(ScriptExecutionLimits scriptExecutionLimits) {
+            Objects.requireNonNull(scriptExecutionLimits, "scriptExecutionLimits can not be null.");
+            this.scriptExecutionLimits = scriptExecutionLimits;
+            return this;
+        }
+
+        /**
+         * Add the directive implemented by Java, the name of which must be different from the calculator directives
+         * and the directives of schema.
+         *
+         * @param customDirective the custom directive
+         * @return this builder
+         */
+        public Builder customDirective(CustomDirective customDirective) {
+            Objects.requireNonNull(customDirective, "customDirective can not be null.");
+            this.customDirectives.add(customDirective);
+            return this;
+        }
+
         public DefaultConfig build() {
-            return new DefaultConfig(threadPool, objectMapper, scriptEvaluator);
+            ScriptEvaluator evaluator = scriptEvaluator;
+            if (scriptExecutionLimits != null) {
+                if (scriptEvaluator != null) {
+                    throw new IllegalStateException("scriptExecutionLimits is only applied to the default script evaluator.");
+                }
+                evaluator = new AviatorScriptEvaluator(scriptExecutionLimits);
+            }
+            return new DefaultConfig(
+                    threadPool, objectMapper, evaluator, parallelTransformThreshold, parallelTransformChunkSize, expressionMemoStatistics,
+                    customDirectives
+            );
         }
     }
 }
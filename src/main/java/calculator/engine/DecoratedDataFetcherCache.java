@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine;
+
+import calculator.engine.annotation.Internal;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.PropertyDataFetcher;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The decorated DataFetchers of fields, which are built once and reused by all the invocations of the same field,
+ * instead of building the decorator chain for each field invocation, e.g. each element of list.
+ *
+ * <p>The decorated DataFetcher which does not depend on the execution state is shared by the executions of the same plan,
+ * and keyed by the executing document weakly, so that the entries of uncached document are released after execution.
+ * The fetchers of the executing document are looked up once when the document is bound to the execution, and only the
+ * decoration of a stable DataFetcher is shared, i.e. the default PropertyDataFetcher or the instance first seen for the field.
+ * The decorated DataFetcher which depends on the result of fetchSource tasks, or decorates the DataFetcher created for each
+ * invocation, is only reused in current execution.
+ */
+@Internal
+public class DecoratedDataFetcherCache {
+
+    // the nodes of document do not override equals and hashCode, so the keys are compared by identity.
+    private final Map<Document, Map<FieldKey, SharedDataFetcher>> sharedByDocument;
+
+    // the shared DataFetchers of the document bound to current execution.
+    private volatile DocumentScope documentScope;
+
+    private final Map<FieldKey, DataFetcher<?>> executionScoped = new ConcurrentHashMap<>();
+
+    DecoratedDataFetcherCache() {
+        this(Collections.synchronizedMap(new WeakHashMap<>()));
+    }
+
+    private DecoratedDataFetcherCache(Map<Document, Map<FieldKey, SharedDataFetcher>> sharedByDocument) {
+        this.sharedByDocument = sharedByDocument;
+    }
+
+    /**
+     * Create a cache for a new execution, which shares the decorated DataFetchers not depending on the execution state.
+     *
+     * @return cache for a new execution
+     */
+    DecoratedDataFetcherCache copyForExecution() {
+        return new DecoratedDataFetcherCache(sharedByDocument);
+    }
+
+    /**
+     * Bind the document of current execution, the shared DataFetchers of which are looked up only once for the execution.
+     */
+    void bindDocument(Document document) {
+        Map<FieldKey, SharedDataFetcher> fetcherByField = sharedByDocument.computeIfAbsent(
+                document, ignore -> new ConcurrentHashMap<>()
+        );
+        this.documentScope = new DocumentScope(document, fetcherByField);
+    }
+
+    /**
+     * Get the decorated DataFetcher shared by the executions of the document,
+     * the decorator must not capture anything of current execution.
+     */
+    DataFetcher<?> getSharedDataFetcher(Document document,
+                                        Field field,
+                                        GraphQLFieldDefinition fieldDefinition,
+                                        DataFetcher<?> originalDataFetcher,
+                                        Supplier<DataFetcher<?>> decorator) {
+        DocumentScope scope = documentScope;
+        // e.g. the document is not bound or replaced by other instrumentation.
+        if (scope == null || scope.document != document) {
+            return getExecutionScopedDataFetcher(field, fieldDefinition, originalDataFetcher, decorator);
+        }
+
+        Object fetcherKey = FieldKey.fetcherKey(originalDataFetcher);
+        FieldKey fieldKey = new FieldKey(field, fieldDefinition, null);
+        SharedDataFetcher sharedDataFetcher = scope.fetcherByField.get(fieldKey);
+        if (sharedDataFetcher == null) {
+            // decorating is idempotent, it's ok to decorate more than once concurrently.
+            SharedDataFetcher decorated = new SharedDataFetcher(fetcherKey, decorator.get());
+            SharedDataFetcher previous = scope.fetcherByField.putIfAbsent(fieldKey, decorated);
+            sharedDataFetcher = previous != null ? previous : decorated;
+        }
+
+        if (FieldKey.isSameFetcher(sharedDataFetcher.fetcherKey, fetcherKey)) {
+            return sharedDataFetcher.dataFetcher;
+        }
+        // the DataFetcher is not stable, e.g. created by DataFetcherFactory or wrapped by instrumentation for each invocation.
+        return getExecutionScopedDataFetcher(field, fieldDefinition, originalDataFetcher, decorator);
+    }
+
+    /**
+     * Get the decorated DataFetcher which is only reused in current execution.
+     */
+    DataFetcher<?> getExecutionScopedDataFetcher(Field field,
+                                                 GraphQLFieldDefinition fieldDefinition,
+                                                 DataFetcher<?> originalDataFetcher,
+                                                 Supplier<DataFetcher<?>> decorator) {
+        FieldKey fieldKey = new FieldKey(field, fieldDefinition, FieldKey.fetcherKey(originalDataFetcher));
+        DataFetcher<?> dataFetcher = executionScoped.get(fieldKey);
+        if (dataFetcher != null) {
+            return dataFetcher;
+        }
+
+        // decorating is idempotent, it's ok to decorate more than once concurrently.
+        dataFetcher = decorator.get();
+        DataFetcher<?> previous = executionScoped.putIfAbsent(fieldKey, dataFetcher);
+        return previous != null ? previous : dataFetcher;
+    }
+
+    private static class DocumentScope {
+
+        private final Document document;
+
+        private final Map<FieldKey, SharedDataFetcher> fetcherByField;
+
+        DocumentScope(Document document, Map<FieldKey, SharedDataFetcher> fetcherByField) {
+            this.document = document;
+            this.fetcherByField = fetcherByField;
+        }
+    }
+
+    private static class SharedDataFetcher {
+
+        // the key of original DataFetcher which is decorated.
+        private final Object fetcherKey;
+
+        private final DataFetcher<?> dataFetcher;
+
+        SharedDataFetcher(Object fetcherKey, DataFetcher<?> dataFetcher) {
+            this.fetcherKey = fetcherKey;
+            this.dataFetcher = dataFetcher;
+        }
+    }
+
+    private static class FieldKey {
+
+        private final Field field;
+
+        private final GraphQLFieldDefinition fieldDefinition;
+
+        // property name for default PropertyDataFetcher, which is created for each invocation, otherwise the DataFetcher,
+        // and null for the key of shared DataFetcher which is compared separately.
+        private final Object fetcherKey;
+
+        private final int hashCode;
+
+        FieldKey(Field field, GraphQLFieldDefinition fieldDefinition, Object fetcherKey) {
+            this.field = field;
+            this.fieldDefinition = fieldDefinition;
+            this.fetcherKey = fetcherKey;
+
+            int fetcherHash = fetcherKey instanceof String ? fetcherKey.hashCode() : System.identityHashCode(fetcherKey);
+            this.hashCode = 31 * (31 * System.identityHashCode(field) + System.identityHashCode(fieldDefinition)) + fetcherHash;
+        }
+
+        private static Object fetcherKey(DataFetcher<?> dataFetcher) {
+            if (dataFetcher.getClass() == PropertyDataFetcher.class) {
+                String propertyName = ((PropertyDataFetcher<?>) dataFetcher).getPropertyName();
+                if (propertyName != null) {
+                    return propertyName;
+                }
+            }
+            return dataFetcher;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FieldKey)) {
+                return false;
+            }
+
+            FieldKey that = (FieldKey) o;
+            return field == that.field
+                    && fieldDefinition == that.fieldDefinition
+                    && isSameFetcher(fetcherKey, that.fetcherKey);
+        }
+
+        private static boolean isSameFetcher(Object fetcherKey, Object otherFetcherKey) {
+            return fetcherKey == otherFetcherKey || (fetcherKey instanceof String && fetcherKey.equals(otherFetcherKey));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
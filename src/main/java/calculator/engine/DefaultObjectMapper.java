@@ -34,12 +34,37 @@ import static calculator.common.CommonUtil.isBasicType;
 @Internal
 public class DefaultObjectMapper implements ObjectMapper {
 
+    // whether the Map and List which are already simple are returned as-is instead of being copied.
+    private final boolean passThroughSimpleCollection;
+
+    public DefaultObjectMapper() {
+        this(false);
+    }
+
+    /**
+     * Create the object mapper.
+     *
+     * @param passThroughSimpleCollection if true, the Map or List whose values are all simple is returned as-is,
+     *                                    and only the nested values which are not simple are copied.
+     */
+    public DefaultObjectMapper(boolean passThroughSimpleCollection) {
+        this.passThroughSimpleCollection = passThroughSimpleCollection;
+    }
+
     @Override
     public Object toSimpleCollection(Object object) {
         if (object == null) {
             return null;
         }
 
+        if (passThroughSimpleCollection) {
+            if (object instanceof List) {
+                return toListOrSelf((List<?>) object);
+            } else if (object instanceof Map) {
+                return toMapOrSelf((Map<?, ?>) object);
+            }
+        }
+
         if (object instanceof Collection) {
             return toCollection((Collection) object);
         } else if (object instanceof Object[]) {
@@ -128,4 +153,50 @@ public class DefaultObjectMapper implements ObjectMapper {
         return result;
     }
 
+    /**
+     * Return the list itself if all the elements are simple, otherwise copy the list since the first element which is not simple.
+     */
+    private Object toListOrSelf(List<?> list) {
+        List<Object> result = null;
+        int index = 0;
+        for (Object element : list) {
+            Object simpleElement = toSimpleCollection(element);
+            if (result == null && simpleElement != element) {
+                result = new ArrayList<>(list.size());
+                result.addAll(list.subList(0, index));
+            }
+            if (result != null) {
+                result.add(simpleElement);
+            }
+            index++;
+        }
+        return result != null ? result : list;
+    }
+
+    /**
+     * Return the map itself if all the values are simple, otherwise copy the map since the first value which is not simple.
+     */
+    private Object toMapOrSelf(Map<?, ?> map) {
+        Map<Object, Object> result = null;
+        int index = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object simpleValue = toSimpleCollection(entry.getValue());
+            if (result == null && simpleValue != entry.getValue()) {
+                result = new LinkedHashMap<>();
+                int copiedCount = 0;
+                for (Map.Entry<?, ?> copiedEntry : map.entrySet()) {
+                    if (copiedCount++ == index) {
+                        break;
+                    }
+                    result.put(copiedEntry.getKey(), copiedEntry.getValue());
+                }
+            }
+            if (result != null) {
+                result.put(entry.getKey(), simpleValue);
+            }
+            index++;
+        }
+        return result != null ? result : map;
+    }
+
 }
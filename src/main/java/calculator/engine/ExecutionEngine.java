@@ -18,6 +18,7 @@ package calculator.engine;
 
 import calculator.common.CollectionUtil;
 import calculator.common.CommonUtil;
+import calculator.common.QueryNormalizer;
 import calculator.config.Config;
 import calculator.engine.annotation.Internal;
 import calculator.engine.decorator.DecorateEnvironment;
@@ -25,20 +26,27 @@ import calculator.engine.handler.DistinctHandler;
 import calculator.engine.handler.FieldValueHandlerComposite;
 import calculator.engine.handler.FilterHandler;
 import calculator.engine.handler.HandleEnvironment;
+import calculator.engine.handler.ListPipeline;
 import calculator.engine.handler.SortByHandler;
 import calculator.engine.handler.SortHandler;
+import calculator.engine.metadata.CustomDirective;
 import calculator.engine.metadata.FetchSourceTask;
+import calculator.engine.metadata.ListElementResultCollector;
+import calculator.engine.script.ExpressionMemo;
+import calculator.engine.script.ExpressionMemoStatistics;
 import calculator.engine.script.ScriptEvaluator;
+import calculator.engine.decorator.AggregateDecorator;
 import calculator.engine.decorator.ArgumentTransformDecorator;
 import calculator.engine.decorator.DistinctDecorator;
 import calculator.engine.decorator.FilterDecorator;
+import calculator.engine.decorator.GroupByDecorator;
+import calculator.engine.decorator.JoinDecorator;
 import calculator.engine.decorator.MapDecorator;
 import calculator.engine.decorator.MockDecorator;
 import calculator.engine.decorator.SortByDecorator;
 import calculator.engine.decorator.SortDecorator;
 import calculator.engine.decorator.DecoratorComposite;
 import graphql.ExecutionResult;
-import graphql.analysis.QueryTraverser;
 import graphql.com.google.common.collect.ImmutableList;
 import graphql.com.google.common.collect.ImmutableMap;
 import graphql.execution.ExecutionContext;
@@ -46,11 +54,11 @@ import graphql.execution.ResultPath;
 import graphql.execution.instrumentation.InstrumentationContext;
 import graphql.execution.instrumentation.InstrumentationState;
 import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
 import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
 import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
 import graphql.execution.instrumentation.parameters.InstrumentationFieldCompleteParameters;
 import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
-import graphql.execution.preparsed.PreparsedDocumentEntry;
 import graphql.language.Directive;
 import graphql.language.Document;
 import graphql.language.Field;
@@ -64,23 +72,26 @@ import graphql.parser.InvalidSyntaxException;
 import graphql.parser.Parser;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
-import static calculator.common.CommonUtil.fieldPath;
 import static calculator.common.CommonUtil.getArgumentFromDirective;
 import static calculator.common.CommonUtil.getScriptEnv;
 import static calculator.engine.metadata.Directives.INCLUDE_BY;
 import static calculator.engine.metadata.Directives.SKIP_BY;
+import static java.util.stream.Collectors.toSet;
 
 @Internal
 public class ExecutionEngine extends SimpleInstrumentation {
@@ -93,47 +104,114 @@ public class ExecutionEngine extends SimpleInstrumentation {
 
     private final ScriptEvaluator scriptEvaluator;
 
-    // FIXME
-    private final ConcurrentHashMap<String, PreparsedDocumentEntry> documentCache = new ConcurrentHashMap<>();
+    private final int parallelTransformThreshold;
 
+    private final int parallelTransformChunkSize;
 
-    private ExecutionEngine(Executor executor, ObjectMapper objectMapper, ScriptEvaluator scriptEvaluator) {
+    private final ExpressionMemoStatistics expressionMemoStatistics;
+
+    private final Set<String> customDirectiveNames;
+
+    private final DecoratorComposite strategyComposite;
+
+    private final FieldValueHandlerComposite fieldValueHandlerComposite;
+
+    // the plans are keyed by the query text of client, so both of the maps are bounded.
+    private static final int MAX_CACHED_PLAN_COUNT = 1024;
+
+    private final ConcurrentHashMap<String, ExecutionPlan> planByFingerprint = new ConcurrentHashMap<>();
+
+    // the semantically identical queries share the same plan
+    private final ConcurrentHashMap<String, ExecutionPlan> planByNormalizedQuery = new ConcurrentHashMap<>();
+
+
+    private ExecutionEngine(Executor executor,
+                            ObjectMapper objectMapper,
+                            ScriptEvaluator scriptEvaluator,
+                            int parallelTransformThreshold,
+                            int parallelTransformChunkSize,
+                            ExpressionMemoStatistics expressionMemoStatistics,
+                            List<CustomDirective> customDirectives) {
         this.executor = Objects.requireNonNull(executor);
         this.objectMapper = Objects.requireNonNull(objectMapper);
         this.scriptEvaluator = Objects.requireNonNull(scriptEvaluator);
+        this.parallelTransformThreshold = parallelTransformThreshold;
+        this.parallelTransformChunkSize = parallelTransformChunkSize;
+        this.expressionMemoStatistics = expressionMemoStatistics;
+        this.customDirectiveNames = customDirectives.stream().map(CustomDirective::getName).collect(toSet());
+        this.strategyComposite = newDecoratorComposite(customDirectives);
+        this.fieldValueHandlerComposite = newFieldValueHandlerComposite(customDirectives);
     }
 
     public static ExecutionEngine newInstance(Config config) {
-        return new ExecutionEngine(config.getExecutor(), config.getObjectMapper(), config.getScriptEvaluator());
+        return new ExecutionEngine(
+                config.getExecutor(), config.getObjectMapper(), config.getScriptEvaluator(),
+                config.getParallelTransformThreshold(), config.getParallelTransformChunkSize(),
+                config.getExpressionMemoStatistics(), config.getCustomDirectives()
+        );
     }
 
     // ============================================== create InstrumentationState for engine  ==============================================
     @Override
     public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
-        PreparsedDocumentEntry documentEntry = documentCache.compute(parameters.getExecutionInput().getQuery(), (key, oldValue) -> {
-            if (oldValue != null) {
-                return oldValue;
-            }
-            try {
-                Document document = Parser.parse(key);
-                return new PreparsedDocumentEntry(document);
-            } catch (InvalidSyntaxException e) {
-                return new PreparsedDocumentEntry(e.toInvalidSyntaxError());
-            }
-        });
+        // the plan of persisted query is created when it was registered
+        ExecutionPlan executionPlan = parameters.getExecutionInput().getGraphQLContext().get(ExecutionPlan.class);
+        if (executionPlan == null) {
+            executionPlan = getExecutionPlan(parameters.getSchema(), parameters.getExecutionInput().getQuery());
+        }
+
+        if (executionPlan.getDocumentEntry().hasErrors()) {
+            return ExecutionEngineState.CALCULATOR_DIRECTIVE_FREE_STATE;
+        }
 
-        if (documentEntry.hasErrors()) {
-            return ExecutionEngineState.newExecutionState().build();
+        ExecutionEngineState engineState = executionPlan.newExecutionState();
+        if (expressionMemoStatistics != null && !engineState.isCalculatorDirectiveFree()) {
+            // the memo is put into context, for the decorated DataFetcher could be shared by executions.
+            parameters.getExecutionInput().getGraphQLContext().put(ExpressionMemo.class, new ExpressionMemo(expressionMemoStatistics));
         }
+        return engineState;
+    }
+
 
-        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
-                .schema(parameters.getSchema())
-                .document(documentEntry.getDocument())
-                .variables(Collections.emptyMap()).build();
+    private ExecutionPlan getExecutionPlan(GraphQLSchema schema, String query) {
+        String fingerprint = QueryNormalizer.fingerprint(query);
+        ExecutionPlan executionPlan = planByFingerprint.get(fingerprint);
+        if (executionPlan != null) {
+            return executionPlan;
+        }
 
-        ExecutionEngineStateParser stateParser = new ExecutionEngineStateParser();
-        traverser.visitDepthFirst(stateParser);
-        return stateParser.getExecutionEngineState();
+        try {
+            Document document = Parser.parse(query);
+            // the plan does not depend on the name of operation
+            String normalizedHash = QueryNormalizer.normalizedHash(document, false);
+            executionPlan = planByNormalizedQuery.get(normalizedHash);
+            if (executionPlan == null) {
+                executionPlan = ExecutionPlan.newExecutionPlan(schema, document, customDirectiveNames);
+                executionPlan = putWithinBound(planByNormalizedQuery, normalizedHash, executionPlan);
+            }
+        } catch (InvalidSyntaxException e) {
+            executionPlan = ExecutionPlan.newExecutionPlan(schema, query, customDirectiveNames);
+        }
+
+        putWithinBound(planByFingerprint, fingerprint, executionPlan);
+        return executionPlan;
+    }
+
+    /**
+     * Put the plan if absent, and drop the arbitrary plans when the map is full,
+     * the dropped plans are created again if the queries are executed later.
+     */
+    private static ExecutionPlan putWithinBound(ConcurrentHashMap<String, ExecutionPlan> planByKey, String key, ExecutionPlan executionPlan) {
+        if (planByKey.size() >= MAX_CACHED_PLAN_COUNT) {
+            Iterator<String> iterator = planByKey.keySet().iterator();
+            while (planByKey.size() >= MAX_CACHED_PLAN_COUNT && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+
+        ExecutionPlan existingPlan = planByKey.putIfAbsent(key, executionPlan);
+        return existingPlan != null ? existingPlan : executionPlan;
     }
 
 
@@ -147,6 +225,11 @@ public class ExecutionEngine extends SimpleInstrumentation {
             return super.beginFieldFetch(parameters, state);
         }
 
+        // only the fields in fetchSource task tree need to be saved
+        if (!((ExecutionEngineState) state).hasFetchSourceTask()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+
         return saveFetchedValueContext(
                 (ExecutionEngineState) state,
                 parameters.getExecutionStepInfo().getPath(),
@@ -165,6 +248,10 @@ public class ExecutionEngine extends SimpleInstrumentation {
 
         ExecutionEngineState engineState = (ExecutionEngineState) state;
         if (!engineState.isContainSkipByOrIncludeBy()) {
+            // the document transformed by skipBy and includeBy is different for each execution, so it's not bound.
+            if (!engineState.isCalculatorDirectiveFree()) {
+                engineState.getDecoratedDataFetcherCache().bindDocument(executionContext.getDocument());
+            }
             return super.instrumentExecutionContext(executionContext, parameters, state);
         }
 
@@ -274,14 +361,21 @@ public class ExecutionEngine extends SimpleInstrumentation {
         return new InstrumentationContext<Object>() {
             @Override
             public void onDispatched(CompletableFuture<Object> future) {
-                String fieldFullPath = fieldPath(resultPath);
-                FetchSourceTask sourceTask = parseFetchSourceTask(engineState, fieldFullPath);
+                FetchSourceTask sourceTask = engineState.getFetchSourceTask(resultPath);
                 if (sourceTask == null) {
                     return;
                 }
 
                 if (sourceTask.isInList()) {
-                    sourceTask.addListElementResultFuture(future);
+                    ListElementResultCollector resultCollector = sourceTask.getListElementResultCollector();
+                    int elementIndex = resultCollector.registerElement();
+                    future.whenComplete((result, ex) -> {
+                        if (ex != null) {
+                            resultCollector.completeElementExceptionally(ex);
+                        } else {
+                            resultCollector.completeElement(elementIndex, result);
+                        }
+                    });
                 } else {
                     future.whenComplete((result, ex) -> {
                         if (ex != null) {
@@ -316,8 +410,18 @@ public class ExecutionEngine extends SimpleInstrumentation {
         };
     }
 
-    private FetchSourceTask parseFetchSourceTask(ExecutionEngineState engineState, String fieldFullPath) {
-        return engineState.getFetchSourceTaskByPath().get(fieldFullPath);
+    private static void expectListSize(FetchSourceTask sourceTask, Object listValue) {
+        if (!(listValue instanceof Collection) && (listValue == null || !listValue.getClass().isArray())) {
+            return;
+        }
+
+        int listSize = CollectionUtil.arraySize(listValue);
+        for (FetchSourceTask child : sourceTask.getChildrenTaskList()) {
+            if (child.getListElementResultCollector() != null) {
+                child.getListElementResultCollector().expectSize(listSize);
+            }
+            expectListSize(child, listValue);
+        }
     }
 
     private void completeChildrenTask(FetchSourceTask sourceTask) {
@@ -332,19 +436,16 @@ public class ExecutionEngine extends SimpleInstrumentation {
                 child.completeWithDummyValue();
             }
 
-            ArrayList<CompletableFuture<Object>> elementResultFuture = child.getListElementFutures();
-            CompletableFuture<Object>[] elementFutureArray = elementResultFuture.toArray(new CompletableFuture[0]);
-            CompletableFuture.allOf(elementFutureArray).whenComplete((ignore, ex) -> {
+            if (child.getListElementResultCollector() == null) {
+                continue;
+            }
+
+            child.getListElementResultCollector().allElementsRegistered().whenComplete((listResult, ex) -> {
                 if (ex != null) {
                     child.getTaskFuture().completeExceptionally(ex);
                     return;
                 }
 
-                ArrayList<Object> listResult = new ArrayList<>(elementResultFuture.size());
-                for (CompletableFuture<Object> elementFuture : elementResultFuture) {
-                    listResult.add(elementFuture.join());
-                }
-
                 if (child.getMapper() == null) {
                     child.getTaskFuture().complete(listResult);
                 } else {
@@ -368,8 +469,9 @@ public class ExecutionEngine extends SimpleInstrumentation {
 
     // ============================================== alter runtime execution for engine  ================================================
 
-    private static final DecoratorComposite strategyComposite = new DecoratorComposite();
-    static {
+    // the custom directives are registered after the calculator directives, see SchemaWrapper for the name check.
+    private static DecoratorComposite newDecoratorComposite(List<CustomDirective> customDirectives) {
+        DecoratorComposite strategyComposite = new DecoratorComposite();
         strategyComposite.addStrategy(new MockDecorator());
         strategyComposite.addStrategy(new FilterDecorator());
         strategyComposite.addStrategy(new SortDecorator());
@@ -377,14 +479,29 @@ public class ExecutionEngine extends SimpleInstrumentation {
         strategyComposite.addStrategy(new DistinctDecorator());
         strategyComposite.addStrategy(new MapDecorator());
         strategyComposite.addStrategy(new ArgumentTransformDecorator());
+        strategyComposite.addStrategy(new AggregateDecorator());
+        strategyComposite.addStrategy(new GroupByDecorator());
+        strategyComposite.addStrategy(new JoinDecorator());
+        for (CustomDirective customDirective : customDirectives) {
+            if (customDirective.getDecorator() != null) {
+                strategyComposite.addStrategy(customDirective.getDecorator());
+            }
+        }
+        return strategyComposite;
     }
 
-    private static final FieldValueHandlerComposite fieldValueHandlerComposite = new FieldValueHandlerComposite();
-    static {
+    private static FieldValueHandlerComposite newFieldValueHandlerComposite(List<CustomDirective> customDirectives) {
+        FieldValueHandlerComposite fieldValueHandlerComposite = new FieldValueHandlerComposite();
         fieldValueHandlerComposite.addFieldValueHandler(new FilterHandler());
         fieldValueHandlerComposite.addFieldValueHandler(new DistinctHandler());
         fieldValueHandlerComposite.addFieldValueHandler(new SortHandler());
         fieldValueHandlerComposite.addFieldValueHandler(new SortByHandler());
+        for (CustomDirective customDirective : customDirectives) {
+            if (customDirective.getFieldValueHandler() != null) {
+                fieldValueHandlerComposite.addFieldValueHandler(customDirective.getFieldValueHandler());
+            }
+        }
+        return fieldValueHandlerComposite;
     }
 
     @Override
@@ -396,7 +513,14 @@ public class ExecutionEngine extends SimpleInstrumentation {
             return super.instrumentDataFetcher(dataFetcher, parameters, state);
         }
 
+        if (((ExecutionEngineState) state).isCalculatorDirectiveFree()) {
+            return dataFetcher;
+        }
+
         List<Directive> directives = parameters.getEnvironment().getField().getDirectives();
+        if (directives.isEmpty()) {
+            return dataFetcher;
+        }
         return wrapDataFetcher(dataFetcher, directives, parameters, (ExecutionEngineState)state);
     }
 
@@ -404,23 +528,45 @@ public class ExecutionEngine extends SimpleInstrumentation {
                                            List<Directive> directivesOnField,
                                            InstrumentationFieldFetchParameters parameters,
                                            ExecutionEngineState instrumentationState) {
-        for (Directive directive : directivesOnField) {
-            DataFetchingEnvironment fetchingEnvironment = parameters.getEnvironment();
-            DecorateEnvironment wrapperEnvironment = new DecorateEnvironment(
-                    fetchingEnvironment.getField(),
-                    originalDataFetcher, fetchingEnvironment.getFieldDefinition(),
-                    directive, fetchingEnvironment.getFieldDefinition().getDirectives(),
-                    fetchingEnvironment, instrumentationState, parameters.getExecutionContext().getValueUnboxer(),
-                    executor, objectMapper, scriptEvaluator
-
+        DataFetchingEnvironment fetchingEnvironment = parameters.getEnvironment();
+        DecoratedDataFetcherCache dataFetcherCache = instrumentationState.getDecoratedDataFetcherCache();
+
+        // the decorated DataFetcher which gets the result of fetchSource task only could be reused in current execution.
+        if (instrumentationState.hasFetchSourceTask() && containDependencySources(directivesOnField)) {
+            return dataFetcherCache.getExecutionScopedDataFetcher(
+                    fetchingEnvironment.getField(), fetchingEnvironment.getFieldDefinition(), originalDataFetcher,
+                    () -> decorateDataFetcher(originalDataFetcher, directivesOnField, parameters, fetchingEnvironment, instrumentationState)
             );
+        }
 
-            if (strategyComposite.supportDirective(directive, wrapperEnvironment)) {
-                originalDataFetcher = strategyComposite.decorate(directive, wrapperEnvironment);
+        // do not capture the DataFetchingEnvironment and state of current execution in shared DataFetcher.
+        return dataFetcherCache.getSharedDataFetcher(
+                fetchingEnvironment.getDocument(), fetchingEnvironment.getField(), fetchingEnvironment.getFieldDefinition(), originalDataFetcher,
+                () -> decorateDataFetcher(originalDataFetcher, directivesOnField, parameters, null, null)
+        );
+    }
+
+    private static boolean containDependencySources(List<Directive> directivesOnField) {
+        for (Directive directive : directivesOnField) {
+            if (directive.getArgument("dependencySources") != null) {
+                return true;
             }
         }
+        return false;
+    }
 
-        return originalDataFetcher;
+    private DataFetcher<?> decorateDataFetcher(DataFetcher<?> originalDataFetcher,
+                                               List<Directive> directivesOnField,
+                                               InstrumentationFieldFetchParameters parameters,
+                                               DataFetchingEnvironment fetchingEnvironment,
+                                               ExecutionEngineState instrumentationState) {
+        return strategyComposite.decorate(originalDataFetcher, directivesOnField, (directive, dataFetcher) -> new DecorateEnvironment(
+                parameters.getEnvironment().getField(),
+                dataFetcher, parameters.getEnvironment().getFieldDefinition(),
+                directive, parameters.getEnvironment().getFieldDefinition().getDirectives(),
+                fetchingEnvironment, instrumentationState, parameters.getExecutionContext().getValueUnboxer(),
+                executor, objectMapper, scriptEvaluator, parallelTransformThreshold, parallelTransformChunkSize
+        ));
     }
 
     @Override
@@ -432,21 +578,29 @@ public class ExecutionEngine extends SimpleInstrumentation {
             return super.beginFieldListComplete(parameters, state);
         }
 
+        if (((ExecutionEngineState) state).isCalculatorDirectiveFree()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+
+        FetchSourceTask topTask = null;
+        if (((ExecutionEngineState) state).hasFetchSourceTask()) {
+            FetchSourceTask fetchSourceTask = ((ExecutionEngineState) state).getFetchSourceTask(
+                    parameters.getExecutionStrategyParameters().getPath()
+            );
+            if (fetchSourceTask != null && fetchSourceTask.isTopTask()) {
+                topTask = fetchSourceTask;
+                // the elements have not been completed, collect their results by the size of list.
+                expectListSize(topTask, parameters.getFetchedValue());
+            }
+        }
+
+        FetchSourceTask finalTopTask = topTask;
         return new InstrumentationContext<ExecutionResult>() {
             @Override
             public void onDispatched(CompletableFuture<ExecutionResult> result) {
-                String fieldFullPath = fieldPath(parameters.getExecutionStrategyParameters().getPath());
-                FetchSourceTask fetchSourceTask = parseFetchSourceTask(
-                        (ExecutionEngineState)state, fieldFullPath
-                );
-                if (fetchSourceTask == null) {
-                    return;
-                }
-
-                if (fetchSourceTask.isTopTask()) {
-                    completeChildrenTask(fetchSourceTask);
+                if (finalTopTask != null) {
+                    completeChildrenTask(finalTopTask);
                 }
-
             }
 
             @Override
@@ -470,15 +624,30 @@ public class ExecutionEngine extends SimpleInstrumentation {
     private void transformListResultByDirectives(ExecutionResult result,
                                                  List<Directive> directives,
                                                  InstrumentationFieldCompleteParameters parameters) {
+        // the adjacent list directives are fused into one pipeline, and applied in order of directives.
+        ListPipeline pipeline = null;
         for (Directive directive : directives) {
+            if (!fieldValueHandlerComposite.supportDirective(directive)) {
+                continue;
+            }
 
+            if (pipeline == null) {
+                pipeline = new ListPipeline(result.getData(), objectMapper, scriptEvaluator);
+            }
+            if (fieldValueHandlerComposite.fuseInto(pipeline, directive)) {
+                continue;
+            }
+
+            pipeline.finish();
+            pipeline = null;
             HandleEnvironment handleEnvironment = new HandleEnvironment(
                     directive, result, parameters, executor, objectMapper, scriptEvaluator
             );
+            fieldValueHandlerComposite.transformListResultByDirectives(handleEnvironment);
+        }
 
-            if (fieldValueHandlerComposite.supportDirective(directive)) {
-                fieldValueHandlerComposite.transformListResultByDirectives(handleEnvironment);
-            }
+        if (pipeline != null) {
+            pipeline.finish();
         }
     }
 
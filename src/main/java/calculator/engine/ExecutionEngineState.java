@@ -19,9 +19,12 @@ package calculator.engine;
 
 import calculator.engine.annotation.Internal;
 import calculator.engine.metadata.FetchSourceTask;
+import graphql.execution.ResultPath;
 import graphql.execution.instrumentation.InstrumentationState;
 
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +35,13 @@ import java.util.function.Supplier;
 @Internal
 public class ExecutionEngineState implements InstrumentationState {
 
+    /**
+     * The shared state for query without calculator directive, which is never changed during execution.
+     */
+    static final ExecutionEngineState CALCULATOR_DIRECTIVE_FREE_STATE = newExecutionState().calculatorDirectiveFree().build();
+
+    private final boolean calculatorDirectiveFree;
+
     private final boolean containSkipByOrIncludeBy;
 
     private final Map<String, FetchSourceTask> fetchSourceTaskByPath;
@@ -41,16 +51,51 @@ public class ExecutionEngineState implements InstrumentationState {
     // <sourceName,List<fullFieldPath>>
     private final Map<String, List<String>> queryTaskBySourceName;
 
+    // the following fields are the id form of above paths, which are shared by the copied states.
+    private final FetchSourceTaskIndex taskIndex;
+
+    private final FetchSourceTask[] taskById;
+
+    private final Map<String, int[]> topTaskIdsBySourceName;
+
+    private final Map<String, int[]> queryTaskIdsBySourceName;
+
+    private final DecoratedDataFetcherCache decoratedDataFetcherCache;
+
     private ExecutionEngineState(
+            boolean calculatorDirectiveFree,
             boolean containSkipByOrIncludeBy,
             Map<String, FetchSourceTask> fetchSourceTaskByPath,
             Map<String, List<String>> topTaskByNode,
-            Map<String, List<String>> queryTaskByNode
+            Map<String, List<String>> queryTaskByNode,
+            FetchSourceTaskIndex taskIndex,
+            Map<String, int[]> topTaskIdsBySourceName,
+            Map<String, int[]> queryTaskIdsBySourceName,
+            DecoratedDataFetcherCache decoratedDataFetcherCache
     ) {
+        this.calculatorDirectiveFree = calculatorDirectiveFree;
         this.containSkipByOrIncludeBy = containSkipByOrIncludeBy;
         this.fetchSourceTaskByPath = Collections.unmodifiableMap(fetchSourceTaskByPath);
         this.topTaskBySourceName = Collections.unmodifiableMap(topTaskByNode);
         this.queryTaskBySourceName = Collections.unmodifiableMap(queryTaskByNode);
+        this.taskIndex = taskIndex;
+        this.topTaskIdsBySourceName = topTaskIdsBySourceName;
+        this.queryTaskIdsBySourceName = queryTaskIdsBySourceName;
+        this.decoratedDataFetcherCache = decoratedDataFetcherCache;
+
+        this.taskById = new FetchSourceTask[taskIndex.size()];
+        for (int taskId = 0; taskId < taskById.length; taskId++) {
+            taskById[taskId] = fetchSourceTaskByPath.get(taskIndex.getFieldPath(taskId));
+        }
+    }
+
+    /**
+     * Whether the query does not use any calculator directive, then the engine could skip all the instrumentation.
+     *
+     * @return true if there is no calculator directive in query
+     */
+    public boolean isCalculatorDirectiveFree() {
+        return calculatorDirectiveFree;
     }
 
     public boolean isContainSkipByOrIncludeBy() {
@@ -69,12 +114,80 @@ public class ExecutionEngineState implements InstrumentationState {
         return queryTaskBySourceName;
     }
 
+    public boolean hasFetchSourceTask() {
+        return taskById.length > 0;
+    }
+
+    /**
+     * Get the task of the field by its result path, without building the field path string.
+     *
+     * @param resultPath result path of field
+     * @return task, or null if there is no task for the field
+     */
+    public FetchSourceTask getFetchSourceTask(ResultPath resultPath) {
+        int taskId = taskIndex.getTaskId(resultPath);
+        return taskId == FetchSourceTaskIndex.NO_TASK ? null : taskById[taskId];
+    }
+
+    public FetchSourceTask getFetchSourceTask(int taskId) {
+        return taskById[taskId];
+    }
+
+    /**
+     * The ids of tasks whose field path are in {@link #getTopTaskBySourceName()}, in the same order.
+     *
+     * @param sourceName source name
+     * @return task ids
+     */
+    public int[] getTopTaskIds(String sourceName) {
+        return topTaskIdsBySourceName.get(sourceName);
+    }
+
+    /**
+     * The ids of tasks whose field path are in {@link #getQueryTaskBySourceName()}, in the same order.
+     *
+     * @param sourceName source name
+     * @return task ids
+     */
+    public int[] getQueryTaskIds(String sourceName) {
+        return queryTaskIdsBySourceName.get(sourceName);
+    }
+
+    DecoratedDataFetcherCache getDecoratedDataFetcherCache() {
+        return decoratedDataFetcherCache;
+    }
+
+    /**
+     * Create a state with the same fetch source tasks but new task futures,
+     * which is used to reuse the state parsed from a cached query.
+     *
+     * @return state for a new execution
+     */
+    public ExecutionEngineState copyForExecution() {
+        if (calculatorDirectiveFree) {
+            // nothing in the state will be changed during execution
+            return this;
+        }
+
+        Map<FetchSourceTask, FetchSourceTask> copiedTasks = new IdentityHashMap<>();
+        Map<String, FetchSourceTask> copiedTaskByPath = new ConcurrentHashMap<>();
+        for (Map.Entry<String, FetchSourceTask> entry : fetchSourceTaskByPath.entrySet()) {
+            copiedTaskByPath.put(entry.getKey(), entry.getValue().copyWithNewFuture(copiedTasks));
+        }
+        return new ExecutionEngineState(
+                calculatorDirectiveFree, containSkipByOrIncludeBy, copiedTaskByPath, topTaskBySourceName, queryTaskBySourceName,
+                taskIndex, topTaskIdsBySourceName, queryTaskIdsBySourceName, decoratedDataFetcherCache.copyForExecution()
+        );
+    }
+
     public static Builder newExecutionState() {
         return new Builder();
     }
 
     public static class Builder {
 
+        private boolean calculatorDirectiveFree = false;
+
         private volatile boolean containSkipByOrIncludeBy = false;
 
         private Map<String, FetchSourceTask> fetchSourceTaskByPath = new ConcurrentHashMap<>();
@@ -84,6 +197,11 @@ public class ExecutionEngineState implements InstrumentationState {
         private Map<String, List<String>> queryTaskBySourceName = new LinkedHashMap<>();
 
 
+        public Builder calculatorDirectiveFree() {
+            calculatorDirectiveFree = true;
+            return this;
+        }
+
         public Builder containSkipByOrIncludeBy() {
             containSkipByOrIncludeBy = true;
             return this;
@@ -126,7 +244,21 @@ public class ExecutionEngineState implements InstrumentationState {
         }
 
         public ExecutionEngineState build() {
-            return new ExecutionEngineState(containSkipByOrIncludeBy, fetchSourceTaskByPath, topTaskBySourceName, queryTaskBySourceName);
+            FetchSourceTaskIndex taskIndex = new FetchSourceTaskIndex(fetchSourceTaskByPath.keySet());
+            return new ExecutionEngineState(
+                    calculatorDirectiveFree, containSkipByOrIncludeBy, fetchSourceTaskByPath, topTaskBySourceName, queryTaskBySourceName,
+                    taskIndex, toTaskIds(taskIndex, topTaskBySourceName), toTaskIds(taskIndex, queryTaskBySourceName),
+                    new DecoratedDataFetcherCache()
+            );
+        }
+
+        private static Map<String, int[]> toTaskIds(FetchSourceTaskIndex taskIndex, Map<String, List<String>> pathsBySourceName) {
+            Map<String, int[]> taskIdsBySourceName = new HashMap<>();
+            for (Map.Entry<String, List<String>> entry : pathsBySourceName.entrySet()) {
+                int[] taskIds = entry.getValue().stream().mapToInt(taskIndex::getTaskId).toArray();
+                taskIdsBySourceName.put(entry.getKey(), taskIds);
+            }
+            return Collections.unmodifiableMap(taskIdsBySourceName);
         }
     }
 }
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine;
+
+import calculator.engine.annotation.Internal;
+import graphql.analysis.QueryTraverser;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.language.Directive;
+import graphql.language.Document;
+import graphql.language.Node;
+import graphql.language.NodeTraverser;
+import graphql.language.NodeVisitorStub;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.util.TraversalControl;
+import graphql.util.TraverserContext;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static calculator.engine.ExecutionEngineState.CALCULATOR_DIRECTIVE_FREE_STATE;
+import static calculator.engine.metadata.Directives.getCalQueryDirectiveByName;
+
+/**
+ * The parsed document and the calculator state parsed from the document,
+ * which could be cached and reused by the executions of the same query.
+ */
+@Internal
+public class ExecutionPlan {
+
+    private final PreparsedDocumentEntry documentEntry;
+
+    private final ExecutionEngineState stateTemplate;
+
+    private ExecutionPlan(PreparsedDocumentEntry documentEntry, ExecutionEngineState stateTemplate) {
+        this.documentEntry = Objects.requireNonNull(documentEntry);
+        this.stateTemplate = Objects.requireNonNull(stateTemplate);
+    }
+
+    public static ExecutionPlan newExecutionPlan(GraphQLSchema schema, String query) {
+        return newExecutionPlan(schema, query, Collections.emptySet());
+    }
+
+    public static ExecutionPlan newExecutionPlan(GraphQLSchema schema, Document document) {
+        return newExecutionPlan(schema, document, Collections.emptySet());
+    }
+
+    /**
+     * Create the plan of query.
+     *
+     * @param schema               the wrapped schema
+     * @param query                query text
+     * @param customDirectiveNames the names of custom directives, see {@link calculator.config.Config#getCustomDirectives()}
+     * @return the plan of query
+     */
+    public static ExecutionPlan newExecutionPlan(GraphQLSchema schema, String query, Set<String> customDirectiveNames) {
+        try {
+            Document document = Parser.parse(query);
+            return newExecutionPlan(schema, document, customDirectiveNames);
+        } catch (InvalidSyntaxException e) {
+            return new ExecutionPlan(new PreparsedDocumentEntry(e.toInvalidSyntaxError()), CALCULATOR_DIRECTIVE_FREE_STATE);
+        }
+    }
+
+    public static ExecutionPlan newExecutionPlan(GraphQLSchema schema, Document document, Set<String> customDirectiveNames) {
+        if (!containCalculatorDirective(document, customDirectiveNames)) {
+            return new ExecutionPlan(new PreparsedDocumentEntry(document), CALCULATOR_DIRECTIVE_FREE_STATE);
+        }
+
+        QueryTraverser traverser = QueryTraverser.newQueryTraverser()
+                .schema(schema)
+                .document(document)
+                .variables(Collections.emptyMap()).build();
+
+        ExecutionEngineStateParser stateParser = new ExecutionEngineStateParser();
+        traverser.visitDepthFirst(stateParser);
+        return new ExecutionPlan(new PreparsedDocumentEntry(document), stateParser.getExecutionEngineState());
+    }
+
+    private static boolean containCalculatorDirective(Document document, Set<String> customDirectiveNames) {
+        AtomicBoolean containCalculatorDirective = new AtomicBoolean(false);
+        new NodeTraverser().depthFirst(new NodeVisitorStub() {
+            @Override
+            @SuppressWarnings("rawtypes")
+            public TraversalControl visitDirective(Directive node, TraverserContext<Node> context) {
+                if (getCalQueryDirectiveByName().containsKey(node.getName()) || customDirectiveNames.contains(node.getName())) {
+                    containCalculatorDirective.set(true);
+                    return TraversalControl.QUIT;
+                }
+                return TraversalControl.CONTINUE;
+            }
+        }, document);
+        return containCalculatorDirective.get();
+    }
+
+    public PreparsedDocumentEntry getDocumentEntry() {
+        return documentEntry;
+    }
+
+    /**
+     * Create the state for a new execution, the tasks of state are not shared with other executions.
+     *
+     * @return state for a new execution
+     */
+    public ExecutionEngineState newExecutionState() {
+        return stateTemplate.copyForExecution();
+    }
+}
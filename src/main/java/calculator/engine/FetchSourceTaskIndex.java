@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine;
+
+import calculator.engine.annotation.Internal;
+import graphql.execution.ResultPath;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static calculator.common.GraphQLUtil.PATH_SEPARATOR;
+
+/**
+ * The dense integer ids of the field paths which have fetchSource tasks.
+ *
+ * <p>The paths are interned in a trie by field name, then the id of {@link ResultPath} is resolved
+ * by walking the trie along the path segments, without building the field path string.
+ * The index is immutable and shared by all the executions of the same plan.
+ */
+@Internal
+public class FetchSourceTaskIndex {
+
+    public static final int NO_TASK = -1;
+
+    private final PathNode root = new PathNode();
+
+    private final String[] pathById;
+
+    FetchSourceTaskIndex(Collection<String> fieldPaths) {
+        this.pathById = new String[fieldPaths.size()];
+
+        int taskId = 0;
+        for (String fieldPath : fieldPaths) {
+            PathNode node = root;
+            for (String segment : fieldPath.split("\\" + PATH_SEPARATOR)) {
+                node = node.children.computeIfAbsent(segment, ignore -> new PathNode());
+            }
+            node.taskId = taskId;
+            pathById[taskId] = fieldPath;
+            taskId++;
+        }
+    }
+
+    public int size() {
+        return pathById.length;
+    }
+
+    public String getFieldPath(int taskId) {
+        return pathById[taskId];
+    }
+
+    /**
+     * Get the task id of the field path.
+     *
+     * @param fieldPath field path separated by '.'
+     * @return task id, or {@link #NO_TASK} if there is no task for the path
+     */
+    public int getTaskId(String fieldPath) {
+        PathNode node = root;
+        for (String segment : fieldPath.split("\\" + PATH_SEPARATOR)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return NO_TASK;
+            }
+        }
+        return node.taskId;
+    }
+
+    /**
+     * Get the task id of the result path, the list index segments are ignored.
+     *
+     * @param resultPath result path
+     * @return task id, or {@link #NO_TASK} if there is no task for the path
+     */
+    public int getTaskId(ResultPath resultPath) {
+        if (pathById.length == 0) {
+            return NO_TASK;
+        }
+
+        PathNode node = findNode(resultPath);
+        return node == null || node == root ? NO_TASK : node.taskId;
+    }
+
+    private PathNode findNode(ResultPath resultPath) {
+        if (resultPath == null || resultPath.isRootPath()) {
+            return root;
+        }
+
+        PathNode parentNode = findNode(resultPath.getParent());
+        if (parentNode == null || !resultPath.isNamedSegment()) {
+            return parentNode;
+        }
+
+        String segmentName = resultPath.getSegmentName();
+        if (segmentName == null || segmentName.isEmpty()) {
+            return parentNode;
+        }
+        return parentNode.children.get(segmentName);
+    }
+
+    private static class PathNode {
+
+        private final Map<String, PathNode> children = new HashMap<>(4);
+
+        private int taskId = NO_TASK;
+    }
+}
@@ -23,6 +23,15 @@ import calculator.engine.annotation.PublicApi;
 @PublicApi
 public interface ObjectMapper {
 
+    /**
+     * Convert the object to the simple structure composed of Map, List and basic types, which is used by script.
+     *
+     * <p>The result could share the Map and List with the object if they are already simple,
+     * so the result must not be modified, and the one who modifies it should copy it first.
+     *
+     * @param object the object
+     * @return the simple structure
+     */
     Object toSimpleCollection(Object object);
 
 }
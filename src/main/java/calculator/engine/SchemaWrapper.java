@@ -19,6 +19,7 @@ package calculator.engine;
 
 import calculator.config.Config;
 import calculator.engine.annotation.Internal;
+import calculator.engine.metadata.CustomDirective;
 import calculator.engine.validation.CalculatorSchemaValidationError;
 import calculator.engine.validation.SchemaValidator;
 import calculator.exception.WrapperSchemaException;
@@ -29,9 +30,11 @@ import graphql.schema.SchemaTraverser;
 import graphql.util.TraverserResult;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import static calculator.engine.metadata.Directives.AGGREGATE_TYPE;
 import static calculator.engine.metadata.Directives.ARGUMENT_TRANSFORM_TYPE;
 import static calculator.engine.metadata.Directives.getCalDirectiveByName;
 import static calculator.engine.metadata.Directives.getCalQueryDirectiveByName;
@@ -50,7 +53,11 @@ public class SchemaWrapper {
         for (GraphQLDirective calDirective : getCalDirectiveByName().values()) {
             wrappedSchemaBuilder.additionalDirective(calDirective);
         }
+        for (CustomDirective customDirective : config.getCustomDirectives()) {
+            wrappedSchemaBuilder.additionalDirective(customDirective.getDefinition());
+        }
         wrappedSchemaBuilder.additionalType(ARGUMENT_TRANSFORM_TYPE);
+        wrappedSchemaBuilder.additionalType(AGGREGATE_TYPE);
         GraphQLSchema resultSchema = wrappedSchemaBuilder.build();
 
         SchemaTraverser schemaTraverser = new SchemaTraverser();
@@ -77,6 +84,15 @@ public class SchemaWrapper {
             throw new WrapperSchemaException(errorMsg);
         }
 
+        Set<String> customDirsName = new HashSet<>();
+        for (CustomDirective customDirective : config.getCustomDirectives()) {
+            String name = customDirective.getName();
+            if (getCalDirectiveByName().containsKey(name) || schemaDirsName.contains(name) || !customDirsName.add(name)) {
+                String errorMsg = String.format("custom directive named '%s' is already exist.", name);
+                throw new WrapperSchemaException(errorMsg);
+            }
+        }
+
         List<CalculatorSchemaValidationError> schemaValidationErrors = SchemaValidator.validateSchema(config, existingSchema);
         if (!schemaValidationErrors.isEmpty()) {
             StringBuilder sb = new StringBuilder();
@@ -18,17 +18,23 @@
 package calculator.engine.decorator;
 
 import calculator.engine.ExecutionEngineState;
+import calculator.engine.ObjectMapper;
 import calculator.engine.annotation.Internal;
 import calculator.engine.metadata.FetchSourceTask;
 import graphql.execution.DataFetcherResult;
 import graphql.execution.ValueUnboxer;
 
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
 
-import static java.util.stream.Collectors.toList;
+import static calculator.common.CommonUtil.getScriptEnv;
 
 @Internal
 public abstract class AbstractDecorator implements Decorator {
@@ -59,18 +65,47 @@ public abstract class AbstractDecorator implements Decorator {
         return data;
     }
 
-    protected FetchSourceTask getFetchSourceFromState(ExecutionEngineState engineState, String sourceName) {
-        Map<String, FetchSourceTask> fetchSourceTaskByPath = engineState.getFetchSourceTaskByPath();
-        Map<String, List<String>> queryTaskBySourceName = engineState.getQueryTaskBySourceName();
-        List<String> queryTaskNameList = queryTaskBySourceName.get(sourceName);
+    /**
+     * Get the immutable script-ready value of the completed source task, or null if the task is completed exceptionally.
+     *
+     * @param sourceTask   the completed source task
+     * @param objectMapper convert the task value to simple collection
+     * @return the snapshot of task value
+     */
+    protected static Object getSourceSnapshot(FetchSourceTask sourceTask, ObjectMapper objectMapper) {
+        if (sourceTask.getTaskFuture().isCompletedExceptionally()) {
+            return null;
+        }
+
+        return sourceTask.getSnapshot(value -> {
+            Object simpleValue = objectMapper.toSimpleCollection(value);
+            if (simpleValue instanceof Map) {
+                return Collections.unmodifiableMap((Map<?, ?>) simpleValue);
+            } else if (simpleValue instanceof List) {
+                return Collections.unmodifiableList((List<?>) simpleValue);
+            }
+            return simpleValue;
+        });
+    }
+
+    protected static FetchSourceTask getFetchSourceFromState(ExecutionEngineState engineState, String sourceName) {
+        int[] topTaskIds = engineState.getTopTaskIds(sourceName);
+        FetchSourceTask lastTopTask = engineState.getFetchSourceTask(topTaskIds[topTaskIds.length - 1]);
+        // the source has been resolved, e.g. by another directive on the same field.
+        if (lastTopTask.getTaskFuture().isDone()) {
+            return lastTopTask;
+        }
 
-        List<CompletableFuture<Object>> queryTaskList = queryTaskNameList.stream()
-                .map(fieldPath -> fetchSourceTaskByPath.get(fieldPath).getTaskFuture())
-                .collect(toList());
+        int[] queryTaskIds = engineState.getQueryTaskIds(sourceName);
+        List<CompletableFuture<Object>> queryTaskList = new ArrayList<>(queryTaskIds.length);
+        for (int queryTaskId : queryTaskIds) {
+            queryTaskList.add(engineState.getFetchSourceTask(queryTaskId).getTaskFuture());
+        }
 
-        Map<String, List<String>> topTaskBySourceName = engineState.getTopTaskBySourceName();
-        List<String> topTaskNameList = topTaskBySourceName.get(sourceName);
-        List<FetchSourceTask> topTaskList = topTaskNameList.stream().map(fetchSourceTaskByPath::get).collect(toList());
+        List<FetchSourceTask> topTaskList = new ArrayList<>(topTaskIds.length);
+        for (int topTaskId : topTaskIds) {
+            topTaskList.add(engineState.getFetchSourceTask(topTaskId));
+        }
         FetchSourceTask valueTask = topTaskList.get(topTaskList.size() - 1);
 
         for (CompletableFuture<Object> queryTask : queryTaskList) {
@@ -110,4 +145,38 @@ public abstract class AbstractDecorator implements Decorator {
 
         return valueTask;
     }
+
+    /**
+     * Visit the elements of collection or array, including array of primitive type.
+     */
+    protected static void forEachElement(Object listOrArray, Consumer<Object> elementConsumer) {
+        if (listOrArray instanceof Collection) {
+            for (Object element : (Collection<?>) listOrArray) {
+                elementConsumer.accept(element);
+            }
+        } else if (listOrArray != null && listOrArray.getClass().isArray()) {
+            int length = Array.getLength(listOrArray);
+            for (int i = 0; i < length; i++) {
+                elementConsumer.accept(Array.get(listOrArray, i));
+            }
+        } else if (listOrArray != null) {
+            throw new IllegalArgumentException("only list is supported, but found " + listOrArray.getClass().getName());
+        }
+    }
+
+    /**
+     * Get the value of element by key, or the element itself if key is null.
+     */
+    protected static Object elementValue(ObjectMapper objectMapper, Object element, String key) {
+        if (key == null || element == null) {
+            return element;
+        }
+
+        if (element instanceof Map) {
+            return ((Map<?, ?>) element).get(key);
+        }
+
+        Object elementEnv = getScriptEnv(objectMapper, element);
+        return elementEnv instanceof Map ? ((Map<?, ?>) elementEnv).get(key) : null;
+    }
 }
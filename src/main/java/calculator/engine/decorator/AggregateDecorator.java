@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.decorator;
+
+import calculator.common.GraphQLUtil;
+import calculator.engine.annotation.Internal;
+import calculator.engine.metadata.DataFetcherDefinition;
+import calculator.engine.metadata.Directives.AggregateType;
+import calculator.engine.metadata.FetchSourceTask;
+import graphql.language.Directive;
+import graphql.schema.DataFetcher;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static calculator.common.CommonUtil.getArgumentFromDirective;
+import static calculator.common.CommonUtil.getDependenceSourceFromDirective;
+import static calculator.engine.metadata.Directives.COUNT;
+import static calculator.engine.metadata.Directives.MAX;
+import static calculator.engine.metadata.Directives.MIN;
+import static calculator.engine.metadata.Directives.SUM;
+import static graphql.schema.AsyncDataFetcher.async;
+
+/**
+ * Aggregate the dependency source list for '@count', '@sum', '@min' and '@max' in one pass.
+ */
+@Internal
+public class AggregateDecorator extends AbstractDecorator {
+
+    private static final Map<String, AggregateType> AGGREGATE_TYPE_BY_DIRECTIVE = new HashMap<>();
+
+    static {
+        AGGREGATE_TYPE_BY_DIRECTIVE.put(COUNT.getName(), AggregateType.COUNT);
+        AGGREGATE_TYPE_BY_DIRECTIVE.put(SUM.getName(), AggregateType.SUM);
+        AGGREGATE_TYPE_BY_DIRECTIVE.put(MIN.getName(), AggregateType.MIN);
+        AGGREGATE_TYPE_BY_DIRECTIVE.put(MAX.getName(), AggregateType.MAX);
+    }
+
+    @Override
+    public boolean supportDirective(Directive directive, DecorateEnvironment environment) {
+        return AGGREGATE_TYPE_BY_DIRECTIVE.containsKey(environment.getDirective().getName());
+    }
+
+    @Override
+    public DataFetcher<?> decorate(Directive directive, DecorateEnvironment environment) {
+        AggregateType aggregateType = AGGREGATE_TYPE_BY_DIRECTIVE.get(environment.getDirective().getName());
+        String dependencySource = getDependenceSourceFromDirective(environment.getDirective()).get(0);
+        String key = getArgumentFromDirective(environment.getDirective(), "key");
+        List<Object> aggregationKey = Arrays.asList(environment.getDirective().getName(), key);
+
+        DataFetcherDefinition dataFetcherDefinition = GraphQLUtil.getDataFetcherDefinition(
+                environment.getOriginalDataFetcher()
+        );
+
+        DataFetcher<?> wrappedDataFetcher = fetchingEnvironment -> {
+            FetchSourceTask sourceTask = getFetchSourceFromState(environment.getEngineState(), dependencySource);
+            if (sourceTask.getTaskFuture().isCompletedExceptionally()) {
+                return null;
+            }
+
+            // the fields in list share the result of the same aggregation.
+            return sourceTask.getAggregation(aggregationKey, ignored -> {
+                Aggregator aggregator = new Aggregator(aggregateType);
+                forEachElement(getSourceSnapshot(sourceTask, environment.getObjectMapper()),
+                        element -> aggregator.add(elementValue(environment.getObjectMapper(), element, key))
+                );
+                return aggregator.getResult();
+            });
+        };
+
+        if (dataFetcherDefinition.isAsyncFetcher()) {
+            return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
+        }
+        return async(wrappedDataFetcher, environment.getExecutor());
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.decorator;
+
+import calculator.engine.metadata.Directives.AggregateType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Objects;
+
+/**
+ * Aggregate values one by one, number values are accumulated as primitive long or double,
+ * and only promoted to {@link BigDecimal} when the value is big number or long value overflows.
+ *
+ * <p>Null value is ignored, the result of 'count' and 'sum' is 0 if there is no value,
+ * and the result of 'min' and 'max' is null if there is no value.
+ */
+class Aggregator {
+
+    private static final int NO_NUMBER = 0;
+
+    private static final int LONG_NUMBER = 1;
+
+    private static final int DOUBLE_NUMBER = 2;
+
+    private static final int DECIMAL_NUMBER = 3;
+
+    private final AggregateType aggregateType;
+
+    private long count;
+
+    // the kind of accumulated number, for 'sum' is the kind of sum, for 'min' and 'max' is the kind of extreme value.
+    private int numberKind = NO_NUMBER;
+
+    private long longValue;
+
+    private double doubleValue;
+
+    private BigDecimal decimalValue;
+
+    // the original min or max value.
+    private Object extremeValue;
+
+    Aggregator(AggregateType aggregateType) {
+        this.aggregateType = Objects.requireNonNull(aggregateType);
+    }
+
+    void add(Object value) {
+        if (value == null) {
+            return;
+        }
+
+        count++;
+        switch (aggregateType) {
+            case COUNT:
+                return;
+            case SUM:
+                addToSum(value);
+                return;
+            case MIN:
+                if (extremeValue == null || compareToExtreme(value) < 0) {
+                    setExtreme(value);
+                }
+                return;
+            case MAX:
+                if (extremeValue == null || compareToExtreme(value) > 0) {
+                    setExtreme(value);
+                }
+                return;
+            default:
+                throw new IllegalStateException("unsupported aggregate type " + aggregateType);
+        }
+    }
+
+    Object getResult() {
+        switch (aggregateType) {
+            case COUNT:
+                return count;
+            case SUM:
+                if (numberKind == DOUBLE_NUMBER) {
+                    return doubleValue;
+                }
+                if (numberKind == DECIMAL_NUMBER) {
+                    return decimalValue;
+                }
+                return longValue;
+            default:
+                return extremeValue;
+        }
+    }
+
+    private void addToSum(Object value) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("only number can be summed, but found " + value.getClass().getName());
+        }
+
+        int valueKind = kindOf((Number) value);
+        if (numberKind == NO_NUMBER) {
+            numberKind = LONG_NUMBER;
+        }
+
+        if (numberKind == LONG_NUMBER && valueKind == LONG_NUMBER) {
+            long longSum = longValue + ((Number) value).longValue();
+            // overflow if both operands have the opposite sign of the result
+            if (((longValue ^ longSum) & (((Number) value).longValue() ^ longSum)) >= 0) {
+                longValue = longSum;
+                return;
+            }
+            valueKind = DECIMAL_NUMBER;
+        }
+
+        if (numberKind == LONG_NUMBER && valueKind == DOUBLE_NUMBER) {
+            numberKind = DOUBLE_NUMBER;
+            doubleValue = longValue;
+        } else if (numberKind != DECIMAL_NUMBER && valueKind == DECIMAL_NUMBER) {
+            decimalValue = numberKind == LONG_NUMBER ? BigDecimal.valueOf(longValue) : BigDecimal.valueOf(doubleValue);
+            numberKind = DECIMAL_NUMBER;
+        }
+
+        if (numberKind == DOUBLE_NUMBER) {
+            doubleValue += ((Number) value).doubleValue();
+        } else {
+            decimalValue = decimalValue.add(toDecimal((Number) value));
+        }
+    }
+
+    private void setExtreme(Object value) {
+        extremeValue = value;
+        if (value instanceof Number) {
+            numberKind = kindOf((Number) value);
+            if (numberKind == LONG_NUMBER) {
+                longValue = ((Number) value).longValue();
+            } else if (numberKind == DOUBLE_NUMBER) {
+                doubleValue = ((Number) value).doubleValue();
+            } else {
+                decimalValue = toDecimal((Number) value);
+            }
+        } else {
+            numberKind = NO_NUMBER;
+        }
+    }
+
+    private int compareToExtreme(Object value) {
+        if (value instanceof Number && numberKind != NO_NUMBER) {
+            int valueKind = kindOf((Number) value);
+            if (valueKind == LONG_NUMBER && numberKind == LONG_NUMBER) {
+                return Long.compare(((Number) value).longValue(), longValue);
+            }
+
+            if (valueKind != DECIMAL_NUMBER && numberKind != DECIMAL_NUMBER) {
+                double extreme = numberKind == LONG_NUMBER ? longValue : doubleValue;
+                return Double.compare(((Number) value).doubleValue(), extreme);
+            }
+
+            return toDecimal((Number) value).compareTo(toDecimal((Number) extremeValue));
+        }
+
+        if (value instanceof Comparable && extremeValue.getClass() == value.getClass()) {
+            // the values are of the same class.
+            @SuppressWarnings("unchecked")
+            Comparable<Object> comparableValue = (Comparable<Object>) value;
+            return comparableValue.compareTo(extremeValue);
+        }
+
+        throw new IllegalArgumentException(String.format(
+                "can not compare %s with %s", value.getClass().getName(), extremeValue.getClass().getName()
+        ));
+    }
+
+    private static int kindOf(Number number) {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            return LONG_NUMBER;
+        }
+
+        if (number instanceof BigDecimal || number instanceof BigInteger) {
+            return DECIMAL_NUMBER;
+        }
+
+        return DOUBLE_NUMBER;
+    }
+
+    private static BigDecimal toDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+
+        if (kindOf(number) == LONG_NUMBER) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+
+        return BigDecimal.valueOf(number.doubleValue());
+    }
+}
@@ -18,31 +18,45 @@
 package calculator.engine.decorator;
 
 import calculator.common.GraphQLUtil;
+import calculator.common.LayeredMap;
 import calculator.engine.annotation.Internal;
 import calculator.engine.metadata.DataFetcherDefinition;
 import calculator.engine.metadata.Directives;
 import calculator.engine.metadata.FetchSourceTask;
+import calculator.engine.script.CompiledScript;
+import calculator.engine.script.ExpressionMemo;
+import calculator.engine.script.InvariantHoistedScript;
 import graphql.language.Directive;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.DataFetchingEnvironmentImpl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
 import static calculator.common.CommonUtil.getDependenceSourceFromDirective;
 import static calculator.engine.metadata.Directives.ARGUMENT_TRANSFORM;
 import static graphql.schema.AsyncDataFetcher.async;
-import static java.util.stream.Collectors.toList;
 
 @Internal
 public class ArgumentTransformDecorator extends AbstractDecorator {
 
+    private static final Set<String> ELEMENT_VARIABLES = Collections.singleton("ele");
+
     @Override
     public boolean supportDirective(Directive directive, DecorateEnvironment environment) {
         return Objects.equals(ARGUMENT_TRANSFORM.getName(), directive.getName());
@@ -59,6 +73,14 @@ public class ArgumentTransformDecorator extends AbstractDecorator {
 
         String argumentName = getArgumentFromDirective(directive, "argumentName");
         String expression = getArgumentFromDirective(directive, "expression");
+        // the parts of element expression which do not use 'ele' are evaluated only once for the list.
+        InvariantHoistedScript elementExpression = Objects.equals(finalOperateType, Directives.ParamTransformType.MAP.name())
+                ? null
+                : InvariantHoistedScript.hoist(environment.getScriptEvaluator(), expression, ELEMENT_VARIABLES);
+        CompiledScript compiledExpression = elementExpression != null
+                ? elementExpression.getOriginalScript()
+                : environment.getScriptEvaluator().compile(expression);
+        boolean memoizable = elementExpression == null && ExpressionMemo.isMemoizable(environment.getScriptEvaluator(), expression);
         List<String> dependencySources = getDependenceSourceFromDirective(directive);
 
         DataFetcherDefinition dataFetcherDefinition = GraphQLUtil.getDataFetcherDefinition(environment.getOriginalDataFetcher());
@@ -68,11 +90,7 @@ public class ArgumentTransformDecorator extends AbstractDecorator {
             if (dependencySources != null && !dependencySources.isEmpty()) {
                 for (String dependencySource : dependencySources) {
                     FetchSourceTask sourceTask = getFetchSourceFromState(environment.getEngineState(), dependencySource);
-                    if (sourceTask.getTaskFuture().isCompletedExceptionally()) {
-                        sourceEnv.put(dependencySource, null);
-                    } else {
-                        sourceEnv.put(dependencySource, sourceTask.getTaskFuture().join());
-                    }
+                    sourceEnv.put(dependencySource, getSourceSnapshot(sourceTask, environment.getObjectMapper()));
                 }
             }
 
@@ -83,13 +101,17 @@ public class ArgumentTransformDecorator extends AbstractDecorator {
                     return dataFetcherDefinition.getActionFetcher().get(fetchingEnvironment);
                 }
 
-                argument = argument.stream().filter(ele -> {
-                            Map<String, Object> filterEnv = new LinkedHashMap<>(fetchingEnvironment.getVariables());
-                            filterEnv.put("ele", ele);
-                            filterEnv.putAll(sourceEnv);
-                            return (Boolean) environment.getScriptEvaluator().evaluate(expression, filterEnv);
-                        }
-                ).collect(toList());
+                Map<String, Object> sharedEnv = new LayeredMap(2).layer(0, fetchingEnvironment.getVariables()).layer(1, sourceEnv);
+                Object[] willKeep = evaluateElements(argument, environment,
+                        elementExpression.newBatchEvaluator(sharedEnv, ele -> Collections.singletonMap("ele", ele))
+                );
+                List<Object> filteredArgument = new ArrayList<>(argument.size());
+                for (int i = 0; i < willKeep.length; i++) {
+                    if ((Boolean) willKeep[i]) {
+                        filteredArgument.add(argument.get(i));
+                    }
+                }
+                argument = filteredArgument;
 
                 Map<String, Object> newArguments = new LinkedHashMap<>(fetchingEnvironment.getArguments());
                 newArguments.put(argumentName, argument);
@@ -111,13 +133,13 @@ public class ArgumentTransformDecorator extends AbstractDecorator {
                     return dataFetcherDefinition.getActionFetcher().get(fetchingEnvironment);
                 }
 
-                argument = argument.stream().map(ele -> {
-                    Map<String, Object> transformEnv = new LinkedHashMap<>(fetchingEnvironment.getVariables());
-                    transformEnv.put("ele", ele);
-                    transformEnv.put("parent", fetchingEnvironment.getSource());
-                    transformEnv.putAll(sourceEnv);
-                    return environment.getScriptEvaluator().evaluate(expression, transformEnv);
-                }).collect(toList());
+                Map<String, Object> sharedEnv = new LayeredMap(3)
+                        .layer(0, fetchingEnvironment.getVariables())
+                        .layer(1, "parent", fetchingEnvironment.getSource())
+                        .layer(2, sourceEnv);
+                argument = Arrays.asList(evaluateElements(argument, environment,
+                        elementExpression.newBatchEvaluator(sharedEnv, ele -> Collections.singletonMap("ele", ele))
+                ));
 
                 Map<String, Object> newArguments = new LinkedHashMap<>(fetchingEnvironment.getArguments());
                 newArguments.put(argumentName, argument);
@@ -136,11 +158,12 @@ public class ArgumentTransformDecorator extends AbstractDecorator {
             // map argument by expression
             if (Objects.equals(finalOperateType, Directives.ParamTransformType.MAP.name())) {
 
-                Map<String, Object> transformEnv = new LinkedHashMap<>(fetchingEnvironment.getVariables());
-                transformEnv.putAll(sourceEnv);
-                transformEnv.put("arg", fetchingEnvironment.getArguments());
-                transformEnv.put("parent", fetchingEnvironment.getSource());
-                Object newParam = environment.getScriptEvaluator().evaluate(expression, transformEnv);
+                Map<String, Object> transformEnv = new LayeredMap(4)
+                        .layer(0, fetchingEnvironment.getVariables())
+                        .layer(1, sourceEnv)
+                        .layer(2, "arg", fetchingEnvironment.getArguments())
+                        .layer(3, "parent", fetchingEnvironment.getSource());
+                Object newParam = ExpressionMemo.execute(fetchingEnvironment, compiledExpression, memoizable, transformEnv);
 
 
                 Map<String, Object> newArguments = new LinkedHashMap<>(fetchingEnvironment.getArguments());
@@ -172,4 +195,76 @@ public class ArgumentTransformDecorator extends AbstractDecorator {
 
         return wrappedDataFetcher;
     }
+
+    /**
+     * Evaluate each element of list argument, and the results are in the same order as elements.
+     * If the size of list reaches the threshold, the list is split into chunks which are evaluated in parallel on executor,
+     * and current thread also evaluates the chunks which have not been started by executor, so it never waits for a queued task.
+     *
+     * <p>The elements of each chunk are evaluated by one batch, so that the script arguments could be reused for them.
+     */
+    private static Object[] evaluateElements(List<Object> elements, DecorateEnvironment environment,
+                                             Function<? super List<Object>, Object[]> batchEvaluator) {
+        int size = elements.size();
+
+        int threshold = environment.getParallelTransformThreshold();
+        int chunkSize = environment.getParallelTransformChunkSize();
+        int chunkCount = (size + chunkSize - 1) / chunkSize;
+        if (threshold <= 0 || size < threshold || chunkCount < 2) {
+            return batchEvaluator.apply(elements);
+        }
+
+        Object[] results = new Object[size];
+        AtomicInteger nextChunk = new AtomicInteger();
+        CountDownLatch completedChunks = new CountDownLatch(chunkCount);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable chunkEvaluator = () -> {
+            int chunk;
+            while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+                try {
+                    if (failure.get() == null) {
+                        int start = chunk * chunkSize;
+                        int end = Math.min(size, start + chunkSize);
+                        Object[] chunkResults = batchEvaluator.apply(elements.subList(start, end));
+                        System.arraycopy(chunkResults, 0, results, start, chunkResults.length);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    completedChunks.countDown();
+                }
+            }
+        };
+
+        int helperCount = Math.min(chunkCount - 1, Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < helperCount; i++) {
+            try {
+                environment.getExecutor().execute(chunkEvaluator);
+            } catch (RejectedExecutionException e) {
+                // the executor is saturated or shut down, current thread evaluates the remaining chunks.
+                break;
+            }
+        }
+        chunkEvaluator.run();
+
+        // all the chunks have been claimed, just wait for the running ones.
+        try {
+            completedChunks.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while transforming list argument.", e);
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        if (t != null) {
+            throw new RuntimeException(t);
+        }
+        return results;
+    }
 }
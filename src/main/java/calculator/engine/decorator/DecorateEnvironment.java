@@ -19,7 +19,7 @@ package calculator.engine.decorator;
 
 import calculator.engine.ExecutionEngineState;
 import calculator.engine.ObjectMapper;
-import calculator.engine.annotation.Internal;
+import calculator.engine.annotation.Beta;
 import calculator.engine.script.ScriptEvaluator;
 import graphql.execution.ValueUnboxer;
 import graphql.language.Directive;
@@ -32,7 +32,7 @@ import graphql.schema.GraphQLFieldDefinition;
 import java.util.List;
 import java.util.concurrent.Executor;
 
-@Internal
+@Beta
 public class DecorateEnvironment {
     private final Field field;
     private final DataFetcher<?> originalDataFetcher;
@@ -45,6 +45,8 @@ public class DecorateEnvironment {
     private final Executor executor;
     private final ObjectMapper objectMapper;
     private final ScriptEvaluator scriptEvaluator;
+    private final int parallelTransformThreshold;
+    private final int parallelTransformChunkSize;
 
     public DecorateEnvironment(Field field,
                                DataFetcher<?> originalDataFetcher,
@@ -54,7 +56,8 @@ public class DecorateEnvironment {
                                DataFetchingEnvironment environment,
                                ExecutionEngineState engineState,
                                ValueUnboxer valueUnboxer,
-                               Executor executor, ObjectMapper objectMapper, ScriptEvaluator scriptEvaluator
+                               Executor executor, ObjectMapper objectMapper, ScriptEvaluator scriptEvaluator,
+                               int parallelTransformThreshold, int parallelTransformChunkSize
     ) {
         this.field = field;
         this.originalDataFetcher = originalDataFetcher;
@@ -67,6 +70,8 @@ public class DecorateEnvironment {
         this.executor = executor;
         this.objectMapper = objectMapper;
         this.scriptEvaluator = scriptEvaluator;
+        this.parallelTransformThreshold = parallelTransformThreshold;
+        this.parallelTransformChunkSize = parallelTransformChunkSize;
     }
 
     public Field getField() {
@@ -89,10 +94,22 @@ public class DecorateEnvironment {
         return directivesOnFieldDefinition;
     }
 
+    /**
+     * The environment of the invocation which triggers decorating,
+     * which is null if the decorated DataFetcher is shared by executions.
+     *
+     * @return the environment of invocation, or null
+     */
     public DataFetchingEnvironment getEnvironment() {
         return environment;
     }
 
+    /**
+     * The state of current execution, which is null if the decorated DataFetcher is shared by executions,
+     * i.e. there is no {@code dependencySources} on the field.
+     *
+     * @return the state of current execution, or null
+     */
     public ExecutionEngineState getEngineState() {
         return engineState;
     }
@@ -112,4 +129,15 @@ public class DecorateEnvironment {
     public ScriptEvaluator getScriptEvaluator() {
         return scriptEvaluator;
     }
+
+    /**
+     * @return the min size of list argument transformed in parallel, see {@link calculator.config.Config#getParallelTransformThreshold()}
+     */
+    public int getParallelTransformThreshold() {
+        return parallelTransformThreshold;
+    }
+
+    public int getParallelTransformChunkSize() {
+        return parallelTransformChunkSize;
+    }
 }
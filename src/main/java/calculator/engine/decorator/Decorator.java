@@ -17,12 +17,12 @@
 
 package calculator.engine.decorator;
 
-import calculator.engine.annotation.Internal;
+import calculator.engine.annotation.Beta;
 import graphql.language.Directive;
 import graphql.schema.DataFetcher;
 
 
-@Internal
+@Beta
 public interface Decorator {
 
     /**
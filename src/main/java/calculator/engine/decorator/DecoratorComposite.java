@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 @Internal
 public class DecoratorComposite implements Decorator {
@@ -52,6 +53,33 @@ public class DecoratorComposite implements Decorator {
     }
 
 
+    /**
+     * Decorate the DataFetcher by all the directives on field in order, each supported directive wraps
+     * the DataFetcher decorated by the previous directives, so the last directive is the outermost layer.
+     *
+     * <p>The layers are not fused here. The decorators unwrap the async DataFetcher of inner layer by
+     * {@link calculator.common.GraphQLUtil#getDataFetcherDefinition} and invoke its action fetcher directly,
+     * so the stacked layers are submitted to executor only once. Each layer gets its dependency sources
+     * from the engine state, and the converted value of source is shared by the snapshot of fetchSource task.
+     *
+     * @param originalDataFetcher the original DataFetcher of field
+     * @param directives          the directives on field
+     * @param environmentFactory  create the decorate environment by directive and the DataFetcher to be decorated
+     * @return the decorated DataFetcher
+     */
+    public DataFetcher<?> decorate(DataFetcher<?> originalDataFetcher,
+                                   List<Directive> directives,
+                                   BiFunction<Directive, DataFetcher<?>, DecorateEnvironment> environmentFactory) {
+        DataFetcher<?> decoratedDataFetcher = originalDataFetcher;
+        for (Directive directive : directives) {
+            DecorateEnvironment environment = environmentFactory.apply(directive, decoratedDataFetcher);
+            if (supportDirective(directive, environment)) {
+                decoratedDataFetcher = decorate(directive, environment);
+            }
+        }
+        return decoratedDataFetcher;
+    }
+
     private Decorator getDecorator(Directive directive, DecorateEnvironment environment) {
         String directiveName = directive.getName();
         Decorator result = DECORATOR_CACHE.get(directiveName);
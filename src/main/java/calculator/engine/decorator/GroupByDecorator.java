@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.decorator;
+
+import calculator.common.GraphQLUtil;
+import calculator.engine.annotation.Internal;
+import calculator.engine.metadata.DataFetcherDefinition;
+import calculator.engine.metadata.Directives.AggregateType;
+import calculator.engine.metadata.FetchSourceTask;
+import graphql.language.Directive;
+import graphql.schema.DataFetcher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static calculator.common.CommonUtil.getArgumentFromDirective;
+import static calculator.common.CommonUtil.getDependenceSourceFromDirective;
+import static calculator.engine.metadata.Directives.GROUP_BY;
+import static graphql.schema.AsyncDataFetcher.async;
+
+/**
+ * Group the dependency source list by key, and aggregate each group in one pass.
+ * The groups are in the order of the first appearance of their key, and the elements whose key is null are skipped.
+ */
+@Internal
+public class GroupByDecorator extends AbstractDecorator {
+
+    @Override
+    public boolean supportDirective(Directive directive, DecorateEnvironment environment) {
+        return Objects.equals(GROUP_BY.getName(), environment.getDirective().getName());
+    }
+
+    @Override
+    public DataFetcher<?> decorate(Directive directive, DecorateEnvironment environment) {
+        String dependencySource = getDependenceSourceFromDirective(environment.getDirective()).get(0);
+        String key = getArgumentFromDirective(environment.getDirective(), "key");
+        String aggregateKey = getArgumentFromDirective(environment.getDirective(), "aggregateKey");
+        Object aggregate = getArgumentFromDirective(environment.getDirective(), "aggregate");
+        AggregateType aggregateType = aggregate != null ? AggregateType.valueOf(aggregate.toString()) : AggregateType.COUNT;
+        List<Object> aggregationKey = Arrays.asList(GROUP_BY.getName(), key, aggregateKey, aggregateType);
+
+        DataFetcherDefinition dataFetcherDefinition = GraphQLUtil.getDataFetcherDefinition(
+                environment.getOriginalDataFetcher()
+        );
+
+        DataFetcher<?> wrappedDataFetcher = fetchingEnvironment -> {
+            FetchSourceTask sourceTask = getFetchSourceFromState(environment.getEngineState(), dependencySource);
+            if (sourceTask.getTaskFuture().isCompletedExceptionally()) {
+                return null;
+            }
+
+            // the fields in list share the result of the same grouping.
+            return sourceTask.getAggregation(aggregationKey, ignored -> {
+                Map<Object, Aggregator> aggregatorByKey = new LinkedHashMap<>();
+                forEachElement(getSourceSnapshot(sourceTask, environment.getObjectMapper()), element -> {
+                    Object groupKey = elementValue(environment.getObjectMapper(), element, key);
+                    if (groupKey == null) {
+                        return;
+                    }
+
+                    Aggregator aggregator = aggregatorByKey.get(groupKey);
+                    if (aggregator == null) {
+                        aggregator = new Aggregator(aggregateType);
+                        aggregatorByKey.put(groupKey, aggregator);
+                    }
+                    aggregator.add(elementValue(environment.getObjectMapper(), element, aggregateKey));
+                });
+
+                Map<String, Object> result = new LinkedHashMap<>(aggregatorByKey.size() * 4 / 3 + 1);
+                for (Map.Entry<Object, Aggregator> entry : aggregatorByKey.entrySet()) {
+                    String groupName = String.valueOf(entry.getKey());
+                    if (result.containsKey(groupName)) {
+                        throw new IllegalStateException(String.format("duplicate group '%s' of different keys in @groupBy.", groupName));
+                    }
+                    result.put(groupName, entry.getValue().getResult());
+                }
+                return Collections.unmodifiableMap(result);
+            });
+        };
+
+        if (dataFetcherDefinition.isAsyncFetcher()) {
+            return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
+        }
+        return async(wrappedDataFetcher, environment.getExecutor());
+    }
+}
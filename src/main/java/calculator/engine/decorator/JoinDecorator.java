@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.decorator;
+
+import calculator.common.GraphQLUtil;
+import calculator.engine.ObjectMapper;
+import calculator.engine.annotation.Internal;
+import calculator.engine.metadata.DataFetcherDefinition;
+import calculator.engine.metadata.FetchSourceTask;
+import graphql.language.Directive;
+import graphql.schema.DataFetcher;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static calculator.common.CommonUtil.getArgumentFromDirective;
+import static calculator.common.CommonUtil.getDependenceSourceFromDirective;
+import static calculator.engine.metadata.Directives.JOIN;
+import static graphql.schema.AsyncDataFetcher.async;
+
+/**
+ * Join the source object of annotated field with the dependency source list by hash index,
+ * the index is built once and cached on the {@link FetchSourceTask} of current execution.
+ */
+@Internal
+public class JoinDecorator extends AbstractDecorator {
+
+    @Override
+    public boolean supportDirective(Directive directive, DecorateEnvironment environment) {
+        return Objects.equals(JOIN.getName(), environment.getDirective().getName());
+    }
+
+    @Override
+    public DataFetcher<?> decorate(Directive directive, DecorateEnvironment environment) {
+        String dependencySource = getDependenceSourceFromDirective(environment.getDirective()).get(0);
+        String localKey = getArgumentFromDirective(environment.getDirective(), "localKey");
+        String foreignKey = getArgumentFromDirective(environment.getDirective(), "foreignKey");
+        String valueKey = getArgumentFromDirective(environment.getDirective(), "valueKey");
+        ObjectMapper objectMapper = environment.getObjectMapper();
+
+        DataFetcherDefinition dataFetcherDefinition = GraphQLUtil.getDataFetcherDefinition(
+                environment.getOriginalDataFetcher()
+        );
+
+        DataFetcher<?> wrappedDataFetcher = fetchingEnvironment -> {
+            Object localValue = elementValue(objectMapper, fetchingEnvironment.getSource(), localKey);
+            if (localValue == null) {
+                return null;
+            }
+
+            FetchSourceTask sourceTask = getFetchSourceFromState(environment.getEngineState(), dependencySource);
+            if (sourceTask.getTaskFuture().isCompletedExceptionally()) {
+                return null;
+            }
+
+            Map<Object, Object> joinIndex = sourceTask.getJoinIndex(
+                    foreignKey, key -> buildIndex(objectMapper, getSourceSnapshot(sourceTask, objectMapper), key)
+            );
+            Object joinedElement = joinIndex.get(joinKey(localValue));
+            return elementValue(objectMapper, joinedElement, valueKey);
+        };
+
+        if (dataFetcherDefinition.isAsyncFetcher()) {
+            return async(wrappedDataFetcher, dataFetcherDefinition.getExecutor());
+        }
+        return async(wrappedDataFetcher, environment.getExecutor());
+    }
+
+    private static Map<Object, Object> buildIndex(ObjectMapper objectMapper, Object sourceList, String foreignKey) {
+        Map<Object, Object> joinIndex = new HashMap<>();
+        forEachElement(sourceList, element -> {
+            Object foreignValue = elementValue(objectMapper, element, foreignKey);
+            if (foreignValue != null) {
+                // the first element is used if there are several elements with the same key.
+                joinIndex.putIfAbsent(joinKey(foreignValue), element);
+            }
+        });
+        return joinIndex;
+    }
+
+    /**
+     * The integral numbers are equal if they have the same value, e.g. Integer 1 and Long 1.
+     */
+    private static Object joinKey(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+}
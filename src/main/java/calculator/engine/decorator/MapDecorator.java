@@ -19,10 +19,13 @@ package calculator.engine.decorator;
 
 import calculator.common.CommonUtil;
 import calculator.common.GraphQLUtil;
+import calculator.common.LayeredMap;
 import calculator.engine.ObjectMapper;
 import calculator.engine.annotation.Internal;
 import calculator.engine.metadata.DataFetcherDefinition;
 import calculator.engine.metadata.FetchSourceTask;
+import calculator.engine.script.CompiledScript;
+import calculator.engine.script.ExpressionMemo;
 import graphql.language.Directive;
 import graphql.schema.DataFetcher;
 
@@ -49,6 +52,8 @@ public class MapDecorator extends AbstractDecorator {
     public DataFetcher<?> decorate(Directive directive, DecorateEnvironment environment) {
         String mapper = getArgumentFromDirective(environment.getDirective(), "mapper");
         List<String> dependencySources = getDependenceSourceFromDirective(environment.getDirective());
+        CompiledScript compiledMapper = environment.getScriptEvaluator().compile(mapper);
+        boolean memoizable = ExpressionMemo.isMemoizable(environment.getScriptEvaluator(), mapper);
 
         DataFetcherDefinition dataFetcherDefinition = GraphQLUtil.getDataFetcherDefinition(
                 environment.getOriginalDataFetcher()
@@ -60,24 +65,20 @@ public class MapDecorator extends AbstractDecorator {
             if (dependencySources != null && !dependencySources.isEmpty()) {
                 for (String dependencySource : dependencySources) {
                     FetchSourceTask sourceTask = getFetchSourceFromState(environment.getEngineState(), dependencySource);
-                    if (sourceTask.getTaskFuture().isCompletedExceptionally()) {
-                        sourceEnv.put(dependencySource, null);
-                    } else {
-                        sourceEnv.put(dependencySource, sourceTask.getTaskFuture().join());
-                    }
+                    sourceEnv.put(dependencySource, getSourceSnapshot(sourceTask, environment.getObjectMapper()));
                 }
             }
 
-            // new Map, do not alter original Map info.
-            Map<String, Object> expEnv = new LinkedHashMap<>();
-            Object sourceInfo = getScriptEnv(environment.getObjectMapper(), fetchingEnvironment.getSource());
-            if (sourceInfo != null) {
-                expEnv.putAll((Map) sourceInfo);
-            }
-
-            expEnv.putAll(sourceEnv);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> sourceScriptEnv = (Map<String, Object>) getScriptEnv(
+                    environment.getObjectMapper(), fetchingEnvironment.getSource()
+            );
+            // layered view, do not alter original Map info.
+            Map<String, Object> expEnv = new LayeredMap(2)
+                    .layer(0, sourceScriptEnv)
+                    .layer(1, sourceEnv);
 
-            return environment.getScriptEvaluator().evaluate(mapper, expEnv);
+            return ExpressionMemo.execute(fetchingEnvironment, compiledMapper, memoizable, expEnv);
         };
 
         if (dataFetcherDefinition.isAsyncFetcher()) {
@@ -36,6 +36,7 @@ public class MockDecorator implements Decorator {
 
     @Override
     public DataFetcher<?> decorate(Directive directive, DecorateEnvironment environment) {
-        return ignore -> getArgumentFromDirective(environment.getDirective(), "value");
+        Object value = getArgumentFromDirective(environment.getDirective(), "value");
+        return ignore -> value;
     }
 }
@@ -17,17 +17,12 @@
 
 package calculator.engine.handler;
 
-import calculator.common.CollectionUtil;
 import calculator.engine.annotation.Internal;
 import graphql.language.Directive;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Objects;
-import java.util.function.Function;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
-import static calculator.common.CommonUtil.getScriptEnv;
 import static calculator.engine.metadata.Directives.DISTINCT;
 
 @Internal
@@ -40,29 +35,17 @@ public class DistinctHandler implements FieldValueHandler {
 
     @Override
     public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
-        String comparatorExpression = getArgumentFromDirective(handleEnvironment.getDirective(), "comparator");
-        boolean emptyComparator = comparatorExpression == null;
-
-        Function<Object, Integer> comparator = ele -> {
-            if (ele == null) {
-                return 0;
-            }
-
-            if (emptyComparator) {
-                return System.identityHashCode(ele);
-            }
-
-            Map<String, Object> scriptEnv = new LinkedHashMap<>();
-            Map<String, Object> calMap = (Map<String, Object>) getScriptEnv(handleEnvironment.getObjectMapper(),ele);
-            if (calMap != null) {
-                scriptEnv.putAll(calMap);
-            }
-            Object evaluate = handleEnvironment.getScriptEvaluator().evaluate(comparatorExpression, scriptEnv);
-            return Objects.hashCode(evaluate);
-        };
-
-        CollectionUtil.distinctCollection(handleEnvironment.getResult().getData(), comparator);
+        ListPipeline pipeline = ListPipeline.newPipeline(handleEnvironment);
+        fuseInto(pipeline, handleEnvironment.getDirective());
+        pipeline.finish();
+    }
 
+    @Override
+    public boolean fuseInto(ListPipeline pipeline, Directive directive) {
+        // use System.identityHashCode(object) if comparator is null.
+        String comparatorExpression = getArgumentFromDirective(directive, "comparator");
+        pipeline.distinct(comparatorExpression);
+        return true;
     }
 
 }
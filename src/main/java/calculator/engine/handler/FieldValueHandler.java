@@ -17,15 +17,27 @@
 
 package calculator.engine.handler;
 
-import calculator.engine.annotation.Internal;
+import calculator.engine.annotation.Beta;
 import graphql.language.Directive;
 
 
-@Internal
+@Beta
 public interface FieldValueHandler {
 
     boolean supportDirective(Directive directive);
 
     void transformListResultByDirectives(HandleEnvironment handleEnvironment);
 
+    /**
+     * Append the transformation of directive to the pipeline, so that the adjacent list directives on a field
+     * are applied by one fused pipeline.
+     *
+     * @param pipeline  the fused pipeline of list field
+     * @param directive the directive on list field
+     * @return false if the transformation can not be fused, and it will be applied by {@link #transformListResultByDirectives}
+     */
+    default boolean fuseInto(ListPipeline pipeline, Directive directive) {
+        return false;
+    }
+
 }
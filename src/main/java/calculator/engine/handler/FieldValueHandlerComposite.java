@@ -49,6 +49,11 @@ public class FieldValueHandlerComposite implements FieldValueHandler {
         fieldValueHandler.transformListResultByDirectives(handleEnvironment);
     }
 
+    @Override
+    public boolean fuseInto(ListPipeline pipeline, Directive directive) {
+        return getFieldValueHandler(directive).fuseInto(pipeline, directive);
+    }
+
 
     private FieldValueHandler getFieldValueHandler(Directive directive) {
         String directiveName = directive.getName();
@@ -17,17 +17,12 @@
 
 package calculator.engine.handler;
 
-import calculator.common.CollectionUtil;
 import calculator.engine.annotation.Internal;
 import graphql.language.Directive;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.Objects;
-import java.util.function.Predicate;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
-import static calculator.common.CommonUtil.getScriptEnv;
 import static calculator.engine.metadata.Directives.FILTER;
 
 @Internal
@@ -40,15 +35,16 @@ public class FilterHandler implements FieldValueHandler{
 
     @Override
     public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
-        String predicate = getArgumentFromDirective(handleEnvironment.getDirective(), "predicate");
-
-        Predicate<Object> willKeep = ele -> {
-            Map<String, Object> sourceEnv = new LinkedHashMap<>();
-            sourceEnv.putAll((Map)getScriptEnv(handleEnvironment.getObjectMapper(), ele));
-            return (Boolean) handleEnvironment.getScriptEvaluator().evaluate(predicate, sourceEnv);
-        };
+        ListPipeline pipeline = ListPipeline.newPipeline(handleEnvironment);
+        fuseInto(pipeline, handleEnvironment.getDirective());
+        pipeline.finish();
+    }
 
-        CollectionUtil.filterCollection(handleEnvironment.getResult().getData(), willKeep);
+    @Override
+    public boolean fuseInto(ListPipeline pipeline, Directive directive) {
+        String predicate = getArgumentFromDirective(directive, "predicate");
+        pipeline.filter(predicate);
+        return true;
     }
 
 }
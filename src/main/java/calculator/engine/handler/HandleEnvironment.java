@@ -18,7 +18,7 @@
 package calculator.engine.handler;
 
 import calculator.engine.ObjectMapper;
-import calculator.engine.annotation.Internal;
+import calculator.engine.annotation.Beta;
 import calculator.engine.script.ScriptEvaluator;
 import graphql.ExecutionResult;
 import graphql.execution.instrumentation.parameters.InstrumentationFieldCompleteParameters;
@@ -26,7 +26,7 @@ import graphql.language.Directive;
 
 import java.util.concurrent.Executor;
 
-@Internal
+@Beta
 public class HandleEnvironment {
 
     private final Directive directive;
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.handler;
+
+import calculator.common.CollectionUtil;
+import calculator.common.IndexSorter;
+import calculator.engine.ObjectMapper;
+import calculator.engine.annotation.Internal;
+import calculator.engine.script.ScriptEvaluator;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import static calculator.common.CommonUtil.getScriptEnv;
+
+/**
+ * The fused transformation of the adjacent list directives on a field, e.g. '@filter @distinct @sortBy'.
+ *
+ * <p>The transformations are applied in the order of directives, but each element is converted by {@link ObjectMapper}
+ * only once, the transformations only rearrange the indexes of elements, the adjacent sorts are merged into one sort,
+ * and the list is written back only once by {@link #finish()}.
+ *
+ * <p>It is not thread-safe, and used in the thread which completes the list field.
+ */
+@Internal
+public class ListPipeline {
+
+    // the envs of elements are always the script env maps created by elementEnv.
+    @SuppressWarnings("unchecked")
+    private static final Function<Object, Map<String, Object>> ELEMENT_ARGUMENTS = ele -> (Map<String, Object>) ele;
+
+    private final Object listOrArray;
+
+    private final ObjectMapper objectMapper;
+
+    private final ScriptEvaluator scriptEvaluator;
+
+    private final Object[] elements;
+
+    // the script arguments of elements, converted when it is used at the first time.
+    private final Map<String, Object>[] elementEnvs;
+
+    private final boolean[] converted;
+
+    // the current elements, which are the indexes of original elements in current order.
+    private final int[] indexes;
+
+    private int size;
+
+    private boolean changed;
+
+    // the keys of adjacent sorts which have not been applied, the keys of later sort are in the front.
+    private final List<Object[]> pendingSortKeys = new ArrayList<>();
+
+    private final List<Boolean> pendingReversed = new ArrayList<>();
+
+    public ListPipeline(Object listOrArray, ObjectMapper objectMapper, ScriptEvaluator scriptEvaluator) {
+        this.listOrArray = Objects.requireNonNull(listOrArray);
+        this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.scriptEvaluator = Objects.requireNonNull(scriptEvaluator);
+        this.elements = CollectionUtil.toObjectArray(listOrArray);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map<String, Object>[] elementEnvs = new Map[elements.length];
+        this.elementEnvs = elementEnvs;
+        this.converted = new boolean[elements.length];
+        this.size = elements.length;
+        this.indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+    }
+
+    public static ListPipeline newPipeline(HandleEnvironment handleEnvironment) {
+        return new ListPipeline(
+                handleEnvironment.getResult().getData(), handleEnvironment.getObjectMapper(), handleEnvironment.getScriptEvaluator()
+        );
+    }
+
+    /**
+     * Just keep the elements which satisfy the predicate.
+     *
+     * @param predicate the predicate expression
+     */
+    public void filter(String predicate) {
+        applySort();
+
+        BitSet willKeep = scriptEvaluator.evaluatePredicateBatch(
+                scriptEvaluator.compile(predicate), currentEnvs(false), null, ELEMENT_ARGUMENTS
+        );
+        if (willKeep.cardinality() == size) {
+            return;
+        }
+
+        int keptCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (willKeep.get(i)) {
+                indexes[keptCount++] = indexes[i];
+            }
+        }
+        size = keptCount;
+        changed = true;
+    }
+
+    /**
+     * Distinct the elements by the hash code of comparator result, and the first element of each key is kept.
+     *
+     * @param comparator the comparator expression, the identity of element is used if it is null
+     */
+    public void distinct(String comparator) {
+        applySort();
+
+        Object[] results = comparator == null ? null : scriptEvaluator.evaluateBatch(
+                scriptEvaluator.compile(comparator), currentEnvs(true), null, ELEMENT_ARGUMENTS
+        );
+
+        Set<Integer> keys = new HashSet<>();
+        int keptCount = 0, resultIndex = 0;
+        for (int i = 0; i < size; i++) {
+            Object element = elements[indexes[i]];
+            int key;
+            if (element == null) {
+                key = 0;
+            } else if (results == null) {
+                key = System.identityHashCode(element);
+            } else {
+                key = Objects.hashCode(results[resultIndex++]);
+            }
+
+            if (keys.add(key)) {
+                indexes[keptCount++] = indexes[i];
+            }
+        }
+        if (keptCount != size) {
+            size = keptCount;
+            changed = true;
+        }
+    }
+
+    /**
+     * Sort the elements by the values of keys in order, and null is always last for each key.
+     *
+     * @param keys     the keys of element
+     * @param reversed whether each key is in descending order
+     */
+    public void sort(List<String> keys, boolean[] reversed) {
+        List<Object[]> keyColumns = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Object[] column = new Object[size];
+            for (int i = 0; i < size; i++) {
+                Map<String, Object> elementEnv = elementEnv(indexes[i]);
+                column[i] = elementEnv == null ? null : elementEnv.get(key);
+            }
+            keyColumns.add(column);
+        }
+        addPendingSort(keyColumns, reversed);
+    }
+
+    /**
+     * Sort the elements by the results of comparators in order, and null is always last for each comparator.
+     *
+     * @param comparators the comparator expressions
+     * @param reversed    whether each comparator result is in descending order
+     */
+    public void sortBy(List<String> comparators, boolean[] reversed) {
+        List<Map<String, Object>> currentEnvs = currentEnvs(false);
+        List<Object[]> keyColumns = new ArrayList<>(comparators.size());
+        for (String comparator : comparators) {
+            keyColumns.add(scriptEvaluator.evaluateBatch(
+                    scriptEvaluator.compile(comparator), currentEnvs, null, ELEMENT_ARGUMENTS
+            ));
+        }
+        addPendingSort(keyColumns, reversed);
+    }
+
+    /**
+     * Apply the pending sorts and write the elements back to list, if the elements have been changed.
+     */
+    public void finish() {
+        applySort();
+        if (!changed) {
+            return;
+        }
+
+        Object[] result = new Object[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = elements[indexes[i]];
+        }
+        CollectionUtil.resetListOrArray(listOrArray, result);
+    }
+
+    // a stable sort after another one is equivalent to sort once with its keys followed by the keys of previous sort.
+    private void addPendingSort(List<Object[]> keyColumns, boolean[] reversed) {
+        pendingSortKeys.addAll(0, keyColumns);
+        for (int i = reversed.length - 1; i >= 0; i--) {
+            pendingReversed.add(0, reversed[i]);
+        }
+    }
+
+    private void applySort() {
+        if (pendingSortKeys.isEmpty()) {
+            return;
+        }
+
+        boolean[] reversed = new boolean[pendingReversed.size()];
+        for (int i = 0; i < reversed.length; i++) {
+            reversed[i] = pendingReversed.get(i);
+        }
+        int[] order = IndexSorter.sortedIndexes(pendingSortKeys, reversed);
+        pendingSortKeys.clear();
+        pendingReversed.clear();
+
+        int[] sortedIndexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedIndexes[i] = indexes[order[i]];
+            changed |= order[i] != i;
+        }
+        System.arraycopy(sortedIndexes, 0, indexes, 0, size);
+    }
+
+    private Map<String, Object> elementEnv(int index) {
+        if (!converted[index]) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> elementEnv = (Map<String, Object>) getScriptEnv(objectMapper, elements[index]);
+            elementEnvs[index] = elementEnv;
+            converted[index] = true;
+        }
+        return elementEnvs[index];
+    }
+
+    /**
+     * The script arguments of current elements, which is a view of the current indexes.
+     */
+    private List<Map<String, Object>> currentEnvs(boolean skipNullElement) {
+        int[] currentIndexes = new int[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!skipNullElement || elements[indexes[i]] != null) {
+                currentIndexes[count++] = indexes[i];
+            }
+        }
+        int currentSize = count;
+
+        return new AbstractList<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> get(int index) {
+                return elementEnv(currentIndexes[index]);
+            }
+
+            @Override
+            public int size() {
+                return currentSize;
+            }
+        };
+    }
+}
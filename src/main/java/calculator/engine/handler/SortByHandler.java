@@ -17,19 +17,14 @@
 
 package calculator.engine.handler;
 
-import calculator.common.CollectionUtil;
 import calculator.engine.annotation.Internal;
 import graphql.language.Directive;
 
-import java.util.Comparator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Objects;
 
-import static calculator.common.CommonUtil.getArgumentFromDirective;
-import static calculator.common.CommonUtil.getScriptEnv;
+import static calculator.common.CommonUtil.getListArgumentFromDirective;
 import static calculator.engine.metadata.Directives.SORT_BY;
-import static java.util.Comparator.nullsLast;
 
 @Internal
 public class SortByHandler implements FieldValueHandler {
@@ -41,34 +36,22 @@ public class SortByHandler implements FieldValueHandler {
 
     @Override
     public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
-        String comparatorExpression = getArgumentFromDirective(handleEnvironment.getDirective(), "comparator");
-        Boolean reversed = getArgumentFromDirective(handleEnvironment.getDirective(), "reversed");
-        final boolean finalReversed = reversed != null
-                ? reversed
-                : (Boolean) SORT_BY.getArgument("reversed").getArgumentDefaultValue().getValue();
-
-
-        Comparator<Object> comparator = Comparator.comparing(
-                ele -> {
-                    Map<String, Object> scriptEnv = new LinkedHashMap<>();
-                    Map<String, Object> calMap = (Map<String, Object>) getScriptEnv(handleEnvironment.getObjectMapper(), ele);
-                    if (calMap != null) {
-                        scriptEnv.putAll(calMap);
-                    }
-                    return (Comparable<Object>) handleEnvironment.getScriptEvaluator().evaluate(comparatorExpression, scriptEnv);
-                },
-                // always nullLast
-                nullsLast((v1, v2) -> {
-                            if (finalReversed) {
-                                return v2.compareTo(v1);
-                            } else {
-                                return v1.compareTo(v2);
-                            }
-                        }
-                )
-        );
+        ListPipeline pipeline = ListPipeline.newPipeline(handleEnvironment);
+        fuseInto(pipeline, handleEnvironment.getDirective());
+        pipeline.finish();
+    }
 
-        CollectionUtil.sortListOrArray(handleEnvironment.getResult().getData(), comparator);
+    @Override
+    public boolean fuseInto(ListPipeline pipeline, Directive directive) {
+        List<String> comparatorExpressions = getListArgumentFromDirective(directive, "comparators");
+        if (comparatorExpressions == null) {
+            comparatorExpressions = getListArgumentFromDirective(directive, "comparator");
+        }
+        boolean[] reversed = SortHandler.getReversed(directive, SORT_BY, comparatorExpressions.size());
+
+        // always nullLast
+        pipeline.sortBy(comparatorExpressions, reversed);
+        return true;
     }
 
 }
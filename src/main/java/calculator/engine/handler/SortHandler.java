@@ -17,19 +17,15 @@
 
 package calculator.engine.handler;
 
-import calculator.common.CollectionUtil;
 import calculator.engine.annotation.Internal;
 import graphql.language.Directive;
+import graphql.schema.GraphQLDirective;
 
-import java.util.Comparator;
-import java.util.Map;
+import java.util.List;
 import java.util.Objects;
-import java.util.function.Supplier;
 
-import static calculator.common.CommonUtil.getArgumentFromDirective;
-import static calculator.common.CommonUtil.getScriptEnv;
+import static calculator.common.CommonUtil.getListArgumentFromDirective;
 import static calculator.engine.metadata.Directives.SORT;
-import static java.util.Comparator.nullsLast;
 
 @Internal
 public class SortHandler implements FieldValueHandler{
@@ -41,28 +37,38 @@ public class SortHandler implements FieldValueHandler{
 
     @Override
     public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
-        Supplier<Boolean> defaultReversed = () -> (Boolean) SORT.getArgument("reversed").getArgumentDefaultValue().getValue();
-        String sortKey = getArgumentFromDirective(handleEnvironment.getDirective(), "key");
-        Boolean reversed = getArgumentFromDirective(handleEnvironment.getDirective(), "reversed");
-        final boolean finalReversed = reversed != null ? reversed : defaultReversed.get();
+        ListPipeline pipeline = ListPipeline.newPipeline(handleEnvironment);
+        fuseInto(pipeline, handleEnvironment.getDirective());
+        pipeline.finish();
+    }
+
+    @Override
+    public boolean fuseInto(ListPipeline pipeline, Directive directive) {
+        List<String> sortKeys = getListArgumentFromDirective(directive, "keys");
+        if (sortKeys == null) {
+            sortKeys = getListArgumentFromDirective(directive, "key");
+        }
+        boolean[] reversed = getReversed(directive, SORT, sortKeys.size());
+
+        // always nullLast
+        pipeline.sort(sortKeys, reversed);
+        return true;
+    }
 
-        Comparator<Object> comparator = Comparator.comparing(
-                ele -> {
-                    Map<String, Comparable<Object>> calMap = (Map<String, Comparable<Object>>) getScriptEnv(handleEnvironment.getObjectMapper(), ele);
-                    return calMap.get(sortKey);
-                },
-                // always nullLast
-                nullsLast((v1, v2) -> {
-                            if (finalReversed) {
-                                return v2.compareTo(v1);
-                            } else {
-                                return v1.compareTo(v2);
-                            }
-                        }
-                )
-        );
+    /**
+     * Get whether each key is in descending order, the single value is used for all the keys.
+     */
+    static boolean[] getReversed(Directive directive, GraphQLDirective directiveDefinition, int keyCount) {
+        List<Boolean> reversedList = getListArgumentFromDirective(directive, "reversed");
+        if (reversedList == null) {
+            reversedList = (List<Boolean>) directiveDefinition.getArgument("reversed").getArgumentDefaultValue().getValue();
+        }
 
-        CollectionUtil.sortListOrArray(handleEnvironment.getResult().getData(), comparator);
+        boolean[] reversed = new boolean[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            reversed[i] = reversedList.size() == 1 ? reversedList.get(0) : reversedList.get(i);
+        }
+        return reversed;
     }
 
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.metadata;
+
+import calculator.engine.annotation.Beta;
+import calculator.engine.decorator.Decorator;
+import calculator.engine.handler.FieldValueHandler;
+import graphql.schema.GraphQLDirective;
+
+import java.util.Objects;
+
+/**
+ * The directive implemented by Java, which is added to the wrapped schema and executed alongside the calculator directives,
+ * so that the well-known transformation, e.g. currency conversion, runs without script evaluation.
+ *
+ * <p>The {@link Decorator} decorates the DataFetcher of field on which the directive is used,
+ * and the {@link FieldValueHandler} transforms the completed list value of field. Both of them must
+ * support the directive by name, and at least one of them is required.
+ */
+@Beta
+public class CustomDirective {
+
+    private final GraphQLDirective definition;
+
+    private final Decorator decorator;
+
+    private final FieldValueHandler fieldValueHandler;
+
+    private CustomDirective(GraphQLDirective definition, Decorator decorator, FieldValueHandler fieldValueHandler) {
+        this.definition = definition;
+        this.decorator = decorator;
+        this.fieldValueHandler = fieldValueHandler;
+    }
+
+    public String getName() {
+        return definition.getName();
+    }
+
+    public GraphQLDirective getDefinition() {
+        return definition;
+    }
+
+    /**
+     * @return the decorator of directive, or null
+     */
+    public Decorator getDecorator() {
+        return decorator;
+    }
+
+    /**
+     * @return the list value handler of directive, or null
+     */
+    public FieldValueHandler getFieldValueHandler() {
+        return fieldValueHandler;
+    }
+
+    public static Builder newDirective(GraphQLDirective definition) {
+        return new Builder(definition);
+    }
+
+    public static class Builder {
+
+        private final GraphQLDirective definition;
+
+        private Decorator decorator;
+
+        private FieldValueHandler fieldValueHandler;
+
+        private Builder(GraphQLDirective definition) {
+            this.definition = Objects.requireNonNull(definition, "definition can not be null.");
+        }
+
+        public Builder decorator(Decorator decorator) {
+            this.decorator = Objects.requireNonNull(decorator, "decorator can not be null.");
+            return this;
+        }
+
+        public Builder fieldValueHandler(FieldValueHandler fieldValueHandler) {
+            this.fieldValueHandler = Objects.requireNonNull(fieldValueHandler, "fieldValueHandler can not be null.");
+            return this;
+        }
+
+        public CustomDirective build() {
+            if (decorator == null && fieldValueHandler == null) {
+                throw new IllegalStateException(
+                        String.format("directive '%s' requires decorator or fieldValueHandler.", definition.getName())
+                );
+            }
+            return new CustomDirective(definition, decorator, fieldValueHandler);
+        }
+    }
+}
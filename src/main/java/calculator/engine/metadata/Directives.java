@@ -113,37 +113,47 @@ public class Directives {
             .build();
 
 
-    // directive @sort(key: String!,reversed: Boolean = false) on FIELD
+    // directive @sort(key: String, keys: [String!], reversed: [Boolean!] = [false]) on FIELD
     public final static GraphQLDirective SORT = GraphQLDirective.newDirective()
             .name("sort")
-            .description("sort the list by specified key.")
+            .description("sort the list by specified key, or by specified keys in order.")
             .validLocation(FIELD)
             .argument(GraphQLArgument
                     .newArgument()
                     .name("key")
-                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+                    .type(GraphQLString))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("keys")
+                    .type(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLString))))
             .argument(GraphQLArgument
                     .newArgument()
                     .name("reversed")
-                    .defaultValue(false)
-                    .type(GraphQLBoolean))
+                    .description("whether each key is in descending order, single value is used for all keys.")
+                    .defaultValue(Collections.singletonList(false))
+                    .type(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLBoolean))))
             .build();
 
 
-    // directive @sortBy(comparator: String!, reversed: Boolean = false) on FIELD
+    // directive @sortBy(comparator: String, comparators: [String!], reversed: [Boolean!] = [false]) on FIELD
     public final static GraphQLDirective SORT_BY = GraphQLDirective.newDirective()
             .name("sortBy")
-            .description("sort the list by expression result.")
+            .description("sort the list by expression result, or by expression results in order.")
             .validLocation(FIELD)
             .argument(GraphQLArgument
                     .newArgument()
                     .name("comparator")
-                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+                    .type(GraphQLString))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("comparators")
+                    .type(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLString))))
             .argument(GraphQLArgument
                     .newArgument()
                     .name("reversed")
-                    .defaultValue(false)
-                    .type(GraphQLBoolean))
+                    .description("whether each comparator result is in descending order, single value is used for all comparators.")
+                    .defaultValue(Collections.singletonList(false))
+                    .type(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLBoolean))))
             .build();
 
     // directive @map(mapper:String!, dependencySource:String) on FIELD
@@ -242,6 +252,123 @@ public class Directives {
                     .type(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLString))))
             .build();
 
+    // directive @count(dependencySources: [String!]!, key: String) on FIELD
+    public final static GraphQLDirective COUNT = aggregateDirective("count", "count the non-null values of the dependency source list.");
+
+    // directive @sum(dependencySources: [String!]!, key: String) on FIELD
+    public final static GraphQLDirective SUM = aggregateDirective("sum", "sum the number values of the dependency source list.");
+
+    // directive @min(dependencySources: [String!]!, key: String) on FIELD
+    public final static GraphQLDirective MIN = aggregateDirective("min", "get the minimum value of the dependency source list.");
+
+    // directive @max(dependencySources: [String!]!, key: String) on FIELD
+    public final static GraphQLDirective MAX = aggregateDirective("max", "get the maximum value of the dependency source list.");
+
+    private static GraphQLDirective aggregateDirective(String name, String description) {
+        return GraphQLDirective.newDirective()
+                .name(name)
+                .description(description + " the result is computed in one pass, without script.")
+                .validLocation(FIELD)
+                .argument(GraphQLArgument
+                        .newArgument()
+                        .name("dependencySources")
+                        .description("the fetched list which is aggregated, only one source is allowed.")
+                        .type(GraphQLNonNull.nonNull(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLString)))))
+                .argument(GraphQLArgument
+                        .newArgument()
+                        .name("key")
+                        .description("the key of element to be aggregated, aggregate the element itself if key not set.")
+                        .type(GraphQLString))
+                .build();
+    }
+
+    public enum AggregateType {
+        COUNT, SUM, MIN, MAX
+    }
+
+    public static final GraphQLEnumType AGGREGATE_TYPE = GraphQLEnumType.newEnum()
+            .name("AggregateType")
+            .value(
+                    GraphQLEnumValueDefinition.newEnumValueDefinition()
+                            .name("COUNT")
+                            .value(AggregateType.COUNT)
+                            .description("count the non-null values.").build()
+            )
+            .value(
+                    GraphQLEnumValueDefinition.newEnumValueDefinition()
+                            .name("SUM")
+                            .value(AggregateType.SUM)
+                            .description("sum the number values.").build()
+            )
+            .value(
+                    GraphQLEnumValueDefinition.newEnumValueDefinition()
+                            .name("MIN")
+                            .value(AggregateType.MIN)
+                            .description("the minimum value.").build()
+            )
+            .value(
+                    GraphQLEnumValueDefinition.newEnumValueDefinition()
+                            .name("MAX")
+                            .value(AggregateType.MAX)
+                            .description("the maximum value.").build()
+            ).build();
+
+    // directive @groupBy(dependencySources: [String!]!, key: String!, aggregate: AggregateType = COUNT, aggregateKey: String) on FIELD
+    public final static GraphQLDirective GROUP_BY = GraphQLDirective.newDirective()
+            .name("groupBy")
+            .description("group the dependency source list by key and aggregate each group in one pass, " +
+                    "the result is a map whose key is the group key, the annotated field should be able to present the map.")
+            .validLocation(FIELD)
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("dependencySources")
+                    .description("the fetched list which is grouped, only one source is allowed.")
+                    .type(GraphQLNonNull.nonNull(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLString)))))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("key")
+                    .description("the key of element to group by.")
+                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("aggregate")
+                    .defaultValueProgrammatic(AggregateType.COUNT)
+                    .type(GraphQLNonNull.nonNull(AGGREGATE_TYPE)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("aggregateKey")
+                    .description("the key of element to be aggregated in group, aggregate the element itself if not set.")
+                    .type(GraphQLString))
+            .build();
+
+    // directive @join(dependencySources: [String!]!, localKey: String!, foreignKey: String!, valueKey: String) on FIELD
+    public final static GraphQLDirective JOIN = GraphQLDirective.newDirective()
+            .name("join")
+            .description("get the element of dependency source list whose 'foreignKey' equals to the 'localKey' of the source object of annotated field, " +
+                    "by the hash index built once for each execution.")
+            .validLocation(FIELD)
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("dependencySources")
+                    .description("the fetched list which is joined, only one source is allowed.")
+                    .type(GraphQLNonNull.nonNull(GraphQLList.list(GraphQLNonNull.nonNull(GraphQLString)))))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("localKey")
+                    .description("the key of the source object of annotated field.")
+                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("foreignKey")
+                    .description("the key of the element of dependency source list.")
+                    .type(GraphQLNonNull.nonNull(GraphQLString)))
+            .argument(GraphQLArgument
+                    .newArgument()
+                    .name("valueKey")
+                    .description("the key of joined element used as result, the joined element is the result if not set.")
+                    .type(GraphQLString))
+            .build();
+
     // directive @partition(size: Int!) on ARGUMENT_DEFINITION
     public final static GraphQLDirective PARTITION = GraphQLDirective.newDirective()
             .name("partition")
@@ -265,6 +392,12 @@ public class Directives {
         tmpMap.put(MAP.getName(), MAP);
         tmpMap.put(FETCH_SOURCE.getName(), FETCH_SOURCE);
         tmpMap.put(ARGUMENT_TRANSFORM.getName(), ARGUMENT_TRANSFORM);
+        tmpMap.put(COUNT.getName(), COUNT);
+        tmpMap.put(SUM.getName(), SUM);
+        tmpMap.put(MIN.getName(), MIN);
+        tmpMap.put(MAX.getName(), MAX);
+        tmpMap.put(GROUP_BY.getName(), GROUP_BY);
+        tmpMap.put(JOIN.getName(), JOIN);
         tmpMap.put(PARTITION.getName(), PARTITION);
         CAL_DIRECTIVE_BY_NAME = Collections.unmodifiableMap(tmpMap);
     }
@@ -281,6 +414,12 @@ public class Directives {
         tmpMap.put(MAP.getName(), MAP);
         tmpMap.put(FETCH_SOURCE.getName(), FETCH_SOURCE);
         tmpMap.put(ARGUMENT_TRANSFORM.getName(), ARGUMENT_TRANSFORM);
+        tmpMap.put(COUNT.getName(), COUNT);
+        tmpMap.put(SUM.getName(), SUM);
+        tmpMap.put(MIN.getName(), MIN);
+        tmpMap.put(MAX.getName(), MAX);
+        tmpMap.put(GROUP_BY.getName(), GROUP_BY);
+        tmpMap.put(JOIN.getName(), JOIN);
         CAL_QUERY_DIRECTIVE_BY_NAME = Collections.unmodifiableMap(tmpMap);
     }
 }
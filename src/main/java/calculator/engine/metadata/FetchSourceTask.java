@@ -20,8 +20,12 @@ package calculator.engine.metadata;
 import calculator.engine.annotation.Internal;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 
 @Internal
@@ -29,6 +33,10 @@ public class FetchSourceTask {
 
     private static final Object DUMMY_VALUE = new Object();
 
+    private static final Object NO_SNAPSHOT = new Object();
+
+    private static final Object NULL_AGGREGATION = new Object();
+
     private final String sourceName;
 
     private final boolean isAnnotatedNode;
@@ -41,7 +49,16 @@ public class FetchSourceTask {
 
     private final CompletableFuture<Object> taskFuture;
 
-    private final ArrayList<CompletableFuture<Object>> listElementFutures = new ArrayList<>();
+    private final ListElementResultCollector listElementResultCollector;
+
+    // <foreignKey, index>, the hash index of the task value used by @join.
+    private final Map<String, Map<Object, Object>> joinIndexByKey = new ConcurrentHashMap<>();
+
+    // <aggregation key, result>, the results of @count, @sum, @min, @max and @groupBy on the task value.
+    private final Map<List<Object>, Object> aggregationByKey = new ConcurrentHashMap<>();
+
+    // the script-ready value of task, which is built only once and shared by all the consumers.
+    private volatile Object snapshot = NO_SNAPSHOT;
 
     private final String mapper;
 
@@ -66,6 +83,7 @@ public class FetchSourceTask {
         this.isInList = isInList;
         this.isTopTask = isTopTask;
         this.taskFuture = Objects.requireNonNull(taskFuture);
+        this.listElementResultCollector = isInList ? new ListElementResultCollector() : null;
         this.mapper = mapper;
         this.resultKey = resultKey;
         this.parentTask = parentTask;
@@ -111,22 +129,113 @@ public class FetchSourceTask {
         return childrenTaskList;
     }
 
-    public ArrayList<CompletableFuture<Object>> getListElementFutures() {
-        return listElementFutures;
+    /**
+     * The collector of element results if the task is in list.
+     *
+     * @return the collector, or null if the task is not in list
+     */
+    public ListElementResultCollector getListElementResultCollector() {
+        return listElementResultCollector;
     }
 
-    public void completeWithDummyValue() {
-        taskFuture.complete(DUMMY_VALUE);
+    /**
+     * Get the hash index of the task value by key, which is built only once for each execution.
+     *
+     * @param foreignKey   the key of element of task value
+     * @param indexBuilder build the index by key
+     * @return index of the task value
+     */
+    public Map<Object, Object> getJoinIndex(String foreignKey, Function<String, Map<Object, Object>> indexBuilder) {
+        Map<Object, Object> joinIndex = joinIndexByKey.get(foreignKey);
+        if (joinIndex != null) {
+            return joinIndex;
+        }
+        return joinIndexByKey.computeIfAbsent(foreignKey, indexBuilder);
     }
 
-    public synchronized void addListElementResultFuture(CompletableFuture<Object> elementFuture) {
-        listElementFutures.add(elementFuture);
+    /**
+     * Get the aggregation result of the task value by key, which is computed only once for each execution.
+     *
+     * @param aggregationKey the directive and its arguments of aggregation
+     * @param aggregation    aggregate the task value by key, the result could be null
+     * @return aggregation result
+     */
+    public Object getAggregation(List<Object> aggregationKey, Function<List<Object>, Object> aggregation) {
+        Object result = aggregationByKey.get(aggregationKey);
+        if (result == null) {
+            result = aggregationByKey.computeIfAbsent(aggregationKey, key -> {
+                Object value = aggregation.apply(key);
+                return value != null ? value : NULL_AGGREGATION;
+            });
+        }
+        return result != NULL_AGGREGATION ? result : null;
+    }
+
+    /**
+     * Get the script-ready snapshot of the task value, which is built only once for each execution
+     * and shared read-only by all the consumers, e.g. '@map' and '@argumentTransform' on list elements.
+     *
+     * <p>Must be invoked after the task is completed normally.
+     *
+     * @param snapshotBuilder build the snapshot by task value
+     * @return snapshot of the task value
+     */
+    public Object getSnapshot(Function<Object, Object> snapshotBuilder) {
+        Object currentSnapshot = snapshot;
+        if (currentSnapshot != NO_SNAPSHOT) {
+            return currentSnapshot;
+        }
+
+        synchronized (this) {
+            if (snapshot == NO_SNAPSHOT) {
+                Object value = taskFuture.join();
+                snapshot = value == null || value == DUMMY_VALUE ? value : snapshotBuilder.apply(value);
+            }
+            return snapshot;
+        }
+    }
+
+    public void completeWithDummyValue() {
+        taskFuture.complete(DUMMY_VALUE);
     }
 
     public synchronized void addChildrenTaskList(FetchSourceTask sourceTask) {
         childrenTaskList.add(sourceTask);
     }
 
+    /**
+     * Copy the task tree with new futures, so that the parsed tasks can be reused by
+     * different executions. Copied tasks are recorded in {@code copiedTasks}, then the
+     * task referenced by several paths or parents is only copied once.
+     *
+     * @param copiedTasks copied task by original task, should compare key by identity
+     * @return the copied task
+     */
+    public FetchSourceTask copyWithNewFuture(Map<FetchSourceTask, FetchSourceTask> copiedTasks) {
+        FetchSourceTask copiedTask = copiedTasks.get(this);
+        if (copiedTask != null) {
+            return copiedTask;
+        }
+
+        copiedTask = new FetchSourceTask(
+                sourceName,
+                isAnnotatedNode,
+                isListType,
+                isInList,
+                isTopTask,
+                new CompletableFuture<>(),
+                mapper,
+                resultKey,
+                parentTask == null ? null : parentTask.copyWithNewFuture(copiedTasks)
+        );
+        copiedTasks.put(this, copiedTask);
+
+        for (FetchSourceTask childTask : childrenTaskList) {
+            copiedTask.childrenTaskList.add(childTask.copyWithNewFuture(copiedTasks));
+        }
+        return copiedTask;
+    }
+
     public static Builder newFetchSourceTask() {
         return new Builder();
     }
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.metadata;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Collect the results of field in list without lock, the result is stored by the index of list element
+ * as soon as the element is completed, and the collected list is completed when all the elements are completed.
+ *
+ * <p>The results are stored in chunks whose capacity are doubled one by one, and the capacity of the first chunk
+ * is the size of list if known, so that the results of single level list are stored in one array and used as result directly.
+ */
+@Internal
+public class ListElementResultCollector {
+
+    private static final int DEFAULT_FIRST_CAPACITY = 16;
+
+    private volatile int firstCapacity = DEFAULT_FIRST_CAPACITY;
+
+    // the i-th chunk has the capacity 'firstCapacity << i'
+    private final AtomicReferenceArray<Object[]> chunks = new AtomicReferenceArray<>(32);
+
+    private final AtomicInteger elementCount = new AtomicInteger();
+
+    // the count of uncompleted elements, and the extra one is released when all the elements are registered.
+    private final AtomicInteger pendingCount = new AtomicInteger(1);
+
+    private final CompletableFuture<List<Object>> resultFuture = new CompletableFuture<>();
+
+    /**
+     * Use the list size as the capacity of first chunk, must be invoked before any element is registered.
+     *
+     * @param listSize the size of list
+     */
+    public void expectSize(int listSize) {
+        if (listSize > 0 && elementCount.get() == 0 && chunks.get(0) == null) {
+            firstCapacity = listSize;
+        }
+    }
+
+    /**
+     * Register an element when the field of element is dispatched, the elements are indexed in the order of registration.
+     *
+     * @return the index of element
+     */
+    public int registerElement() {
+        pendingCount.incrementAndGet();
+        return elementCount.getAndIncrement();
+    }
+
+    public void completeElement(int index, Object result) {
+        int chunkIndex = chunkIndex(index);
+        chunk(chunkIndex)[index - chunkOffset(chunkIndex)] = result;
+        countDown();
+    }
+
+    public void completeElementExceptionally(Throwable ex) {
+        resultFuture.completeExceptionally(ex);
+    }
+
+    /**
+     * All the elements are registered, and the result will be completed once all the registered elements are completed.
+     *
+     * @return the future of results of all elements
+     */
+    public CompletableFuture<List<Object>> allElementsRegistered() {
+        countDown();
+        return resultFuture;
+    }
+
+    private void countDown() {
+        // the values written before decrement are visible to the thread which decrements to zero.
+        if (pendingCount.decrementAndGet() == 0) {
+            resultFuture.complete(collectedResults(elementCount.get()));
+        }
+    }
+
+    private List<Object> collectedResults(int size) {
+        if (size == 0) {
+            return new ArrayList<>(0);
+        }
+
+        Object[] firstChunk = chunks.get(0);
+        if (size == firstChunk.length) {
+            return Arrays.asList(firstChunk);
+        }
+
+        List<Object> results = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            int chunkIndex = chunkIndex(index);
+            results.add(chunks.get(chunkIndex)[index - chunkOffset(chunkIndex)]);
+        }
+        return results;
+    }
+
+    private int chunkIndex(int index) {
+        long quotient = (long) index / firstCapacity + 1;
+        return 63 - Long.numberOfLeadingZeros(quotient);
+    }
+
+    private int chunkOffset(int chunkIndex) {
+        return (int) (((long) firstCapacity << chunkIndex) - firstCapacity);
+    }
+
+    private Object[] chunk(int chunkIndex) {
+        Object[] chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            chunks.compareAndSet(chunkIndex, null, new Object[firstCapacity << chunkIndex]);
+            chunk = chunks.get(chunkIndex);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.script;
+
+import calculator.engine.annotation.Internal;
+import calculator.exception.ScriptExecutionLimitException;
+import com.googlecode.aviator.Expression;
+import com.googlecode.aviator.exception.ExpressionRuntimeException;
+
+import java.lang.reflect.Array;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Internal
+class AviatorCompiledScript implements CompiledScript {
+
+    private final String script;
+
+    private final Expression expression;
+
+    private final List<String> arguments;
+
+    private final ScriptExecutionLimits limits;
+
+    AviatorCompiledScript(String script, Expression expression, ScriptExecutionLimits limits) {
+        this.script = Objects.requireNonNull(script);
+        this.expression = Objects.requireNonNull(expression);
+        this.arguments = Collections.unmodifiableList(expression.getVariableNames());
+        this.limits = Objects.requireNonNull(limits);
+    }
+
+    @Override
+    public String getScript() {
+        return script;
+    }
+
+    @Override
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object execute(Map<String, Object> arguments) {
+        if (limits.isUnlimited()) {
+            return expression.execute(arguments);
+        }
+
+        long deadline = limits.getMaxElapsedMillis() > 0
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(limits.getMaxElapsedMillis())
+                : 0;
+        Object result;
+        try {
+            Map<String, Object> env = arguments != null ? arguments : new HashMap<>();
+            result = expression.execute(deadline != 0 ? new DeadlineEnv(env, deadline) : env);
+        } catch (ExpressionRuntimeException e) {
+            // Aviator reports the loop limit by the message only.
+            if (e.getMessage() != null && e.getMessage().startsWith("Overflow max loop count")) {
+                throw new ScriptExecutionLimitException(script, "maxLoopCount", limits.getMaxLoopCount(), e);
+            }
+            throw e;
+        }
+
+        if (deadline != 0 && System.nanoTime() - deadline > 0) {
+            throw new ScriptExecutionLimitException(script, "maxElapsedMillis", limits.getMaxElapsedMillis(), null);
+        }
+
+        if (limits.getMaxResultSize() > 0 && sizeOf(result) > limits.getMaxResultSize()) {
+            throw new ScriptExecutionLimitException(script, "maxResultSize", limits.getMaxResultSize(), null);
+        }
+        return result;
+    }
+
+    private static int sizeOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result != null && result.getClass().isArray()) {
+            return Array.getLength(result);
+        }
+        return 0;
+    }
+
+    /**
+     * The environment which checks the deadline each time the script reads or writes a variable,
+     * for Aviator can't interrupt the evaluation by time.
+     */
+    private class DeadlineEnv extends AbstractMap<String, Object> {
+
+        private final Map<String, Object> env;
+
+        private final long deadline;
+
+        private DeadlineEnv(Map<String, Object> env, long deadline) {
+            this.env = env;
+            this.deadline = deadline;
+        }
+
+        private void checkDeadline() {
+            if (System.nanoTime() - deadline > 0) {
+                throw new ScriptExecutionLimitException(script, "maxElapsedMillis", limits.getMaxElapsedMillis(), null);
+            }
+        }
+
+        @Override
+        public Object get(Object key) {
+            checkDeadline();
+            return env.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            checkDeadline();
+            return env.containsKey(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            checkDeadline();
+            return env.put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return env.remove(key);
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return env.entrySet();
+        }
+    }
+}
@@ -16,12 +16,18 @@
  */
 package calculator.engine.script;
 
+import calculator.common.LayeredMap;
 import calculator.engine.annotation.PublicApi;
 import com.googlecode.aviator.AviatorEvaluator;
+import com.googlecode.aviator.AviatorEvaluatorInstance;
+import com.googlecode.aviator.Options;
 import com.googlecode.aviator.runtime.function.AbstractFunction;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 
 
 @PublicApi
@@ -33,9 +39,41 @@ public class AviatorScriptEvaluator implements ScriptEvaluator {
         return DEFAULT_INSTANCE;
     }
 
+    private final AviatorEvaluatorInstance aviatorInstance;
+
+    private final ScriptExecutionLimits limits;
+
+    public AviatorScriptEvaluator() {
+        this(ScriptExecutionLimits.UNLIMITED);
+    }
+
+    /**
+     * Create the evaluator whose evaluations are limited by {@code limits}.
+     *
+     * <p>The loop count is limited by a separate Aviator instance, which still resolves the functions
+     * registered to the global Aviator instance.
+     *
+     * @param limits the limits of each evaluation
+     */
+    public AviatorScriptEvaluator(ScriptExecutionLimits limits) {
+        this.limits = Objects.requireNonNull(limits, "limits can't be null.");
+        if (limits.getMaxLoopCount() > 0) {
+            AviatorEvaluatorInstance instance = AviatorEvaluator.newInstance();
+            instance.setOption(Options.MAX_LOOP_COUNT, limits.getMaxLoopCount());
+            instance.addFunctionLoader(name -> AviatorEvaluator.getInstance().getFunction(name));
+            this.aviatorInstance = instance;
+        } else {
+            this.aviatorInstance = AviatorEvaluator.getInstance();
+        }
+    }
+
+    public ScriptExecutionLimits getLimits() {
+        return limits;
+    }
+
     @Override
     public Object evaluate(String script, Map<String, Object> arguments) {
-        return AviatorEvaluator.execute(script, arguments, true);
+        return compile(script).execute(arguments);
     }
 
     @Override
@@ -49,8 +87,7 @@ public class AviatorScriptEvaluator implements ScriptEvaluator {
         }
 
         try {
-            AviatorEvaluator.compile(expression, true);
-            return new ValidateInfo(true);
+            return new ValidateInfo(compile(expression));
         } catch (Exception e) {
             return new ValidateInfo(false, e.getMessage());
         }
@@ -58,10 +95,64 @@ public class AviatorScriptEvaluator implements ScriptEvaluator {
 
     @Override
     public List<String> getScriptArgument(String expression) {
-        return AviatorEvaluator.compile(expression, true).getVariableNames();
+        return aviatorInstance.compile(expression, true).getVariableNames();
+    }
+
+    @Override
+    public CompiledScript compile(String script) {
+        return new AviatorCompiledScript(script, aviatorInstance.compile(script, true), limits);
+    }
+
+    /**
+     * Execute the compiled expression directly, and the arguments object is reused by all the elements,
+     * for neither Aviator nor the fast path keeps the arguments after execution.
+     */
+    @Override
+    public Object[] evaluateBatch(CompiledScript script,
+                                  List<?> elements,
+                                  Map<String, Object> sharedArguments,
+                                  Function<Object, Map<String, Object>> elementArguments) {
+        if (!reusesArguments(script)) {
+            return ScriptEvaluator.super.evaluateBatch(script, elements, sharedArguments, elementArguments);
+        }
+
+        LayeredMap arguments = new LayeredMap(2).layer(0, sharedArguments);
+        Object[] results = new Object[elements.size()];
+        int index = 0;
+        for (Object element : elements) {
+            arguments.clearWrites().layer(1, elementArguments.apply(element));
+            results[index++] = script.execute(arguments);
+        }
+        return results;
+    }
+
+    @Override
+    public BitSet evaluatePredicateBatch(CompiledScript script,
+                                         List<?> elements,
+                                         Map<String, Object> sharedArguments,
+                                         Function<Object, Map<String, Object>> elementArguments) {
+        if (!reusesArguments(script)) {
+            return ScriptEvaluator.super.evaluatePredicateBatch(script, elements, sharedArguments, elementArguments);
+        }
+
+        LayeredMap arguments = new LayeredMap(2).layer(0, sharedArguments);
+        BitSet satisfied = new BitSet(elements.size());
+        int index = 0;
+        for (Object element : elements) {
+            arguments.clearWrites().layer(1, elementArguments.apply(element));
+            if ((Boolean) script.execute(arguments)) {
+                satisfied.set(index);
+            }
+            index++;
+        }
+        return satisfied;
+    }
+
+    private static boolean reusesArguments(CompiledScript script) {
+        return script instanceof AviatorCompiledScript || script instanceof FastCompiledScript;
     }
 
     public void addFunction(AbstractFunction function) {
-        AviatorEvaluator.addFunction(function);
+        aviatorInstance.addFunction(function);
     }
 }
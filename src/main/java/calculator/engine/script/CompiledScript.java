@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.script;
+
+import calculator.engine.annotation.PublicApi;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The compiled form of script, which could be executed repeatedly without parsing the script again.
+ */
+@PublicApi
+public interface CompiledScript {
+
+    /**
+     * Return the script text.
+     *
+     * @return script
+     */
+    String getScript();
+
+    /**
+     * Return the variable names which the script used.
+     *
+     * @return variable names
+     */
+    List<String> getArguments();
+
+    /**
+     * Execute script with arguments.
+     *
+     * @param arguments expression execution arguments
+     * @return the result of execution
+     */
+    Object execute(Map<String, Object> arguments);
+
+}
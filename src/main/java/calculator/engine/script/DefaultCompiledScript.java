@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.script;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The compiled script for {@link ScriptEvaluator} which does not support compilation,
+ * each execution is delegated to {@link ScriptEvaluator#evaluate}.
+ */
+@Internal
+class DefaultCompiledScript implements CompiledScript {
+
+    private final ScriptEvaluator scriptEvaluator;
+
+    private final String script;
+
+    private volatile List<String> arguments;
+
+    DefaultCompiledScript(ScriptEvaluator scriptEvaluator, String script) {
+        this.scriptEvaluator = Objects.requireNonNull(scriptEvaluator);
+        this.script = Objects.requireNonNull(script);
+    }
+
+    @Override
+    public String getScript() {
+        return script;
+    }
+
+    @Override
+    public List<String> getArguments() {
+        if (arguments == null) {
+            arguments = scriptEvaluator.getScriptArgument(script);
+        }
+        return arguments;
+    }
+
+    @Override
+    public Object execute(Map<String, Object> arguments) {
+        return scriptEvaluator.evaluate(script, arguments);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.script;
+
+import calculator.common.CommonUtil;
+import calculator.engine.annotation.Internal;
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The memo of pure expressions in one execution, e.g. the '@map' on the fields of list elements which uses
+ * the same dependency source or the same parent id.
+ *
+ * <p>The result is keyed by the text of compiled script and the values of the variables which the script used,
+ * the values of basic type are compared by equality and others are compared by identity, so the arguments
+ * must not be modified during execution, which is guaranteed for the snapshots of fetchSource.
+ *
+ * <p>It is put into {@link graphql.GraphQLContext} of execution if memo is enabled.
+ */
+@Internal
+public class ExpressionMemo {
+
+    private static final Object NULL_RESULT = new Object();
+
+    private final ConcurrentHashMap<MemoKey, Object> resultByKey = new ConcurrentHashMap<>();
+
+    private final ExpressionMemoStatistics statistics;
+
+    public ExpressionMemo(ExpressionMemoStatistics statistics) {
+        this.statistics = Objects.requireNonNull(statistics);
+    }
+
+    /**
+     * Whether the result of script could be memoized.
+     *
+     * @param scriptEvaluator the script evaluator
+     * @param script          the script
+     * @return true if the script is a pure expression
+     */
+    public static boolean isMemoizable(ScriptEvaluator scriptEvaluator, String script) {
+        return InvariantHoistedScript.isPureExpression(scriptEvaluator, script);
+    }
+
+    /**
+     * Execute the script with the memo of current execution if exists.
+     *
+     * @param environment the environment of fetching field
+     * @param script      the compiled script
+     * @param memoizable  whether the script is pure, see {@link #isMemoizable}
+     * @param arguments   the arguments of script
+     * @return the result of script
+     */
+    public static Object execute(DataFetchingEnvironment environment,
+                                 CompiledScript script,
+                                 boolean memoizable,
+                                 Map<String, Object> arguments) {
+        ExpressionMemo memo = memoizable && environment.getGraphQlContext() != null
+                ? environment.getGraphQlContext().get(ExpressionMemo.class)
+                : null;
+        if (memo == null) {
+            return script.execute(arguments);
+        }
+        return memo.execute(script, arguments);
+    }
+
+    public Object execute(CompiledScript script, Map<String, Object> arguments) {
+        List<String> variables = script.getArguments();
+        Object[] values = new Object[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = arguments.get(variables.get(i));
+        }
+        MemoKey key = new MemoKey(script, values);
+
+        Object result = resultByKey.get(key);
+        if (result != null) {
+            statistics.recordHit();
+            return result == NULL_RESULT ? null : result;
+        }
+
+        statistics.recordMiss();
+        result = script.execute(arguments);
+        resultByKey.putIfAbsent(key, result == null ? NULL_RESULT : result);
+        return result;
+    }
+
+    private static class MemoKey {
+
+        private final CompiledScript script;
+
+        private final Object[] values;
+
+        private final int hashCode;
+
+        MemoKey(CompiledScript script, Object[] values) {
+            this.script = script;
+            this.values = values;
+
+            int hash = script.getScript().hashCode();
+            for (Object value : values) {
+                hash = 31 * hash + (isComparedByEquality(value) ? value.hashCode() : System.identityHashCode(value));
+            }
+            this.hashCode = hash;
+        }
+
+        private static boolean isComparedByEquality(Object value) {
+            return value != null && CommonUtil.isBasicType(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MemoKey)) {
+                return false;
+            }
+
+            MemoKey other = (MemoKey) o;
+            if (hashCode != other.hashCode || !script.getScript().equals(other.script.getScript()) || values.length != other.values.length) {
+                return false;
+            }
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                boolean same = isComparedByEquality(value) ? value.equals(other.values[i]) : value == other.values[i];
+                if (!same) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return script.getScript() + Arrays.toString(values);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.script;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The compiled script which is executed by {@link FastExpression}, and executed by Aviator
+ * if the arguments are not supported by fast path.
+ */
+@Internal
+class FastCompiledScript implements CompiledScript {
+
+    private final FastExpression fastExpression;
+
+    private final CompiledScript fallbackScript;
+
+    FastCompiledScript(FastExpression fastExpression, CompiledScript fallbackScript) {
+        this.fastExpression = Objects.requireNonNull(fastExpression);
+        this.fallbackScript = Objects.requireNonNull(fallbackScript);
+    }
+
+    @Override
+    public String getScript() {
+        return fallbackScript.getScript();
+    }
+
+    @Override
+    public List<String> getArguments() {
+        return fallbackScript.getArguments();
+    }
+
+    @Override
+    public Object execute(Map<String, Object> arguments) {
+        try {
+            return fastExpression.eval(arguments != null ? arguments : Collections.emptyMap());
+        } catch (RuntimeException e) {
+            if (e != FastExpression.UNSUPPORTED) {
+                throw e;
+            }
+            return fallbackScript.execute(arguments);
+        }
+    }
+}
@@ -0,0 +1,538 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.script;
+
+import calculator.engine.annotation.Internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The lambda tree of simple Aviator expression, which consists of variables, property access of Map,
+ * number/string/boolean/nil literals, comparisons, arithmetic and boolean logic, e.g. 'price > 100',
+ * 'status == 'ON'', 'ele * 100' and 'item.id'.
+ *
+ * <p>The arithmetic and comparisons are computed on primitive long/double directly with the same rules as Aviator:
+ * integral numbers are computed as long, and as double if any operand is float or double. If the operand is any
+ * other type, e.g. nil, BigDecimal or String in arithmetic, {@link #UNSUPPORTED} is thrown and the expression
+ * should be evaluated by Aviator, so the result is always the same as Aviator.
+ */
+@Internal
+abstract class FastExpression {
+
+    /**
+     * Thrown if the operands are not supported by fast path, it is shared and has no stack trace.
+     */
+    static final RuntimeException UNSUPPORTED = new RuntimeException("unsupported by fast path.", null, false, false) {
+        private static final long serialVersionUID = 1L;
+    };
+
+    // the variables resolved by Aviator itself rather than env, e.g. '__env__' is the env map.
+    private static final Set<String> RESERVED_VARIABLES = new HashSet<>(Arrays.asList(
+            "__env__", "__instance__", "__args__", "__exp__"
+    ));
+
+    abstract Object eval(Map<String, Object> env);
+
+    /**
+     * Parse the script to lambda tree.
+     *
+     * @param script script
+     * @return the lambda tree, or null if the script is not in the simple subset
+     */
+    static FastExpression parse(String script) {
+        List<String> tokens = tokenize(script);
+        if (tokens == null || tokens.isEmpty()) {
+            return null;
+        }
+
+        Parser parser = new Parser(tokens);
+        FastExpression expression = parser.parseOr();
+        if (expression == null || parser.position != tokens.size()) {
+            return null;
+        }
+        return expression;
+    }
+
+    // ============================================== tokenizer ==============================================
+
+    private static List<String> tokenize(String script) {
+        List<String> tokens = new ArrayList<>();
+        int length = script.length();
+        int i = 0;
+        while (i < length) {
+            char c = script.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+
+            int start = i;
+            if (c == '\'' || c == '"') {
+                i++;
+                while (i < length && script.charAt(i) != c) {
+                    // escape and interpolation are left to Aviator.
+                    if (script.charAt(i) == '\\' || script.charAt(i) == '#') {
+                        return null;
+                    }
+                    i++;
+                }
+                if (i == length) {
+                    return null;
+                }
+                tokens.add(script.substring(start, ++i));
+            } else if (Character.isDigit(c)) {
+                while (i < length && Character.isDigit(script.charAt(i))) {
+                    i++;
+                }
+                if (i + 1 < length && script.charAt(i) == '.' && Character.isDigit(script.charAt(i + 1))) {
+                    i++;
+                    while (i < length && Character.isDigit(script.charAt(i))) {
+                        i++;
+                    }
+                }
+                // e.g. '1e3', '100M', '0x10' and '1.'
+                if (i < length && (Character.isLetter(script.charAt(i)) || script.charAt(i) == '.' || script.charAt(i) == '_')) {
+                    return null;
+                }
+                tokens.add(script.substring(start, i));
+            } else if (Character.isLetter(c) || c == '_') {
+                while (i < length && (Character.isLetterOrDigit(script.charAt(i)) || script.charAt(i) == '_' || script.charAt(i) == '.')) {
+                    i++;
+                }
+                String identifier = script.substring(start, i);
+                int dotIndex = identifier.indexOf('.');
+                String variable = dotIndex < 0 ? identifier : identifier.substring(0, dotIndex);
+                if (RESERVED_VARIABLES.contains(variable) || identifier.endsWith(".") || identifier.contains("..")) {
+                    return null;
+                }
+                tokens.add(identifier);
+            } else {
+                String twoChars = i + 1 < length ? script.substring(i, i + 2) : "";
+                if (twoChars.equals("==") || twoChars.equals("!=") || twoChars.equals("<=") || twoChars.equals(">=")
+                        || twoChars.equals("&&") || twoChars.equals("||")) {
+                    // e.g. '=~', '==~'
+                    if (i + 2 < length && script.charAt(i + 2) == '~') {
+                        return null;
+                    }
+                    tokens.add(twoChars);
+                    i += 2;
+                } else if ("+-*/%<>!()".indexOf(c) >= 0) {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                } else {
+                    return null;
+                }
+            }
+        }
+        return tokens;
+    }
+
+    // ============================================== parser ==============================================
+
+    private static class Parser {
+
+        private final List<String> tokens;
+
+        private int position;
+
+        Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        private boolean accept(String token) {
+            if (position < tokens.size() && tokens.get(position).equals(token)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private String peek() {
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        FastExpression parseOr() {
+            FastExpression left = parseAnd();
+            while (left != null && accept("||")) {
+                left = logic(left, parseAnd(), false);
+            }
+            return left;
+        }
+
+        private FastExpression parseAnd() {
+            FastExpression left = parseEquality();
+            while (left != null && accept("&&")) {
+                left = logic(left, parseEquality(), true);
+            }
+            return left;
+        }
+
+        private FastExpression parseEquality() {
+            FastExpression left = parseRelational();
+            while (left != null && ("==".equals(peek()) || "!=".equals(peek()))) {
+                String operator = tokens.get(position++);
+                left = comparison(operator, left, parseRelational());
+            }
+            return left;
+        }
+
+        private FastExpression parseRelational() {
+            FastExpression left = parseAdditive();
+            while (left != null && ("<".equals(peek()) || "<=".equals(peek()) || ">".equals(peek()) || ">=".equals(peek()))) {
+                String operator = tokens.get(position++);
+                left = comparison(operator, left, parseAdditive());
+            }
+            return left;
+        }
+
+        private FastExpression parseAdditive() {
+            FastExpression left = parseMultiplicative();
+            while (left != null && ("+".equals(peek()) || "-".equals(peek()))) {
+                char operator = tokens.get(position++).charAt(0);
+                left = arithmetic(operator, left, parseMultiplicative());
+            }
+            return left;
+        }
+
+        private FastExpression parseMultiplicative() {
+            FastExpression left = parseUnary();
+            while (left != null && ("*".equals(peek()) || "/".equals(peek()) || "%".equals(peek()))) {
+                char operator = tokens.get(position++).charAt(0);
+                left = arithmetic(operator, left, parseUnary());
+            }
+            return left;
+        }
+
+        private FastExpression parseUnary() {
+            if (accept("!")) {
+                FastExpression operand = parseUnary();
+                return operand == null ? null : new Not(operand);
+            }
+            if (accept("-")) {
+                FastExpression operand = parseUnary();
+                return operand == null ? null : new Negate(operand);
+            }
+            return parsePrimary();
+        }
+
+        private FastExpression parsePrimary() {
+            String token = peek();
+            if (token == null) {
+                return null;
+            }
+            position++;
+
+            if (token.equals("(")) {
+                FastExpression expression = parseOr();
+                return expression != null && accept(")") ? expression : null;
+            }
+
+            char first = token.charAt(0);
+            if (first == '\'' || first == '"') {
+                return new Literal(token.substring(1, token.length() - 1));
+            }
+            if (Character.isDigit(first)) {
+                try {
+                    return new Literal(token.indexOf('.') >= 0 ? (Object) Double.parseDouble(token) : (Object) Long.parseLong(token));
+                } catch (NumberFormatException e) {
+                    // the big integer literal is left to Aviator.
+                    return null;
+                }
+            }
+            if (Character.isLetter(first) || first == '_') {
+                // function call
+                if ("(".equals(peek())) {
+                    return null;
+                }
+                switch (token) {
+                    case "true":
+                        return new Literal(Boolean.TRUE);
+                    case "false":
+                        return new Literal(Boolean.FALSE);
+                    case "nil":
+                        return new Literal(null);
+                    default:
+                        return token.indexOf('.') >= 0 ? new Property(token) : new Variable(token);
+                }
+            }
+            return null;
+        }
+
+        private static FastExpression logic(FastExpression left, FastExpression right, boolean isAnd) {
+            return right == null ? null : new Logic(left, right, isAnd);
+        }
+
+        private static FastExpression comparison(String operator, FastExpression left, FastExpression right) {
+            return right == null ? null : new Comparison(operator, left, right);
+        }
+
+        private static FastExpression arithmetic(char operator, FastExpression left, FastExpression right) {
+            return right == null ? null : new Arithmetic(operator, left, right);
+        }
+    }
+
+    // ============================================== nodes ==============================================
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isFloating(Object value) {
+        return value instanceof Double || value instanceof Float;
+    }
+
+    private static Boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        throw UNSUPPORTED;
+    }
+
+    private static class Literal extends FastExpression {
+
+        private final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        Object eval(Map<String, Object> env) {
+            return value;
+        }
+    }
+
+    private static class Variable extends FastExpression {
+
+        private final String name;
+
+        Variable(String name) {
+            this.name = name;
+        }
+
+        @Override
+        Object eval(Map<String, Object> env) {
+            return env.get(name);
+        }
+    }
+
+    /**
+     * e.g. 'item.id', the variable named with dots takes precedence over the property of Map, as Aviator does.
+     */
+    private static class Property extends FastExpression {
+
+        private final String name;
+
+        private final String[] segments;
+
+        Property(String name) {
+            this.name = name;
+            this.segments = name.split("\\.");
+        }
+
+        @Override
+        Object eval(Map<String, Object> env) {
+            Object value = env.get(name);
+            if (value != null || env.containsKey(name)) {
+                return value;
+            }
+
+            value = env.get(segments[0]);
+            for (int i = 1; i < segments.length; i++) {
+                if (!(value instanceof Map)) {
+                    throw UNSUPPORTED;
+                }
+                value = ((Map<?, ?>) value).get(segments[i]);
+            }
+            return value;
+        }
+    }
+
+    private static class Not extends FastExpression {
+
+        private final FastExpression operand;
+
+        Not(FastExpression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object eval(Map<String, Object> env) {
+            return toBoolean(operand.eval(env)) ? Boolean.FALSE : Boolean.TRUE;
+        }
+    }
+
+    private static class Negate extends FastExpression {
+
+        private final FastExpression operand;
+
+        Negate(FastExpression operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        Object eval(Map<String, Object> env) {
+            Object value = operand.eval(env);
+            if (isIntegral(value)) {
+                return -((Number) value).longValue();
+            }
+            if (isFloating(value)) {
+                return -((Number) value).doubleValue();
+            }
+            throw UNSUPPORTED;
+        }
+    }
+
+    private static class Logic extends FastExpression {
+
+        private final FastExpression left;
+
+        private final FastExpression right;
+
+        private final boolean isAnd;
+
+        Logic(FastExpression left, FastExpression right, boolean isAnd) {
+            this.left = left;
+            this.right = right;
+            this.isAnd = isAnd;
+        }
+
+        @Override
+        Object eval(Map<String, Object> env) {
+            boolean leftValue = toBoolean(left.eval(env));
+            // short-circuit
+            if (leftValue != isAnd) {
+                return leftValue;
+            }
+            return toBoolean(right.eval(env));
+        }
+    }
+
+    private static class Comparison extends FastExpression {
+
+        private final String operator;
+
+        private final FastExpression left;
+
+        private final FastExpression right;
+
+        Comparison(String operator, FastExpression left, FastExpression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object eval(Map<String, Object> env) {
+            Object leftValue = left.eval(env);
+            Object rightValue = right.eval(env);
+
+            int result;
+            if (isIntegral(leftValue) && isIntegral(rightValue)) {
+                result = Long.compare(((Number) leftValue).longValue(), ((Number) rightValue).longValue());
+            } else if ((isIntegral(leftValue) || isFloating(leftValue)) && (isIntegral(rightValue) || isFloating(rightValue))) {
+                result = Double.compare(((Number) leftValue).doubleValue(), ((Number) rightValue).doubleValue());
+            } else if (leftValue instanceof String && rightValue instanceof String) {
+                result = ((String) leftValue).compareTo((String) rightValue);
+            } else if (leftValue instanceof Boolean && rightValue instanceof Boolean
+                    && (operator.equals("==") || operator.equals("!="))) {
+                result = leftValue.equals(rightValue) ? 0 : 1;
+            } else {
+                throw UNSUPPORTED;
+            }
+
+            switch (operator) {
+                case "==":
+                    return result == 0;
+                case "!=":
+                    return result != 0;
+                case "<":
+                    return result < 0;
+                case "<=":
+                    return result <= 0;
+                case ">":
+                    return result > 0;
+                default:
+                    return result >= 0;
+            }
+        }
+    }
+
+    private static class Arithmetic extends FastExpression {
+
+        private final char operator;
+
+        private final FastExpression left;
+
+        private final FastExpression right;
+
+        Arithmetic(char operator, FastExpression left, FastExpression right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        Object eval(Map<String, Object> env) {
+            Object leftValue = left.eval(env);
+            Object rightValue = right.eval(env);
+
+            if (isIntegral(leftValue) && isIntegral(rightValue)) {
+                long l = ((Number) leftValue).longValue();
+                long r = ((Number) rightValue).longValue();
+                switch (operator) {
+                    case '+':
+                        return l + r;
+                    case '-':
+                        return l - r;
+                    case '*':
+                        return l * r;
+                    default:
+                        // the error of dividing by zero is thrown by Aviator.
+                        if (r == 0) {
+                            throw UNSUPPORTED;
+                        }
+                        return operator == '/' ? l / r : l % r;
+                }
+            }
+
+            if ((isIntegral(leftValue) || isFloating(leftValue)) && (isIntegral(rightValue) || isFloating(rightValue))) {
+                double l = ((Number) leftValue).doubleValue();
+                double r = ((Number) rightValue).doubleValue();
+                switch (operator) {
+                    case '+':
+                        return l + r;
+                    case '-':
+                        return l - r;
+                    case '*':
+                        return l * r;
+                    case '/':
+                        return l / r;
+                    default:
+                        return l % r;
+                }
+            }
+            throw UNSUPPORTED;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.script;
+
+import calculator.engine.annotation.PublicApi;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link AviatorScriptEvaluator} which executes the simple expressions, e.g. 'price > 100', 'status == 'ON'',
+ * 'ele * 100' and 'id', by lambda trees on primitive values instead of Aviator runtime, see {@link FastExpression}.
+ *
+ * <p>The other expressions, and the simple expressions whose arguments are not supported by fast path,
+ * e.g. nil or BigDecimal, are executed by Aviator, so the results are always the same as {@link AviatorScriptEvaluator}.
+ */
+@PublicApi
+public class FastPathScriptEvaluator extends AviatorScriptEvaluator {
+
+    // the compiled scripts are cached as Aviator does.
+    private final ConcurrentHashMap<String, CompiledScript> compiledScriptCache = new ConcurrentHashMap<>();
+
+    public FastPathScriptEvaluator() {
+        super();
+    }
+
+    /**
+     * Create the evaluator whose evaluations executed by Aviator are limited by {@code limits},
+     * the fast path expressions have neither loop nor collection and are always cheap.
+     *
+     * @param limits the limits of each evaluation
+     */
+    public FastPathScriptEvaluator(ScriptExecutionLimits limits) {
+        super(limits);
+    }
+
+    @Override
+    public Object evaluate(String script, Map<String, Object> arguments) {
+        return compile(script).execute(arguments);
+    }
+
+    @Override
+    public CompiledScript compile(String script) {
+        CompiledScript compiledScript = compiledScriptCache.get(script);
+        if (compiledScript != null) {
+            return compiledScript;
+        }
+
+        // the invalid script throws exception by Aviator, and it is not cached.
+        CompiledScript aviatorScript = super.compile(script);
+        FastExpression fastExpression = FastExpression.parse(script);
+        compiledScript = fastExpression != null ? new FastCompiledScript(fastExpression, aviatorScript) : aviatorScript;
+        CompiledScript existing = compiledScriptCache.putIfAbsent(script, compiledScript);
+        return existing != null ? existing : compiledScript;
+    }
+
+    /**
+     * Whether the script is executed by fast path if the arguments are supported.
+     *
+     * @param script script
+     * @return true if the script is in the subset of fast path
+     */
+    public boolean isFastPathScript(String script) {
+        return compile(script) instanceof FastCompiledScript;
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.script;
+
+import calculator.common.LayeredMap;
+import calculator.engine.annotation.Internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The per-element script whose invariant sub-expressions are hoisted out, e.g. 'seq.max(source.prices)'
+ * in 'ele.price > seq.max(source.prices) * 0.8' is evaluated only once for the list.
+ *
+ * <p>The function calls and parenthesized groups which use variables but none of the element variables,
+ * determined by {@link ScriptEvaluator#getScriptArgument}, are replaced by synthetic variables, and their values
+ * are bound with the shared arguments before the elements are evaluated. The functions are assumed to be pure
+ * except the known impure ones, and if any invariant part fails, the original script is evaluated for each element,
+ * so the results and errors are the same as the original script.
+ *
+ * <p>Only the simple Aviator expressions are hoisted, the script with statements, lambda, regex or
+ * assignment is evaluated as it is.
+ */
+@Internal
+public class InvariantHoistedScript {
+
+    private static final String HOISTED_PREFIX = "__hoisted_";
+
+    private static final Set<String> IMPURE_FUNCTIONS = new HashSet<>(Arrays.asList(
+            "rand", "now", "sysdate", "print", "println", "p", "seq.add", "seq.put", "seq.remove", "seq.add_all"
+    ));
+
+    private static final Set<String> UNSUPPORTED_KEYWORDS = new HashSet<>(Arrays.asList(
+            "lambda", "fn", "let", "if", "for", "while", "return", "end", "new", "use", "try", "throw"
+    ));
+
+    private final ScriptEvaluator scriptEvaluator;
+
+    private final CompiledScript originalScript;
+
+    private final CompiledScript hoistedScript;
+
+    // <synthetic variable, invariant sub-expression>
+    private final Map<String, CompiledScript> invariants;
+
+    private InvariantHoistedScript(ScriptEvaluator scriptEvaluator,
+                                   CompiledScript originalScript,
+                                   CompiledScript hoistedScript,
+                                   Map<String, CompiledScript> invariants) {
+        this.scriptEvaluator = scriptEvaluator;
+        this.originalScript = originalScript;
+        this.hoistedScript = hoistedScript;
+        this.invariants = invariants;
+    }
+
+    /**
+     * Hoist the invariant sub-expressions of script.
+     *
+     * @param scriptEvaluator  the script evaluator
+     * @param script           the script evaluated for each element
+     * @param elementVariables the variables which are different for each element, e.g. 'ele'
+     * @return the script whose invariant parts are hoisted, or the original script if nothing could be hoisted
+     */
+    public static InvariantHoistedScript hoist(ScriptEvaluator scriptEvaluator, String script, Set<String> elementVariables) {
+        CompiledScript originalScript = scriptEvaluator.compile(script);
+        InvariantHoistedScript notHoisted = new InvariantHoistedScript(
+                scriptEvaluator, originalScript, originalScript, Collections.emptyMap()
+        );
+        if (!(scriptEvaluator instanceof AviatorScriptEvaluator) || script.contains(HOISTED_PREFIX)) {
+            return notHoisted;
+        }
+
+        List<int[]> candidates = findCandidates(script);
+        if (candidates == null || candidates.isEmpty()) {
+            return notHoisted;
+        }
+
+        Map<String, CompiledScript> invariants = new HashMap<>();
+        StringBuilder hoistedText = new StringBuilder();
+        int hoistedEnd = 0;
+        for (int[] candidate : candidates) {
+            if (candidate[0] < hoistedEnd) {
+                continue;
+            }
+
+            String expression = script.substring(candidate[0], candidate[1]);
+            if (!isInvariant(scriptEvaluator, expression, elementVariables)) {
+                continue;
+            }
+
+            String variable = HOISTED_PREFIX + invariants.size();
+            invariants.put(variable, scriptEvaluator.compile(expression));
+            hoistedText.append(script, hoistedEnd, candidate[0]).append(' ').append(variable).append(' ');
+            hoistedEnd = candidate[1];
+        }
+        if (invariants.isEmpty()) {
+            return notHoisted;
+        }
+        hoistedText.append(script, hoistedEnd, script.length());
+
+        CompiledScript hoistedScript;
+        try {
+            hoistedScript = scriptEvaluator.compile(hoistedText.toString());
+        } catch (RuntimeException e) {
+            return notHoisted;
+        }
+        return new InvariantHoistedScript(scriptEvaluator, originalScript, hoistedScript, invariants);
+    }
+
+    public CompiledScript getOriginalScript() {
+        return originalScript;
+    }
+
+    /**
+     * Return the script which uses the synthetic variables instead of the invariant parts.
+     *
+     * @return the hoisted script, or the original script if nothing is hoisted
+     */
+    public CompiledScript getHoistedScript() {
+        return hoistedScript;
+    }
+
+    public boolean isHoisted() {
+        return !invariants.isEmpty();
+    }
+
+    /**
+     * Evaluate the invariant parts once with the shared arguments, and return the evaluator for the batches of elements.
+     *
+     * @param sharedArguments  the arguments shared by all the elements, could be null
+     * @param elementArguments the function to get arguments of element
+     * @return the evaluator which executes the script for each element of batch
+     */
+    public Function<List<?>, Object[]> newBatchEvaluator(Map<String, Object> sharedArguments,
+                                                         Function<Object, Map<String, Object>> elementArguments) {
+        Map<String, Object> boundValues = bindInvariants(sharedArguments);
+        if (boundValues == null) {
+            return elements -> scriptEvaluator.evaluateBatch(originalScript, elements, sharedArguments, elementArguments);
+        }
+
+        Map<String, Object> boundArguments = new LayeredMap(2).layer(0, sharedArguments).layer(1, boundValues);
+        return elements -> scriptEvaluator.evaluateBatch(hoistedScript, elements, boundArguments, elementArguments);
+    }
+
+    private Map<String, Object> bindInvariants(Map<String, Object> sharedArguments) {
+        if (invariants.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Object> boundValues = new HashMap<>(invariants.size() * 2);
+        try {
+            for (Map.Entry<String, CompiledScript> entry : invariants.entrySet()) {
+                Map<String, Object> arguments = new LayeredMap(1).layer(0, sharedArguments);
+                boundValues.put(entry.getKey(), entry.getValue().execute(arguments));
+            }
+        } catch (RuntimeException e) {
+            // the invariant part might be never evaluated by original script, e.g. short-circuited by element.
+            return null;
+        }
+        return boundValues;
+    }
+
+    /**
+     * Whether the script is a plain Aviator expression which does not call the known impure functions,
+     * i.e. its result only depends on the arguments if the custom functions are pure.
+     *
+     * @param scriptEvaluator the script evaluator
+     * @param script          the script
+     * @return true if the script is a pure expression
+     */
+    static boolean isPureExpression(ScriptEvaluator scriptEvaluator, String script) {
+        return scriptEvaluator instanceof AviatorScriptEvaluator && findCandidates(script) != null;
+    }
+
+    private static boolean isInvariant(ScriptEvaluator scriptEvaluator, String expression, Set<String> elementVariables) {
+        List<String> variables;
+        try {
+            variables = scriptEvaluator.getScriptArgument(expression);
+        } catch (RuntimeException e) {
+            return false;
+        }
+
+        // the constant parts are folded by compiler.
+        if (variables == null || variables.isEmpty()) {
+            return false;
+        }
+        for (String variable : variables) {
+            if (elementVariables.contains(variable)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the spans of function calls and parenthesized groups, in the order of start index and the outer one first.
+     *
+     * @return the spans, or null if the script is not supported
+     */
+    private static List<int[]> findCandidates(String script) {
+        List<int[]> candidates = new ArrayList<>();
+        // the start index of the unclosed group, and whether it is a function call.
+        List<int[]> openGroups = new ArrayList<>();
+        int identifierStart = -1;
+        String lastIdentifier = null;
+        char previous = 0;
+        int length = script.length();
+        for (int i = 0; i < length; i++) {
+            char c = script.charAt(i);
+            if (c == '\'' || c == '"') {
+                i = skipString(script, i);
+                if (i < 0) {
+                    return null;
+                }
+                previous = c;
+                identifierStart = -1;
+                continue;
+            }
+
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = i;
+                while (i + 1 < length && (Character.isJavaIdentifierPart(script.charAt(i + 1)) || script.charAt(i + 1) == '.')) {
+                    i++;
+                }
+                String identifier = script.substring(start, i + 1);
+                if (UNSUPPORTED_KEYWORDS.contains(identifier)) {
+                    return null;
+                }
+                identifierStart = start;
+                lastIdentifier = identifier;
+                previous = 'a';
+                continue;
+            }
+
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+
+            switch (c) {
+                case ';':
+                case '{':
+                case '}':
+                case '#':
+                case '@':
+                    return null;
+                case '=':
+                    // assignment, or regex match '=~'
+                    boolean isComparison = i + 1 < length && script.charAt(i + 1) == '=' || "=!<>".indexOf(previous) >= 0;
+                    if (!isComparison || i + 1 < length && script.charAt(i + 1) == '~') {
+                        return null;
+                    }
+                    break;
+                case '/':
+                    // the regex literal is in the position of operand.
+                    if (previous == 0 || "(,=!&|<>+-*/%?:[".indexOf(previous) >= 0) {
+                        return null;
+                    }
+                    break;
+                case '(':
+                    if (previous == 'a' && IMPURE_FUNCTIONS.contains(lastIdentifier)) {
+                        return null;
+                    }
+                    openGroups.add(new int[]{previous == 'a' ? identifierStart : i, candidates.size()});
+                    // placeholder, the end is set when the group is closed.
+                    candidates.add(null);
+                    break;
+                case ')':
+                    if (openGroups.isEmpty()) {
+                        return null;
+                    }
+                    int[] openGroup = openGroups.remove(openGroups.size() - 1);
+                    candidates.set(openGroup[1], new int[]{openGroup[0], i + 1});
+                    break;
+                default:
+            }
+            previous = c;
+            identifierStart = -1;
+        }
+
+        if (!openGroups.isEmpty()) {
+            return null;
+        }
+        candidates.removeIf(Objects::isNull);
+        return candidates;
+    }
+
+    private static int skipString(String script, int start) {
+        char quote = script.charAt(start);
+        for (int i = start + 1; i < script.length(); i++) {
+            char c = script.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
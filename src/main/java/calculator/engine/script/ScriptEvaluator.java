@@ -17,10 +17,13 @@
 
 package calculator.engine.script;
 
+import calculator.common.LayeredMap;
 import calculator.engine.annotation.PublicApi;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 @PublicApi
 public interface ScriptEvaluator {
@@ -50,4 +53,67 @@ public interface ScriptEvaluator {
      */
     List<String> getScriptArgument(String script);
 
+    /**
+     * Compile the script, the compiled script could be executed repeatedly
+     * and its arguments are parsed only once.
+     *
+     * @param script script
+     * @return the compiled script
+     * @throws RuntimeException if the script is invalid
+     */
+    default CompiledScript compile(String script) {
+        return new DefaultCompiledScript(this, script);
+    }
+
+    /**
+     * Execute the compiled script for each element of list.
+     *
+     * <p>The arguments of element take precedence over the shared arguments, and neither of them is altered by script.
+     * If the arguments of element is null, the variables are resolved by the shared arguments only, so the element
+     * which should hide a shared variable must map it to null explicitly.
+     *
+     * @param script           the compiled script
+     * @param elements         the elements of list
+     * @param sharedArguments  the arguments shared by all the elements, could be null
+     * @param elementArguments the function to get arguments of element, could return null
+     * @return the results of execution, in the same order as elements
+     */
+    default Object[] evaluateBatch(CompiledScript script,
+                                   List<?> elements,
+                                   Map<String, Object> sharedArguments,
+                                   Function<Object, Map<String, Object>> elementArguments) {
+        Object[] results = new Object[elements.size()];
+        int index = 0;
+        for (Object element : elements) {
+            Map<String, Object> arguments = new LayeredMap(2)
+                    .layer(0, sharedArguments)
+                    .layer(1, elementArguments.apply(element));
+            results[index++] = script.execute(arguments);
+        }
+        return results;
+    }
+
+    /**
+     * Execute the compiled predicate for each element of list.
+     *
+     * @param script           the compiled predicate, which must return boolean
+     * @param elements         the elements of list
+     * @param sharedArguments  the arguments shared by all the elements, could be null
+     * @param elementArguments the function to get arguments of element, could return null
+     * @return the bitset whose bit is set if the predicate is true for the element with same index
+     */
+    default BitSet evaluatePredicateBatch(CompiledScript script,
+                                          List<?> elements,
+                                          Map<String, Object> sharedArguments,
+                                          Function<Object, Map<String, Object>> elementArguments) {
+        Object[] results = evaluateBatch(script, elements, sharedArguments, elementArguments);
+        BitSet satisfied = new BitSet(results.length);
+        for (int i = 0; i < results.length; i++) {
+            if ((Boolean) results[i]) {
+                satisfied.set(i);
+            }
+        }
+        return satisfied;
+    }
+
 }
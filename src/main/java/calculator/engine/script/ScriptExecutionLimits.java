@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.script;
+
+import calculator.engine.annotation.PublicApi;
+
+/**
+ * The limits of each script evaluation, which protect the request threads from pathological expressions.
+ * A limit which is not positive means unlimited.
+ *
+ * <p>The loop count is checked by Aviator in each iteration of 'for' and 'while', the elapsed time is checked
+ * when the script reads its arguments and after the evaluation, and the size of result is checked after the evaluation.
+ * The collections created inside the script are not limited, only the returned one is.
+ * The evaluation which exceeds any limit throws {@link calculator.exception.ScriptExecutionLimitException}.
+ */
+@PublicApi
+public class ScriptExecutionLimits {
+
+    public static final ScriptExecutionLimits UNLIMITED = newLimits().build();
+
+    private final int maxLoopCount;
+
+    private final long maxElapsedMillis;
+
+    private final int maxResultSize;
+
+    private ScriptExecutionLimits(int maxLoopCount, long maxElapsedMillis, int maxResultSize) {
+        this.maxLoopCount = maxLoopCount;
+        this.maxElapsedMillis = maxElapsedMillis;
+        this.maxResultSize = maxResultSize;
+    }
+
+    public int getMaxLoopCount() {
+        return maxLoopCount;
+    }
+
+    public long getMaxElapsedMillis() {
+        return maxElapsedMillis;
+    }
+
+    public int getMaxResultSize() {
+        return maxResultSize;
+    }
+
+    public boolean isUnlimited() {
+        return maxLoopCount <= 0 && maxElapsedMillis <= 0 && maxResultSize <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ScriptExecutionLimits{" +
+                "maxLoopCount=" + maxLoopCount +
+                ", maxElapsedMillis=" + maxElapsedMillis +
+                ", maxResultSize=" + maxResultSize +
+                '}';
+    }
+
+    public static Builder newLimits() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int maxLoopCount;
+
+        private long maxElapsedMillis;
+
+        private int maxResultSize;
+
+        /**
+         * Set the max iteration count of each loop in script.
+         *
+         * @param maxLoopCount max iteration count
+         * @return this builder
+         */
+        public Builder maxLoopCount(int maxLoopCount) {
+            this.maxLoopCount = maxLoopCount;
+            return this;
+        }
+
+        /**
+         * Set the max elapsed time of one evaluation.
+         *
+         * @param maxElapsedMillis max elapsed milliseconds
+         * @return this builder
+         */
+        public Builder maxElapsedMillis(long maxElapsedMillis) {
+            this.maxElapsedMillis = maxElapsedMillis;
+            return this;
+        }
+
+        /**
+         * Set the max size of the collection, map or array returned by one evaluation, which is checked
+         * after the evaluation and doesn't limit the intermediate collections.
+         *
+         * @param maxResultSize max size of result
+         * @return this builder
+         */
+        public Builder maxResultSize(int maxResultSize) {
+            this.maxResultSize = maxResultSize;
+            return this;
+        }
+
+        public ScriptExecutionLimits build() {
+            return new ScriptExecutionLimits(maxLoopCount, maxElapsedMillis, maxResultSize);
+        }
+    }
+}
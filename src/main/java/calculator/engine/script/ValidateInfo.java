@@ -27,6 +27,8 @@ public class ValidateInfo {
 
     private final String errorMsg;
 
+    private final CompiledScript compiledScript;
+
     public ValidateInfo(boolean isValidScript) {
         this(isValidScript, "");
     }
@@ -34,6 +36,18 @@ public class ValidateInfo {
     public ValidateInfo(boolean isValidScript, String errorMsg) {
         this.isValidScript = isValidScript;
         this.errorMsg = errorMsg;
+        this.compiledScript = null;
+    }
+
+    /**
+     * Valid script with the compiled form created during validation.
+     *
+     * @param compiledScript compiled script
+     */
+    public ValidateInfo(CompiledScript compiledScript) {
+        this.isValidScript = true;
+        this.errorMsg = "";
+        this.compiledScript = compiledScript;
     }
 
     /**
@@ -54,6 +68,16 @@ public class ValidateInfo {
         return errorMsg;
     }
 
+    /**
+     * Returns the script compiled during validation, which could be null
+     * if the script is invalid or the evaluator does not compile script when validating.
+     *
+     * @return compiled script
+     */
+    public CompiledScript getCompiledScript() {
+        return compiledScript;
+    }
+
     @Override
     public String toString() {
         return "ValidateInfo{" +
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.exception;
+
+import calculator.engine.annotation.PublicApi;
+import graphql.GraphQLError;
+import graphql.GraphQLException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when registering a query which is invalid for the wrapped schema.
+ */
+@PublicApi
+public class PersistedQueryException extends GraphQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<GraphQLError> errors;
+
+    public PersistedQueryException(String message, List<GraphQLError> errors) {
+        super(message);
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    public List<GraphQLError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.exception;
+
+import calculator.engine.annotation.PublicApi;
+import graphql.ErrorClassification;
+import graphql.ErrorType;
+import graphql.GraphQLError;
+import graphql.GraphQLException;
+import graphql.language.SourceLocation;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thrown when a script evaluation exceeds {@link calculator.engine.script.ScriptExecutionLimits},
+ * and the field which evaluates the script is failed with this error.
+ */
+@PublicApi
+public class ScriptExecutionLimitException extends GraphQLException implements GraphQLError {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String script;
+
+    private final String limitName;
+
+    private final long limit;
+
+    public ScriptExecutionLimitException(String script, String limitName, long limit, Throwable cause) {
+        super(String.format("script '%s' exceeds the execution limit %s = %d.", script, limitName, limit), cause);
+        this.script = script;
+        this.limitName = limitName;
+        this.limit = limit;
+    }
+
+    public String getScript() {
+        return script;
+    }
+
+    /**
+     * The name of exceeded limit, i.e. 'maxLoopCount', 'maxElapsedMillis' or 'maxResultSize'.
+     *
+     * @return the name of limit
+     */
+    public String getLimitName() {
+        return limitName;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return null;
+    }
+
+    @Override
+    public ErrorClassification getErrorType() {
+        return ErrorType.ExecutionAborted;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        Map<String, Object> extensions = new LinkedHashMap<>();
+        extensions.put("classification", "ScriptExecutionLimit");
+        extensions.put("script", script);
+        extensions.put("limitName", limitName);
+        extensions.put("limit", limit);
+        return extensions;
+    }
+}
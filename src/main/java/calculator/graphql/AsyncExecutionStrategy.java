@@ -20,6 +20,8 @@ package calculator.graphql;
 import calculator.engine.annotation.Internal;
 import graphql.ExecutionResult;
 import graphql.ExecutionResultImpl;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
 import graphql.execution.AbortExecutionException;
 import graphql.execution.AbstractAsyncExecutionStrategy;
 import graphql.execution.Async;
@@ -48,6 +50,7 @@ import java.util.List;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.BiConsumer;
 
 import static graphql.collect.ImmutableKit.map;
@@ -191,6 +194,19 @@ public class AsyncExecutionStrategy extends AbstractAsyncExecutionStrategy {
             overallResult.complete(executionResult);
         }).whenComplete((ignored, exception) -> {
             if (exception != null) {
+                // the error reported by directive handler, e.g. script execution limit, fails the field with it's own error.
+                Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+                        ? exception.getCause() : exception;
+                if (cause instanceof GraphQLError) {
+                    GraphQLError error = (GraphQLError) cause;
+                    executionContext.addError(GraphqlErrorBuilder.newError()
+                            .message(error.getMessage())
+                            .path(parameters.getPath())
+                            .errorType(error.getErrorType())
+                            .extensions(error.getExtensions())
+                            .build()
+                    );
+                }
                 AbortExecutionException graphQLException = new AbortExecutionException(exception.getMessage());
                 ExecutionResultImpl resultx = new ExecutionResultImpl(null, Collections.singletonList(graphQLException));
                 overallResult.complete(resultx);
@@ -0,0 +1,466 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.graphql;
+
+import calculator.common.QueryNormalizer;
+import calculator.engine.annotation.PublicApi;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.language.Document;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+import static calculator.common.CommonUtil.sha256Hex;
+
+/**
+ * The built-in {@link CalculatorDocumentCachedProvider} which keeps the least recently used
+ * documents within the size and weight bounds.
+ *
+ * <p>The cache hits are lock-free, the concurrent misses of the same query are validated only once,
+ * and the entries are evicted by the time of last access on the write path.
+ *
+ * <p>The entries are keyed by the normalized query, see {@link QueryNormalizer}.
+ * The entries could be expired after written, and the invalid queries are cached as well by default,
+ * so that replaying invalid queries would not pay the validation again.
+ * When the provider is used by another wrapped schema, the cached queries are validated again
+ * by the new schema asynchronously, and the entries validated by previous schema would not be returned.
+ */
+@PublicApi
+public class BoundedDocumentCachedProvider extends CalculatorDocumentCachedProvider {
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 1000;
+
+    private static final ToLongBiFunction<String, PreparsedDocumentEntry> DEFAULT_WEIGHER = (query, entry) -> query.length();
+
+    private final long maximumSize;
+
+    private final long maximumWeight;
+
+    private final ToLongBiFunction<String, PreparsedDocumentEntry> weigher;
+
+    // non-positive value means the entry never expire
+    private final long expireAfterWriteNanos;
+
+    private final boolean cacheValidationFailure;
+
+    private final Executor refreshExecutor;
+
+    private final LongSupplier ticker;
+
+    // the entries are read without lock, and written with the lock of writeLock.
+    private final ConcurrentHashMap<String, CacheEntry> entryByKey = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+
+    // guarded by writeLock
+    private long totalWeight;
+
+    // the logical time of access, the entry accessed least recently is evicted first.
+    private final AtomicLong accessClock = new AtomicLong();
+
+    // <cacheKey, loading future>, the concurrent misses of the same query are validated only once.
+    private final ConcurrentHashMap<String, CompletableFuture<PreparsedDocumentEntry>> loadingByKey = new ConcurrentHashMap<>();
+
+    // <fingerprint, cacheKey>, avoid parsing the queries which have been seen
+    private final ConcurrentHashMap<String, String> keyByFingerprint = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder loadCount = new LongAdder();
+
+    private final LongAdder totalLoadTimeNanos = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private BoundedDocumentCachedProvider(long maximumSize,
+                                          long maximumWeight,
+                                          ToLongBiFunction<String, PreparsedDocumentEntry> weigher,
+                                          long expireAfterWriteNanos,
+                                          boolean cacheValidationFailure,
+                                          Executor refreshExecutor,
+                                          LongSupplier ticker) {
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.cacheValidationFailure = cacheValidationFailure;
+        this.refreshExecutor = refreshExecutor;
+        this.ticker = ticker;
+    }
+
+    public static Builder newProvider() {
+        return new Builder();
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocumentFromCache(ExecutionInput executionInput,
+                                                       Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        CacheEntry cacheEntry = getValidEntry(cacheKey(executionInput));
+        if (cacheEntry != null) {
+            hitCount.increment();
+            return cacheEntry.documentEntry;
+        }
+
+        missCount.increment();
+        return null;
+    }
+
+    private CacheEntry getValidEntry(String cacheKey) {
+        CacheEntry cacheEntry = entryByKey.get(cacheKey);
+        if (cacheEntry != null && isExpired(cacheEntry)) {
+            synchronized (writeLock) {
+                removeEntry(cacheEntry);
+            }
+            return null;
+        }
+
+        if (cacheEntry != null && cacheEntry.schema == getWrappedSchema()) {
+            cacheEntry.accessTime = accessClock.incrementAndGet();
+            return cacheEntry;
+        }
+        return null;
+    }
+
+    /**
+     * The concurrent misses of the queries with the same cache key wait for the first one,
+     * instead of validating the query again.
+     */
+    @Override
+    protected PreparsedDocumentEntry loadDocument(ExecutionInput executionInput) {
+        String cacheKey = cacheKey(executionInput);
+        CompletableFuture<PreparsedDocumentEntry> loading = new CompletableFuture<>();
+        CompletableFuture<PreparsedDocumentEntry> existing = loadingByKey.putIfAbsent(cacheKey, loading);
+        if (existing != null) {
+            return existing.join();
+        }
+
+        try {
+            // the query may be loaded by another thread after the cache was missed.
+            CacheEntry cacheEntry = getValidEntry(cacheKey);
+            PreparsedDocumentEntry documentEntry = cacheEntry != null ? cacheEntry.documentEntry : super.loadDocument(executionInput);
+            loading.complete(documentEntry);
+            return documentEntry;
+        } catch (RuntimeException | Error e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingByKey.remove(cacheKey, loading);
+        }
+    }
+
+    @Override
+    public void setDocumentCache(ExecutionInput executionInput, PreparsedDocumentEntry cachedValue) {
+        if (cachedValue.hasErrors() && !cacheValidationFailure) {
+            return;
+        }
+
+        CacheEntry cacheEntry = newEntry(cacheKey(executionInput), executionInput.getQuery(), getWrappedSchema(), cachedValue);
+        if (cacheEntry.weight > maximumWeight) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            putEntry(cacheEntry);
+            evictIfNecessary();
+        }
+    }
+
+    @Override
+    protected void onDocumentLoaded(ExecutionInput executionInput, PreparsedDocumentEntry loadedValue, long loadTimeNanos) {
+        loadCount.increment();
+        totalLoadTimeNanos.add(loadTimeNanos);
+    }
+
+    @Override
+    protected void onWrappedSchemaChanged(GraphQLSchema previousSchema, GraphQLSchema currentSchema) {
+        refresh();
+    }
+
+    /**
+     * Validate the entries which were not validated by the current wrapped schema asynchronously.
+     *
+     * @return the future completed when all the entries are refreshed
+     */
+    public CompletableFuture<Void> refresh() {
+        GraphQLSchema wrappedSchema = getWrappedSchema();
+        List<CacheEntry> staleEntries = new ArrayList<>();
+        for (CacheEntry cacheEntry : entryByKey.values()) {
+            if (cacheEntry.schema != wrappedSchema) {
+                staleEntries.add(cacheEntry);
+            }
+        }
+
+        if (staleEntries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(() -> {
+            for (CacheEntry staleEntry : staleEntries) {
+                // the schema is changed again, and the entries will be refreshed by the next refresh.
+                if (getWrappedSchema() != wrappedSchema) {
+                    return;
+                }
+
+                PreparsedDocumentEntry documentEntry = validateQuery(staleEntry.query);
+                CacheEntry refreshedEntry = newEntry(staleEntry.key, staleEntry.query, wrappedSchema, documentEntry);
+                refreshedEntry.accessTime = staleEntry.accessTime;
+                synchronized (writeLock) {
+                    // the entry is evicted or replaced during refreshing
+                    if (entryByKey.get(staleEntry.key) != staleEntry) {
+                        continue;
+                    }
+
+                    if ((documentEntry.hasErrors() && !cacheValidationFailure) || refreshedEntry.weight > maximumWeight) {
+                        removeEntry(staleEntry);
+                    } else {
+                        putEntry(refreshedEntry);
+                        evictIfNecessary();
+                    }
+                }
+            }
+        }, refreshExecutor);
+    }
+
+    public void invalidateAll() {
+        synchronized (writeLock) {
+            entryByKey.clear();
+            totalWeight = 0;
+        }
+        keyByFingerprint.clear();
+    }
+
+    public long size() {
+        return entryByKey.size();
+    }
+
+    public DocumentCacheStatistics getStatistics() {
+        return new DocumentCacheStatistics(
+                hitCount.sum(), missCount.sum(), loadCount.sum(), totalLoadTimeNanos.sum(), evictionCount.sum()
+        );
+    }
+
+    /**
+     * The key is the hash of normalized query, so that the queries differ in whitespaces, comments,
+     * order of arguments or name of single operation share the same entry. The operation name is kept
+     * in the normalized query if it is specified by execution input, then the unknown operation name
+     * would still be reported.
+     */
+    private String cacheKey(ExecutionInput executionInput) {
+        String operationName = executionInput.getOperationName();
+        boolean keepOperationName = operationName != null && !operationName.isEmpty();
+
+        String fingerprint = (keepOperationName ? 'n' : 'u') + QueryNormalizer.fingerprint(executionInput.getQuery());
+        String cacheKey = keyByFingerprint.get(fingerprint);
+        if (cacheKey != null) {
+            return cacheKey;
+        }
+
+        try {
+            Document document = Parser.parse(executionInput.getQuery());
+            cacheKey = QueryNormalizer.normalizedHash(document, keepOperationName);
+        } catch (InvalidSyntaxException e) {
+            cacheKey = sha256Hex(fingerprint);
+        }
+
+        // the fingerprints are only shortcuts of cache key, so the arbitrary ones are dropped when it is full.
+        if (keyByFingerprint.size() >= maximumSize) {
+            Iterator<String> iterator = keyByFingerprint.keySet().iterator();
+            while (keyByFingerprint.size() >= maximumSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        if (maximumSize > 0) {
+            keyByFingerprint.put(fingerprint, cacheKey);
+        }
+        return cacheKey;
+    }
+
+    private CacheEntry newEntry(String key, String query, GraphQLSchema schema, PreparsedDocumentEntry documentEntry) {
+        long weight = weigher.applyAsLong(query, documentEntry);
+        CacheEntry cacheEntry = new CacheEntry(key, query, schema, documentEntry, weight, ticker.getAsLong());
+        cacheEntry.accessTime = accessClock.incrementAndGet();
+        return cacheEntry;
+    }
+
+    private boolean isExpired(CacheEntry cacheEntry) {
+        return expireAfterWriteNanos > 0 && ticker.getAsLong() - cacheEntry.writeTime >= expireAfterWriteNanos;
+    }
+
+    // following methods should be invoked with the lock of writeLock
+
+    private void putEntry(CacheEntry cacheEntry) {
+        CacheEntry previousEntry = entryByKey.put(cacheEntry.key, cacheEntry);
+        if (previousEntry != null) {
+            totalWeight -= previousEntry.weight;
+        }
+        totalWeight += cacheEntry.weight;
+    }
+
+    private void removeEntry(CacheEntry cacheEntry) {
+        if (entryByKey.remove(cacheEntry.key, cacheEntry)) {
+            totalWeight -= cacheEntry.weight;
+        }
+    }
+
+    /**
+     * Evict the entries accessed least recently, the entries are scanned only when the bounds are exceeded,
+     * which happens on the write path of cache miss, so the hits never wait for eviction.
+     */
+    private void evictIfNecessary() {
+        while (entryByKey.size() > maximumSize || totalWeight > maximumWeight) {
+            CacheEntry eldestEntry = null;
+            for (CacheEntry cacheEntry : entryByKey.values()) {
+                if (eldestEntry == null || cacheEntry.accessTime < eldestEntry.accessTime) {
+                    eldestEntry = cacheEntry;
+                }
+            }
+            if (eldestEntry == null) {
+                return;
+            }
+
+            removeEntry(eldestEntry);
+            if (!isExpired(eldestEntry)) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private static class CacheEntry {
+
+        private final String key;
+
+        private final String query;
+
+        private final GraphQLSchema schema;
+
+        private final PreparsedDocumentEntry documentEntry;
+
+        private final long weight;
+
+        private final long writeTime;
+
+        private volatile long accessTime;
+
+        CacheEntry(String key, String query, GraphQLSchema schema, PreparsedDocumentEntry documentEntry, long weight, long writeTime) {
+            this.key = key;
+            this.query = query;
+            this.schema = schema;
+            this.documentEntry = documentEntry;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    public static class Builder {
+
+        private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+        private long maximumWeight = Long.MAX_VALUE;
+
+        private ToLongBiFunction<String, PreparsedDocumentEntry> weigher = DEFAULT_WEIGHER;
+
+        private long expireAfterWriteNanos;
+
+        private boolean cacheValidationFailure = true;
+
+        private Executor refreshExecutor = ForkJoinPool.commonPool();
+
+        private LongSupplier ticker = System::nanoTime;
+
+        public Builder maximumSize(long maximumSize) {
+            if (maximumSize < 0) {
+                throw new IllegalArgumentException("maximumSize can not be negative.");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder maximumWeight(long maximumWeight) {
+            if (maximumWeight < 0) {
+                throw new IllegalArgumentException("maximumWeight can not be negative.");
+            }
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+
+        /**
+         * The weight of entry, default is the length of query.
+         *
+         * @param weigher weigher taking query and document entry as arguments
+         * @return this builder
+         */
+        public Builder weigher(ToLongBiFunction<String, PreparsedDocumentEntry> weigher) {
+            Objects.requireNonNull(weigher, "weigher can not be null.");
+            this.weigher = weigher;
+            return this;
+        }
+
+        public Builder expireAfterWrite(Duration duration) {
+            Objects.requireNonNull(duration, "duration can not be null.");
+            this.expireAfterWriteNanos = duration.toNanos();
+            return this;
+        }
+
+        public Builder cacheValidationFailure(boolean cacheValidationFailure) {
+            this.cacheValidationFailure = cacheValidationFailure;
+            return this;
+        }
+
+        public Builder refreshExecutor(Executor refreshExecutor) {
+            Objects.requireNonNull(refreshExecutor, "refreshExecutor can not be null.");
+            this.refreshExecutor = refreshExecutor;
+            return this;
+        }
+
+        /**
+         * The time source in nanoseconds, default is {@link System#nanoTime()}.
+         *
+         * @param ticker time source
+         * @return this builder
+         */
+        public Builder ticker(LongSupplier ticker) {
+            Objects.requireNonNull(ticker, "ticker can not be null.");
+            this.ticker = ticker;
+            return this;
+        }
+
+        public BoundedDocumentCachedProvider build() {
+            return new BoundedDocumentCachedProvider(
+                    maximumSize, maximumWeight, weigher, expireAfterWriteNanos, cacheValidationFailure, refreshExecutor, ticker
+            );
+        }
+    }
+}
@@ -31,8 +31,8 @@ import java.util.function.Function;
 @PublicApi
 public abstract class CalculatorDocumentCachedProvider implements PreparsedDocumentProvider {
 
-    private Config wrapperConfig;
-    private GraphQLSchema wrappedSchema;
+    private volatile Config wrapperConfig;
+    private volatile GraphQLSchema wrappedSchema;
 
     public CalculatorDocumentCachedProvider() {
     }
@@ -42,7 +42,19 @@ public abstract class CalculatorDocumentCachedProvider implements PreparsedDocum
     }
 
     void setWrappedSchema(GraphQLSchema wrappedSchema) {
+        GraphQLSchema previousSchema = this.wrappedSchema;
         this.wrappedSchema = wrappedSchema;
+        if (previousSchema != null && previousSchema != wrappedSchema) {
+            onWrappedSchemaChanged(previousSchema, wrappedSchema);
+        }
+    }
+
+    protected Config getWrapperConfig() {
+        return wrapperConfig;
+    }
+
+    protected GraphQLSchema getWrappedSchema() {
+        return wrappedSchema;
     }
 
     @Override
@@ -53,19 +65,62 @@ public abstract class CalculatorDocumentCachedProvider implements PreparsedDocum
             return cacheValue;
         }
 
+        return loadDocument(executionInput);
+    }
+
+    /**
+     * Validate the query missed in cache, then set it to cache.
+     *
+     * @param executionInput executionInput
+     * @return the validated document entry
+     */
+    protected PreparsedDocumentEntry loadDocument(ExecutionInput executionInput) {
+        long startTime = System.nanoTime();
+        PreparsedDocumentEntry preparsedDocumentEntry = validateQuery(executionInput.getQuery());
+        long loadTimeNanos = System.nanoTime() - startTime;
+
+        setDocumentCache(executionInput, preparsedDocumentEntry);
+        onDocumentLoaded(executionInput, preparsedDocumentEntry, loadTimeNanos);
+        return preparsedDocumentEntry;
+    }
+
+    /**
+     * Validate query by the wrapped schema and config, the invalid query is
+     * returned as an entry with errors, which could be cached as well.
+     *
+     * @param query query
+     * @return document entry
+     */
+    protected PreparsedDocumentEntry validateQuery(String query) {
         ParseAndValidateResult validateResult = Validator.validateQuery(
-                executionInput.getQuery(), wrappedSchema, wrapperConfig
+                query, wrappedSchema, wrapperConfig
         );
 
-        PreparsedDocumentEntry preparsedDocumentEntry;
         if (validateResult.isFailure()) {
-            preparsedDocumentEntry = new PreparsedDocumentEntry(validateResult.getErrors());
+            return new PreparsedDocumentEntry(validateResult.getErrors());
         } else {
-            preparsedDocumentEntry = new PreparsedDocumentEntry(validateResult.getDocument());
+            return new PreparsedDocumentEntry(validateResult.getDocument());
         }
+    }
 
-        setDocumentCache(executionInput, preparsedDocumentEntry);
-        return preparsedDocumentEntry;
+    /**
+     * Invoked after the query missed in cache was validated and set to cache.
+     *
+     * @param executionInput executionInput
+     * @param loadedValue    the validated document entry
+     * @param loadTimeNanos  the time spent on validation, in nanoseconds
+     */
+    protected void onDocumentLoaded(ExecutionInput executionInput, PreparsedDocumentEntry loadedValue, long loadTimeNanos) {
+    }
+
+    /**
+     * Invoked when this provider is used by another wrapped schema,
+     * the entries validated by previous schema may be invalid for the current schema.
+     *
+     * @param previousSchema previous wrapped schema
+     * @param currentSchema  current wrapped schema
+     */
+    protected void onWrappedSchemaChanged(GraphQLSchema previousSchema, GraphQLSchema currentSchema) {
     }
 
 
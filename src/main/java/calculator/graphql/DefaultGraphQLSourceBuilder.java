@@ -21,16 +21,20 @@ import calculator.config.Config;
 import calculator.engine.ExecutionEngine;
 import calculator.engine.SchemaWrapper;
 import calculator.engine.annotation.PublicApi;
+import graphql.ExecutionInput;
 import graphql.GraphQL;
 import graphql.execution.instrumentation.ChainedInstrumentation;
 import graphql.execution.instrumentation.Instrumentation;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
 import graphql.execution.preparsed.PreparsedDocumentProvider;
 import graphql.schema.GraphQLSchema;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 
 @PublicApi
@@ -104,29 +108,67 @@ public class DefaultGraphQLSourceBuilder implements GraphQLSource.Builder {
         graphQLBuilder.instrumentation(new ChainedInstrumentation(instrumentations));
 
 
-        if (preparsedDocumentProvider != null) {
-            if (preparsedDocumentProvider instanceof CalculatorDocumentCachedProvider) {
-                ((CalculatorDocumentCachedProvider) preparsedDocumentProvider).setWrapperConfig(wrapperConfig);
-                ((CalculatorDocumentCachedProvider) preparsedDocumentProvider).setWrappedSchema(wrappedSchema);
-            }
-            graphQLBuilder.preparsedDocumentProvider(preparsedDocumentProvider);
+        if (preparsedDocumentProvider instanceof CalculatorDocumentCachedProvider) {
+            ((CalculatorDocumentCachedProvider) preparsedDocumentProvider).setWrapperConfig(wrapperConfig);
+            ((CalculatorDocumentCachedProvider) preparsedDocumentProvider).setWrappedSchema(wrappedSchema);
         }
+        graphQLBuilder.preparsedDocumentProvider(new PersistedQueryDocumentProvider(preparsedDocumentProvider));
         graphQLTransform.accept(graphQLBuilder);
 
-        return new DefaultGraphQLSource(wrappedSchema, graphQLBuilder.build());
+        GraphQL graphQL = graphQLBuilder.build();
+        PersistedQueryRegistry persistedQueryRegistry = new PersistedQueryRegistry(wrappedSchema, wrapperConfig);
+        persistedQueryRegistry.setGraphQL(graphQL);
+        return new DefaultGraphQLSource(wrappedSchema, graphQL, persistedQueryRegistry);
     }
 
 
+    /**
+     * Use the document parsed when registering for persisted query,
+     * and delegate to the configured provider for other queries.
+     */
+    private static class PersistedQueryDocumentProvider implements PreparsedDocumentProvider {
+
+        private final PreparsedDocumentProvider delegate;
+
+        PersistedQueryDocumentProvider(PreparsedDocumentProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                          Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+            PersistedQuery persistedQuery = executionInput.getGraphQLContext().get(PersistedQuery.class);
+            if (persistedQuery != null && persistedQuery.getQuery().equals(executionInput.getQuery())) {
+                return CompletableFuture.completedFuture(persistedQuery.getExecutionPlan().getDocumentEntry());
+            }
+
+            if (delegate != null) {
+                return delegate.getDocumentAsync(executionInput, parseAndValidateFunction);
+            }
+            return CompletableFuture.completedFuture(parseAndValidateFunction.apply(executionInput));
+        }
+
+        // graphql-java only invokes getDocumentAsync, this is required by the interface.
+        @Override
+        @Deprecated
+        public PreparsedDocumentEntry getDocument(ExecutionInput executionInput,
+                                                  Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+            return getDocumentAsync(executionInput, parseAndValidateFunction).join();
+        }
+    }
+
     private static class DefaultGraphQLSource implements GraphQLSource {
 
         private final GraphQLSchema wrappedSchema;
 
         private final GraphQL graphQL;
 
-        DefaultGraphQLSource(GraphQLSchema wrappedSchema, GraphQL graphQL) {
+        private final PersistedQueryRegistry persistedQueryRegistry;
+
+        DefaultGraphQLSource(GraphQLSchema wrappedSchema, GraphQL graphQL, PersistedQueryRegistry persistedQueryRegistry) {
             this.wrappedSchema = wrappedSchema;
             this.graphQL = graphQL;
-
+            this.persistedQueryRegistry = persistedQueryRegistry;
         }
 
         @Override
@@ -138,6 +180,11 @@ public class DefaultGraphQLSourceBuilder implements GraphQLSource.Builder {
         public GraphQL getGraphQL() {
             return graphQL;
         }
+
+        @Override
+        public PersistedQueryRegistry getPersistedQueryRegistry() {
+            return persistedQueryRegistry;
+        }
     }
 
 }
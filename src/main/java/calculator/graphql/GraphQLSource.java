@@ -34,6 +34,16 @@ public interface GraphQLSource {
 
     GraphQL getGraphQL();
 
+    /**
+     * Registry of the queries which could be executed by id,
+     * the queries registered are validated and parsed only once.
+     *
+     * @return persisted query registry, or null if persisted query is not supported by the source
+     */
+    default PersistedQueryRegistry getPersistedQueryRegistry() {
+        return null;
+    }
+
     static Builder newGraphQLSource(){
         return new DefaultGraphQLSourceBuilder();
     }
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.graphql;
+
+import calculator.engine.ExecutionPlan;
+import calculator.engine.annotation.PublicApi;
+import graphql.language.Document;
+
+import java.util.Objects;
+
+/**
+ * The query registered in {@link PersistedQueryRegistry}, which has been validated
+ * and parsed to execution plan when it was registered.
+ */
+@PublicApi
+public class PersistedQuery {
+
+    private final String queryId;
+
+    private final String query;
+
+    private final ExecutionPlan executionPlan;
+
+    PersistedQuery(String queryId, String query, ExecutionPlan executionPlan) {
+        this.queryId = Objects.requireNonNull(queryId);
+        this.query = Objects.requireNonNull(query);
+        this.executionPlan = Objects.requireNonNull(executionPlan);
+    }
+
+    public String getQueryId() {
+        return queryId;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public Document getDocument() {
+        return executionPlan.getDocumentEntry().getDocument();
+    }
+
+    ExecutionPlan getExecutionPlan() {
+        return executionPlan;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.graphql;
+
+import calculator.config.Config;
+import calculator.engine.ExecutionPlan;
+import calculator.engine.annotation.PublicApi;
+import calculator.engine.metadata.CustomDirective;
+import calculator.exception.PersistedQueryException;
+import calculator.validation.Validator;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQL;
+import graphql.GraphqlErrorBuilder;
+import graphql.ParseAndValidateResult;
+import graphql.schema.GraphQLSchema;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static calculator.common.CommonUtil.sha256Hex;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Registry of the queries allowed to be executed by id.
+ *
+ * <p>The query is validated, parsed and analyzed when it was registered,
+ * then the execution by id will reuse the document and the execution plan
+ * instead of parsing and validating the query text again.
+ */
+@PublicApi
+public class PersistedQueryRegistry {
+
+    private final GraphQLSchema wrappedSchema;
+
+    private final Config wrapperConfig;
+
+    private final ConcurrentHashMap<String, PersistedQuery> queryById = new ConcurrentHashMap<>();
+
+    private volatile GraphQL graphQL;
+
+    PersistedQueryRegistry(GraphQLSchema wrappedSchema, Config wrapperConfig) {
+        this.wrappedSchema = Objects.requireNonNull(wrappedSchema);
+        this.wrapperConfig = Objects.requireNonNull(wrapperConfig);
+    }
+
+    void setGraphQL(GraphQL graphQL) {
+        this.graphQL = graphQL;
+    }
+
+    /**
+     * Register query with the SHA-256 hex of query text as id,
+     * so the same query text always get the same id.
+     *
+     * @param query query text
+     * @return id of the query
+     * @throws PersistedQueryException if query is invalid
+     */
+    public String register(String query) {
+        String queryId = sha256Hex(query);
+        register(queryId, query);
+        return queryId;
+    }
+
+    /**
+     * Register query with the given id, the query registered by the same id will be replaced.
+     *
+     * @param queryId id of the query
+     * @param query   query text
+     * @return the registered query
+     * @throws PersistedQueryException if query is invalid
+     */
+    public PersistedQuery register(String queryId, String query) {
+        Objects.requireNonNull(queryId, "queryId can not be null.");
+        Objects.requireNonNull(query, "query can not be null.");
+
+        // the scripts is compiled and cached by script evaluator during validation.
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, wrappedSchema, wrapperConfig);
+        if (validateResult.isFailure()) {
+            throw new PersistedQueryException(
+                    String.format("invalid query for id %s: %s", queryId, validateResult.getErrors()),
+                    validateResult.getErrors()
+            );
+        }
+
+        Set<String> customDirectiveNames = wrapperConfig.getCustomDirectives().stream().map(CustomDirective::getName).collect(toSet());
+        ExecutionPlan executionPlan = ExecutionPlan.newExecutionPlan(wrappedSchema, validateResult.getDocument(), customDirectiveNames);
+        PersistedQuery persistedQuery = new PersistedQuery(queryId, query, executionPlan);
+        queryById.put(queryId, persistedQuery);
+        return persistedQuery;
+    }
+
+    public PersistedQuery getPersistedQuery(String queryId) {
+        return queryById.get(queryId);
+    }
+
+    public boolean unregister(String queryId) {
+        return queryById.remove(queryId) != null;
+    }
+
+    public ExecutionResult execute(String queryId, Map<String, Object> variables) {
+        return executeAsync(queryId, null, variables).join();
+    }
+
+    public ExecutionResult execute(String queryId, String operationName, Map<String, Object> variables) {
+        return executeAsync(queryId, operationName, variables).join();
+    }
+
+    public ExecutionResult execute(String queryId, Consumer<ExecutionInput.Builder> inputCustomizer) {
+        return executeAsync(queryId, inputCustomizer).join();
+    }
+
+    public CompletableFuture<ExecutionResult> executeAsync(String queryId, Map<String, Object> variables) {
+        return executeAsync(queryId, null, variables);
+    }
+
+    public CompletableFuture<ExecutionResult> executeAsync(String queryId, String operationName, Map<String, Object> variables) {
+        return executeAsync(queryId, builder -> builder
+                .operationName(operationName)
+                .variables(variables == null ? Collections.emptyMap() : variables)
+        );
+    }
+
+    /**
+     * Execute the persisted query with the input customized by caller, e.g. variables, context,
+     * {@code DataLoaderRegistry}, local context and root object. The query of input is always
+     * the registered query text, so it should not be set by the customizer.
+     *
+     * @param queryId         id of the query
+     * @param inputCustomizer customize the execution input
+     * @return the result of execution
+     */
+    public CompletableFuture<ExecutionResult> executeAsync(String queryId, Consumer<ExecutionInput.Builder> inputCustomizer) {
+        Objects.requireNonNull(inputCustomizer, "inputCustomizer can not be null.");
+        PersistedQuery persistedQuery = queryById.get(queryId);
+        if (persistedQuery == null) {
+            ExecutionResult notFoundResult = ExecutionResultImpl.newExecutionResult()
+                    .addError(GraphqlErrorBuilder.newError().message("persisted query not found: %s", queryId).build())
+                    .build();
+            return CompletableFuture.completedFuture(notFoundResult);
+        }
+
+        ExecutionInput.Builder inputBuilder = ExecutionInput.newExecutionInput();
+        inputCustomizer.accept(inputBuilder);
+        ExecutionInput executionInput = inputBuilder.query(persistedQuery.getQuery()).build();
+        executionInput.getGraphQLContext().put(PersistedQuery.class, persistedQuery);
+        executionInput.getGraphQLContext().put(ExecutionPlan.class, persistedQuery.getExecutionPlan());
+        return graphQL.executeAsync(executionInput);
+    }
+}
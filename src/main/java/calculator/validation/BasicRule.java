@@ -20,6 +20,7 @@ import calculator.engine.annotation.Internal;
 import calculator.engine.metadata.Directives;
 import calculator.engine.script.ScriptEvaluator;
 import calculator.engine.script.ValidateInfo;
+import calculator.validation.SourceRule.DirectiveWithField;
 import graphql.analysis.QueryVisitorFieldEnvironment;
 import graphql.analysis.QueryVisitorFragmentSpreadEnvironment;
 import graphql.analysis.QueryVisitorInlineFragmentEnvironment;
@@ -33,6 +34,7 @@ import graphql.schema.GraphQLTypeUtil;
 import graphql.util.TraverserContext;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +43,7 @@ import java.util.Set;
 
 import static calculator.common.CommonUtil.getArgumentFromDirective;
 import static calculator.common.CommonUtil.getDependencySources;
+import static calculator.common.CommonUtil.getListArgumentFromDirective;
 import static calculator.common.CommonUtil.isValidEleName;
 import static calculator.common.CommonUtil.parseValue;
 import static calculator.common.GraphQLUtil.getTopTaskEnv;
@@ -48,15 +51,21 @@ import static calculator.common.GraphQLUtil.isLeafField;
 import static calculator.common.GraphQLUtil.parentPathSet;
 import static calculator.common.GraphQLUtil.pathForTraverse;
 import static calculator.engine.metadata.Directives.ARGUMENT_TRANSFORM;
+import static calculator.engine.metadata.Directives.COUNT;
 import static calculator.engine.metadata.Directives.DISTINCT;
 import static calculator.engine.metadata.Directives.FETCH_SOURCE;
 import static calculator.engine.metadata.Directives.FILTER;
+import static calculator.engine.metadata.Directives.GROUP_BY;
 import static calculator.engine.metadata.Directives.INCLUDE_BY;
+import static calculator.engine.metadata.Directives.JOIN;
 import static calculator.engine.metadata.Directives.MAP;
+import static calculator.engine.metadata.Directives.MAX;
+import static calculator.engine.metadata.Directives.MIN;
 import static calculator.engine.metadata.Directives.MOCK;
 import static calculator.engine.metadata.Directives.SKIP_BY;
 import static calculator.engine.metadata.Directives.SORT;
 import static calculator.engine.metadata.Directives.SORT_BY;
+import static calculator.engine.metadata.Directives.SUM;
 import static calculator.validation.CalculatorSchemaValidationErrorType.InvalidExpression;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.toSet;
@@ -65,7 +74,7 @@ import static java.util.stream.Collectors.toSet;
 @Internal
 public class BasicRule extends AbstractRule {
 
-    private final ScriptEvaluator scriptEvaluator;
+    private final ValidatedScripts validatedScripts;
 
     // <sourceName, annotatedField>
     private final Map<String, String> sourceWithAnnotatedField = new LinkedHashMap<>();
@@ -79,8 +88,15 @@ public class BasicRule extends AbstractRule {
     // <fieldFullPath, List<ancestorNode>>
     private final Map<String, Set<String>> fieldWithAncestorPath = new LinkedHashMap<>();
 
+    // directives which may use dependency sources, in the order of traversing
+    private final List<DirectiveWithField> directiveWithSources = new ArrayList<>();
+
     public BasicRule(ScriptEvaluator scriptEvaluator) {
-        this.scriptEvaluator = Objects.requireNonNull(scriptEvaluator);
+        this(new ValidatedScripts(scriptEvaluator));
+    }
+
+    BasicRule(ValidatedScripts validatedScripts) {
+        this.validatedScripts = Objects.requireNonNull(validatedScripts);
     }
 
 
@@ -100,6 +116,10 @@ public class BasicRule extends AbstractRule {
         return fieldWithAncestorPath;
     }
 
+    List<DirectiveWithField> getDirectiveWithSources() {
+        return directiveWithSources;
+    }
+
     @Override
     public void visitField(QueryVisitorFieldEnvironment environment) {
         if (environment.getTraverserContext().getPhase() != TraverserContext.Phase.ENTER) {
@@ -116,6 +136,8 @@ public class BasicRule extends AbstractRule {
             String directiveName = directive.getName();
 
             if (Objects.equals(directiveName, SKIP_BY.getName())) {
+                directiveWithSources.add(new DirectiveWithField(fieldFullPath, directive));
+
                 String predicate = (String) parseValue(
                         directive.getArgument("predicate").getValue()
                 );
@@ -126,7 +148,7 @@ public class BasicRule extends AbstractRule {
                     continue;
                 }
 
-                ValidateInfo validateInfo = scriptEvaluator.isValidScript(predicate);
+                ValidateInfo validateInfo = validatedScripts.isValidScript(predicate);
                 if (!validateInfo.isValidScript()) {
                     String errorMsg = String.format("invalid expression '%s' for @skipBy on {%s}: %s",
                             predicate, fieldFullPath, validateInfo.getErrorMsg()
@@ -140,6 +162,8 @@ public class BasicRule extends AbstractRule {
                 fieldWithAncestorPath.put(fieldFullPath,parentPathSet(environment));
 
             } else if (Objects.equals(directiveName, INCLUDE_BY.getName())) {
+                directiveWithSources.add(new DirectiveWithField(fieldFullPath, directive));
+
                 String predicate = (String) parseValue(
                         directive.getArgument("predicate").getValue()
                 );
@@ -150,7 +174,7 @@ public class BasicRule extends AbstractRule {
                     continue;
                 }
 
-                ValidateInfo validateInfo = scriptEvaluator.isValidScript(predicate);
+                ValidateInfo validateInfo = validatedScripts.isValidScript(predicate);
                 if (!validateInfo.isValidScript()) {
                     String errorMsg = String.format("invalid expression '%s' for @includeBy on {%s}: %s",
                             predicate, fieldFullPath, validateInfo.getErrorMsg());
@@ -185,7 +209,7 @@ public class BasicRule extends AbstractRule {
                     continue;
                 }
 
-                ValidateInfo validateInfo = scriptEvaluator.isValidScript(predicate);
+                ValidateInfo validateInfo = validatedScripts.isValidScript(predicate);
                 if (!validateInfo.isValidScript()) {
                     String errorMsg = String.format("invalid predicate '%s' for @filter on {%s}: %s",
                             predicate, fieldFullPath, validateInfo.getErrorMsg()
@@ -215,36 +239,56 @@ public class BasicRule extends AbstractRule {
                     continue;
                 }
 
-                String key = (String) parseValue(
-                        directive.getArgument("key").getValue()
-                );
-                if (key == null || key.isEmpty()) {
-                    String errorMsg = String.format("sort key used on {%s} can not be null.", fieldFullPath);
-                    addValidError(InvalidExpression, location, errorMsg);
+                List<String> keys = getSortKeys(directive, "key", "keys", fieldFullPath, location);
+                if (keys == null) {
                     continue;
                 }
 
-                boolean validKey = environment.getField().getSelectionSet().getSelections().stream()
-                        .map(selection -> ((Field) selection).getResultKey())
-                        .anyMatch(key::equals);
+                boolean validKeys = true;
+                for (String key : keys) {
+                    if (key == null || key.isEmpty()) {
+                        String errorMsg = String.format("sort key used on {%s} can not be null.", fieldFullPath);
+                        addValidError(InvalidExpression, location, errorMsg);
+                        validKeys = false;
+                        break;
+                    }
 
-                if (!validKey) {
-                    String errorMsg = String.format("non-exist key name '%s' for @sort on {%s}.", key, fieldFullPath);
-                    addValidError(InvalidExpression, location, errorMsg);
+                    boolean validKey = environment.getField().getSelectionSet().getSelections().stream()
+                            .map(selection -> ((Field) selection).getResultKey())
+                            .anyMatch(key::equals);
+
+                    if (!validKey) {
+                        String errorMsg = String.format("non-exist key name '%s' for @sort on {%s}.", key, fieldFullPath);
+                        addValidError(InvalidExpression, location, errorMsg);
+                        validKeys = false;
+                        break;
+                    }
+                }
+                if (!validKeys) {
                     continue;
                 }
 
+                validateSortReversed(directive, keys.size(), fieldFullPath, location);
+
             } else if (Objects.equals(directiveName, SORT_BY.getName())) {
-                String comparator = (String) parseValue(
-                        directive.getArgument("comparator").getValue()
-                );
+                List<String> comparators = getSortKeys(directive, "comparator", "comparators", fieldFullPath, location);
+                if (comparators == null) {
+                    continue;
+                }
 
-                ValidateInfo validateInfo = scriptEvaluator.isValidScript(comparator);
-                if (!validateInfo.isValidScript()) {
-                    String errorMsg = String.format("invalid comparator '%s' for @skipBy on {%s}: %s",
-                            comparator, fieldFullPath, validateInfo.getErrorMsg()
-                    );
-                    addValidError(InvalidExpression, location, errorMsg);
+                boolean validComparators = true;
+                for (String comparator : comparators) {
+                    ValidateInfo validateInfo = validatedScripts.isValidScript(comparator);
+                    if (!validateInfo.isValidScript()) {
+                        String errorMsg = String.format("invalid comparator '%s' for @skipBy on {%s}: %s",
+                                comparator, fieldFullPath, validateInfo.getErrorMsg()
+                        );
+                        addValidError(InvalidExpression, location, errorMsg);
+                        validComparators = false;
+                        break;
+                    }
+                }
+                if (!validComparators) {
                     continue;
                 }
 
@@ -259,7 +303,18 @@ public class BasicRule extends AbstractRule {
                     continue;
                 }
 
-                if (!validateExpressionArgumentExist(environment.getField(), directive, comparator, fieldFullPath,environment)) {
+                boolean existArguments = true;
+                for (String comparator : comparators) {
+                    if (!validateExpressionArgumentExist(environment.getField(), directive, comparator, fieldFullPath, environment)) {
+                        existArguments = false;
+                        break;
+                    }
+                }
+                if (!existArguments) {
+                    continue;
+                }
+
+                if (!validateSortReversed(directive, comparators.size(), fieldFullPath, location)) {
                     continue;
                 }
 
@@ -274,7 +329,7 @@ public class BasicRule extends AbstractRule {
 
 
                 if (comparator != null) {
-                    ValidateInfo validateInfo = scriptEvaluator.isValidScript(comparator);
+                    ValidateInfo validateInfo = validatedScripts.isValidScript(comparator);
                     if (!validateInfo.isValidScript()) {
                         String errorMsg = String.format("invalid comparator '%s' for @distinct on {%s}: %s",
                                 comparator, fieldFullPath, validateInfo.getErrorMsg()
@@ -303,10 +358,11 @@ public class BasicRule extends AbstractRule {
                 fieldWithAncestorPath.put(fieldFullPath,parentPathSet(environment));
 
             } else if (Objects.equals(directiveName, MAP.getName())) {
+                directiveWithSources.add(new DirectiveWithField(fieldFullPath, directive));
 
                 String mapper = getArgumentFromDirective(directive, "mapper");
 
-                ValidateInfo validateInfo = scriptEvaluator.isValidScript(mapper);
+                ValidateInfo validateInfo = validatedScripts.isValidScript(mapper);
                 if (!validateInfo.isValidScript()) {
                     String errorMsg = String.format("invalid mapper '%s' for @map on {%s}: %s",
                             mapper, fieldFullPath, validateInfo.getErrorMsg()
@@ -320,6 +376,7 @@ public class BasicRule extends AbstractRule {
                 fieldWithAncestorPath.put(fieldFullPath,parentPathSet(environment));
 
             } else if (Objects.equals(directiveName, ARGUMENT_TRANSFORM.getName())) {
+                directiveWithSources.add(new DirectiveWithField(fieldFullPath, directive));
 
                 String argumentName = getArgumentFromDirective(directive, "argumentName");
                 // argument必须存在
@@ -332,7 +389,7 @@ public class BasicRule extends AbstractRule {
                 }
 
                 String expression = getArgumentFromDirective(directive, "expression");
-                ValidateInfo validateInfo = scriptEvaluator.isValidScript(expression);
+                ValidateInfo validateInfo = validatedScripts.isValidScript(expression);
                 if (!validateInfo.isValidScript()) {
                     String errorMsg = String.format("invalid expression '%s' for @argumentTransform on {%s}: %s",
                             expression, fieldFullPath, validateInfo.getErrorMsg()
@@ -359,6 +416,33 @@ public class BasicRule extends AbstractRule {
                 checkAndSetSourceUsedByFieldInfo(fieldFullPath,directive);
                 fieldWithAncestorPath.put(fieldFullPath,parentPathSet(environment));
 
+            } else if (Objects.equals(directiveName, COUNT.getName())
+                    || Objects.equals(directiveName, SUM.getName())
+                    || Objects.equals(directiveName, MIN.getName())
+                    || Objects.equals(directiveName, MAX.getName())
+                    || Objects.equals(directiveName, GROUP_BY.getName())
+                    || Objects.equals(directiveName, JOIN.getName())) {
+                directiveWithSources.add(new DirectiveWithField(fieldFullPath, directive));
+
+                // the missing required argument is reported by graphql validation.
+                Argument sourceArgument = directive.getArgument("dependencySources");
+                if (sourceArgument == null) {
+                    continue;
+                }
+
+                List<String> dependencySources = getDependencySources(sourceArgument.getValue());
+                if (dependencySources.size() != 1) {
+                    String errorMsg = String.format("only one dependency source can be used by @%s on {%s}.",
+                            directiveName, fieldFullPath
+                    );
+                    addValidError(InvalidExpression, location, errorMsg);
+                    continue;
+                }
+
+                checkAndSetFieldWithTopTask(fieldFullPath, directive, environment);
+                checkAndSetSourceUsedByFieldInfo(fieldFullPath,directive);
+                fieldWithAncestorPath.put(fieldFullPath,parentPathSet(environment));
+
             } else if (Objects.equals(directiveName, FETCH_SOURCE.getName())) {
                 String sourceName = (String) parseValue(
                         directive.getArgument("name").getValue()
@@ -380,7 +464,7 @@ public class BasicRule extends AbstractRule {
 
                 String sourceConvert = getArgumentFromDirective(directive, "sourceConvert");
                 if (sourceConvert != null) {
-                    ValidateInfo validateInfo = scriptEvaluator.isValidScript(sourceConvert);
+                    ValidateInfo validateInfo = validatedScripts.isValidScript(sourceConvert);
                     if (!validateInfo.isValidScript()) {
                         String errorMsg = String.format("invalid sourceConvert '%s' for @fetchSource on {%s}: %s",
                                 sourceConvert, fieldFullPath, validateInfo.getErrorMsg()
@@ -389,7 +473,7 @@ public class BasicRule extends AbstractRule {
                         continue;
                     }
 
-                    List<String> scriptArgument = scriptEvaluator.getScriptArgument(sourceConvert);
+                    List<String> scriptArgument = validatedScripts.getScriptArgument(sourceConvert);
                     if (scriptArgument != null && !scriptArgument.isEmpty()) {
                         if (scriptArgument.size() != 1 || !Objects.equals(scriptArgument.get(0), environment.getField().getResultKey())) {
                             String errorMsg = String.format("only resultKey '%s' can be used for the 'sourceConvert' of @%s on {%s}.",
@@ -437,17 +521,58 @@ public class BasicRule extends AbstractRule {
         }
     }
 
+    /**
+     * Get the sort keys of @sort/@sortBy, exactly one of the single key and the key list can be used.
+     *
+     * @return the sort keys, or null if the arguments are invalid
+     */
+    private List<String> getSortKeys(Directive directive, String keyName, String keysName, String fieldFullPath, SourceLocation location) {
+        Argument keyArgument = directive.getArgument(keyName);
+        Argument keysArgument = directive.getArgument(keysName);
+        if ((keyArgument == null) == (keysArgument == null)) {
+            String errorMsg = String.format("exactly one of '%s' and '%s' can be used by @%s on {%s}.",
+                    keyName, keysName, directive.getName(), fieldFullPath
+            );
+            addValidError(InvalidExpression, location, errorMsg);
+            return null;
+        }
+
+        if (keyArgument != null) {
+            return Collections.singletonList((String) parseValue(keyArgument.getValue()));
+        }
+
+        List<String> keys = getListArgumentFromDirective(directive, keysName);
+        if (keys.isEmpty()) {
+            String errorMsg = String.format("'%s' used by @%s on {%s} can not be empty.", keysName, directive.getName(), fieldFullPath);
+            addValidError(InvalidExpression, location, errorMsg);
+            return null;
+        }
+        return keys;
+    }
+
+    private boolean validateSortReversed(Directive directive, int keyCount, String fieldFullPath, SourceLocation location) {
+        List<Boolean> reversed = getListArgumentFromDirective(directive, "reversed");
+        if (reversed != null && reversed.size() != 1 && reversed.size() != keyCount) {
+            String errorMsg = String.format("the size of 'reversed' used by @%s on {%s} must be 1 or the count of keys.",
+                    directive.getName(), fieldFullPath
+            );
+            addValidError(InvalidExpression, location, errorMsg);
+            return false;
+        }
+        return true;
+    }
+
     private boolean validateExpressionArgumentExist(Field field, Directive directive, String expression, String fieldFullPath, QueryVisitorFieldEnvironment environment) {
 
         if (isLeafField(environment.getFieldDefinition())) {
-            List<String> scriptArgument = scriptEvaluator.getScriptArgument(expression);
+            List<String> scriptArgument = validatedScripts.getScriptArgument(expression);
             if (scriptArgument == null || scriptArgument.size() != 1 || !Objects.equals(scriptArgument.get(0), "ele")) {
                 String errorMsg = String.format("only 'ele' can be used for @%s on leaf field {%s}.", directive.getName(), fieldFullPath);
                 addValidError(InvalidExpression,field.getSourceLocation(), errorMsg);
                 return false;
             }
         } else {
-            List<String> scriptArgument = scriptEvaluator.getScriptArgument(expression);
+            List<String> scriptArgument = validatedScripts.getScriptArgument(expression);
             if (scriptArgument != null && !scriptArgument.isEmpty()) {
                 for (String argument : scriptArgument) {
                     boolean validKey = field.getSelectionSet().getSelections().stream()
@@ -39,9 +39,15 @@ import java.util.stream.Collectors;
 import static calculator.common.CommonUtil.getDependenceSourceFromDirective;
 import static calculator.common.GraphQLUtil.pathForTraverse;
 import static calculator.engine.metadata.Directives.ARGUMENT_TRANSFORM;
+import static calculator.engine.metadata.Directives.COUNT;
+import static calculator.engine.metadata.Directives.GROUP_BY;
 import static calculator.engine.metadata.Directives.INCLUDE_BY;
+import static calculator.engine.metadata.Directives.JOIN;
 import static calculator.engine.metadata.Directives.MAP;
+import static calculator.engine.metadata.Directives.MAX;
+import static calculator.engine.metadata.Directives.MIN;
 import static calculator.engine.metadata.Directives.SKIP_BY;
+import static calculator.engine.metadata.Directives.SUM;
 import static calculator.validation.CalculatorSchemaValidationErrorType.InvalidDependenceSource;
 import static java.lang.String.format;
 
@@ -55,7 +61,7 @@ public class SourceRule extends AbstractRule {
 
     private final List<String> variableNames;
 
-    private final ScriptEvaluator scriptEvaluator;
+    private final ValidatedScripts validatedScripts;
 
     // <sourceName, annotatedFieldFullPath>
     private final Map<String, String> sourceWithAnnotatedField;
@@ -79,8 +85,20 @@ public class SourceRule extends AbstractRule {
             Map<String, String> fieldWithTopTask,
             Map<String, List<String>> sourceUsedByField,
             Map<String, Set<String>> fieldWithAncestorPath) {
+        this(variableNames, new ValidatedScripts(scriptEvaluator), sourceWithAnnotatedField,
+                fieldWithTopTask, sourceUsedByField, fieldWithAncestorPath
+        );
+    }
+
+    SourceRule(
+            List<String> variableNames,
+            ValidatedScripts validatedScripts,
+            Map<String, String> sourceWithAnnotatedField,
+            Map<String, String> fieldWithTopTask,
+            Map<String, List<String>> sourceUsedByField,
+            Map<String, Set<String>> fieldWithAncestorPath) {
         this.variableNames = variableNames;
-        this.scriptEvaluator = Objects.requireNonNull(scriptEvaluator);
+        this.validatedScripts = Objects.requireNonNull(validatedScripts);
         this.sourceWithAnnotatedField = sourceWithAnnotatedField;
         this.fieldWithTopTask = fieldWithTopTask;
         this.sourceUsedByField = sourceUsedByField;
@@ -107,115 +125,148 @@ public class SourceRule extends AbstractRule {
         String fieldFullPath = pathForTraverse(environment);
 
         for (Directive directive : directives) {
+            validateDirective(fieldFullPath, directive);
+        }
+    }
 
-            if (Objects.equals(directive.getName(), SKIP_BY.getName())) {
+    /**
+     * Validate the directives recorded by {@link BasicRule}, which is in the same order as traversing.
+     *
+     * @param directiveWithFields the directives using dependency sources and the path of annotated field
+     */
+    void validate(List<DirectiveWithField> directiveWithFields) {
+        for (DirectiveWithField directiveWithField : directiveWithFields) {
+            validateDirective(directiveWithField.getFieldFullPath(), directiveWithField.getDirective());
+        }
+    }
 
-                List<String> dependencySources = getDependenceSourceFromDirective(directive);
-                if (dependencySources == null || dependencySources.isEmpty()) {
-                    continue;
-                }
+    private void validateDirective(String fieldFullPath, Directive directive) {
+        if (Objects.equals(directive.getName(), SKIP_BY.getName())) {
 
-                if (!validateSourceExist(fieldFullPath, directive, dependencySources)) {
-                    continue;
-                }
+            List<String> dependencySources = getDependenceSourceFromDirective(directive);
+            if (dependencySources == null || dependencySources.isEmpty()) {
+                return;
+            }
 
-                String predicate = (String) CommonUtil.parseValue(
-                        directive.getArgument("predicate").getValue()
-                );
-                if (!validateSourceUsageOnExp(fieldFullPath, directive, dependencySources, predicate)) {
-                    continue;
-                }
+            if (!validateSourceExist(fieldFullPath, directive, dependencySources)) {
+                return;
+            }
 
-                if (!validateNodeNameNotSameWithVariable(fieldFullPath, directive, dependencySources)) {
-                    continue;
-                }
+            String predicate = (String) CommonUtil.parseValue(
+                    directive.getArgument("predicate").getValue()
+            );
+            if (!validateSourceUsageOnExp(fieldFullPath, directive, dependencySources, predicate)) {
+                return;
+            }
 
-                // circular check
-                if (circularReferenceCheck(directive.getSourceLocation(), fieldFullPath, dependencySources)) {
-                    continue;
-                }
-                
-            }else if (Objects.equals(directive.getName(), INCLUDE_BY.getName())) {
+            if (!validateNodeNameNotSameWithVariable(fieldFullPath, directive, dependencySources)) {
+                return;
+            }
 
-                List<String> dependencySources = getDependenceSourceFromDirective(directive);
-                if (dependencySources == null || dependencySources.isEmpty()) {
-                    continue;
-                }
+            // circular check
+            if (circularReferenceCheck(directive.getSourceLocation(), fieldFullPath, dependencySources)) {
+                return;
+            }
+            
+        }else if (Objects.equals(directive.getName(), INCLUDE_BY.getName())) {
 
-                if (!validateSourceExist(fieldFullPath, directive, dependencySources)) {
-                    continue;
-                }
+            List<String> dependencySources = getDependenceSourceFromDirective(directive);
+            if (dependencySources == null || dependencySources.isEmpty()) {
+                return;
+            }
 
-                String predicate = (String) CommonUtil.parseValue(
-                        directive.getArgument("predicate").getValue()
-                );
-                if (!validateSourceUsageOnExp(fieldFullPath, directive, dependencySources, predicate)) {
-                    continue;
-                }
+            if (!validateSourceExist(fieldFullPath, directive, dependencySources)) {
+                return;
+            }
 
-                if (!validateNodeNameNotSameWithVariable(fieldFullPath, directive, dependencySources)) {
-                    continue;
-                }
+            String predicate = (String) CommonUtil.parseValue(
+                    directive.getArgument("predicate").getValue()
+            );
+            if (!validateSourceUsageOnExp(fieldFullPath, directive, dependencySources, predicate)) {
+                return;
+            }
 
-                // circular check
-                if (circularReferenceCheck(directive.getSourceLocation(), fieldFullPath, dependencySources)) {
-                    continue;
-                }
+            if (!validateNodeNameNotSameWithVariable(fieldFullPath, directive, dependencySources)) {
+                return;
+            }
 
-            } else if (Objects.equals(directive.getName(), MAP.getName())) {
+            // circular check
+            if (circularReferenceCheck(directive.getSourceLocation(), fieldFullPath, dependencySources)) {
+                return;
+            }
 
-                List<String> dependencySources = getDependenceSourceFromDirective(directive);
-                if (dependencySources == null || dependencySources.isEmpty()) {
-                    continue;
-                }
+        } else if (Objects.equals(directive.getName(), MAP.getName())) {
 
-                if (!validateSourceExist(fieldFullPath, directive, dependencySources)) {
-                    continue;
-                }
+            List<String> dependencySources = getDependenceSourceFromDirective(directive);
+            if (dependencySources == null || dependencySources.isEmpty()) {
+                return;
+            }
 
-                String mapper = (String) CommonUtil.parseValue(
-                        directive.getArgument("mapper").getValue()
-                );
-                if (!validateSourceUsageOnExp(fieldFullPath, directive, dependencySources, mapper)) {
-                    continue;
-                }
+            if (!validateSourceExist(fieldFullPath, directive, dependencySources)) {
+                return;
+            }
 
-                // circular check
-                if (circularReferenceCheck(directive.getSourceLocation(), fieldFullPath, dependencySources)) {
-                    continue;
-                }
+            String mapper = (String) CommonUtil.parseValue(
+                    directive.getArgument("mapper").getValue()
+            );
+            if (!validateSourceUsageOnExp(fieldFullPath, directive, dependencySources, mapper)) {
+                return;
+            }
 
-            } else if (Objects.equals(directive.getName(), ARGUMENT_TRANSFORM.getName())) {
+            // circular check
+            if (circularReferenceCheck(directive.getSourceLocation(), fieldFullPath, dependencySources)) {
+                return;
+            }
 
-                List<String> dependencySources = getDependenceSourceFromDirective(directive);
-                if (dependencySources == null || dependencySources.isEmpty()) {
-                    continue;
-                }
+        } else if (Objects.equals(directive.getName(), COUNT.getName())
+                || Objects.equals(directive.getName(), SUM.getName())
+                || Objects.equals(directive.getName(), MIN.getName())
+                || Objects.equals(directive.getName(), MAX.getName())
+                || Objects.equals(directive.getName(), GROUP_BY.getName())
+                || Objects.equals(directive.getName(), JOIN.getName())) {
 
-                if (!validateSourceExist(fieldFullPath, directive, dependencySources)) {
-                    continue;
-                }
+            List<String> dependencySources = getDependenceSourceFromDirective(directive);
+            if (dependencySources == null || dependencySources.isEmpty()) {
+                return;
+            }
 
-                String expression = (String) CommonUtil.parseValue(
-                        directive.getArgument("expression").getValue()
-                );
-                if (!validateSourceUsageOnExp(fieldFullPath, directive, dependencySources, expression)) {
-                    continue;
-                }
+            if (!validateSourceExist(fieldFullPath, directive, dependencySources)) {
+                return;
+            }
 
-                if (!validateNodeNameNotSameWithVariable(fieldFullPath, directive, dependencySources)) {
-                    continue;
-                }
+            // circular check
+            if (circularReferenceCheck(directive.getSourceLocation(), fieldFullPath, dependencySources)) {
+                return;
+            }
 
-                // circular check
-                if (circularReferenceCheck(directive.getSourceLocation(), fieldFullPath, dependencySources)) {
-                    continue;
-                }
+        } else if (Objects.equals(directive.getName(), ARGUMENT_TRANSFORM.getName())) {
 
+            List<String> dependencySources = getDependenceSourceFromDirective(directive);
+            if (dependencySources == null || dependencySources.isEmpty()) {
+                return;
             }
 
-        }
+            if (!validateSourceExist(fieldFullPath, directive, dependencySources)) {
+                return;
+            }
+
+            String expression = (String) CommonUtil.parseValue(
+                    directive.getArgument("expression").getValue()
+            );
+            if (!validateSourceUsageOnExp(fieldFullPath, directive, dependencySources, expression)) {
+                return;
+            }
+
+            if (!validateNodeNameNotSameWithVariable(fieldFullPath, directive, dependencySources)) {
+                return;
+            }
+
+            // circular check
+            if (circularReferenceCheck(directive.getSourceLocation(), fieldFullPath, dependencySources)) {
+                return;
+            }
 
+        }
     }
 
     @Override
@@ -267,7 +318,7 @@ public class SourceRule extends AbstractRule {
      * @return true if all dependency sources is used by expression, otherwise false
      */
     private boolean validateSourceUsageOnExp(String fieldFullPath, Directive directive, List<String> dependencySources, String expression) {
-        List<String> arguments = scriptEvaluator.getScriptArgument(expression);
+        List<String> arguments = validatedScripts.getScriptArgument(expression);
         if (!arguments.containsAll(dependencySources)) {
 
             List<String> unUsedSource = dependencySources.stream()
@@ -387,5 +438,26 @@ public class SourceRule extends AbstractRule {
         return false;
     }
 
+    /**
+     * The directive which may use dependency sources, and the path of field annotated by it.
+     */
+    static class DirectiveWithField {
+
+        private final String fieldFullPath;
+
+        private final Directive directive;
+
+        DirectiveWithField(String fieldFullPath, Directive directive) {
+            this.fieldFullPath = fieldFullPath;
+            this.directive = directive;
+        }
 
+        String getFieldFullPath() {
+            return fieldFullPath;
+        }
+
+        Directive getDirective() {
+            return directive;
+        }
+    }
 }
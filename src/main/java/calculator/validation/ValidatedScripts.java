@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.validation;
+
+import calculator.engine.annotation.Internal;
+import calculator.engine.script.CompiledScript;
+import calculator.engine.script.ScriptEvaluator;
+import calculator.engine.script.ValidateInfo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The scripts validated during the validation of one query,
+ * so that each script is compiled only once and shared by all rules.
+ */
+@Internal
+class ValidatedScripts {
+
+    private final ScriptEvaluator scriptEvaluator;
+
+    private final Map<String, ValidateInfo> validateInfoByScript = new HashMap<>();
+
+    ValidatedScripts(ScriptEvaluator scriptEvaluator) {
+        this.scriptEvaluator = Objects.requireNonNull(scriptEvaluator);
+    }
+
+    ValidateInfo isValidScript(String script) {
+        if (script == null) {
+            return scriptEvaluator.isValidScript(null);
+        }
+        return validateInfoByScript.computeIfAbsent(script, scriptEvaluator::isValidScript);
+    }
+
+    List<String> getScriptArgument(String script) {
+        ValidateInfo validateInfo = isValidScript(script);
+        CompiledScript compiledScript = validateInfo.getCompiledScript();
+        if (compiledScript != null) {
+            return compiledScript.getArguments();
+        }
+        return scriptEvaluator.getScriptArgument(script);
+    }
+}
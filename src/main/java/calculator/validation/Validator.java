@@ -25,7 +25,6 @@ import graphql.analysis.QueryTraverser;
 import graphql.language.Document;
 import graphql.language.OperationDefinition;
 import graphql.language.VariableDefinition;
-import graphql.parser.Parser;
 import graphql.schema.GraphQLSchema;
 import graphql.validation.ValidationError;
 
@@ -38,19 +37,27 @@ public class Validator {
 
     public static ParseAndValidateResult validateQuery(String query, GraphQLSchema wrappedSchema, Config wrapperConfig) {
 
+        // the document is parsed only once and shared by graphql validation and calculator validation
         ExecutionInput executionInput = ExecutionInput.newExecutionInput().query(query).build();
-        ParseAndValidateResult origPVResult = ParseAndValidate.parseAndValidate(wrappedSchema, executionInput);
-        if (origPVResult.isFailure()) {
-            return origPVResult;
+        ParseAndValidateResult parseResult = ParseAndValidate.parse(executionInput);
+        if (parseResult.isFailure()) {
+            return parseResult;
+        }
+
+        Document document = parseResult.getDocument();
+        List<ValidationError> graphqlErrors = ParseAndValidate.validate(wrappedSchema, document, executionInput.getLocale());
+        if (!graphqlErrors.isEmpty()) {
+            return parseResult.transform(builder -> builder.validationErrors(graphqlErrors));
         }
 
-        Document document = Parser.parse(query);
         QueryTraverser traverser = QueryTraverser.newQueryTraverser()
                 .schema(wrappedSchema)
                 .document(document)
                 .variables(Collections.emptyMap()).build();
 
-        BasicRule basicRule = new BasicRule(wrapperConfig.getScriptEvaluator());
+        // the script is compiled only once and shared by all rules
+        ValidatedScripts validatedScripts = new ValidatedScripts(wrapperConfig.getScriptEvaluator());
+        BasicRule basicRule = new BasicRule(validatedScripts);
         traverser.visitDepthFirst(basicRule);
         if (!basicRule.getErrors().isEmpty()) {
             return ParseAndValidateResult.newResult().validationErrors(basicRule.getErrors()).build();
@@ -61,15 +68,16 @@ public class Validator {
         List<String> variableNames = operationDefinition.getVariableDefinitions().stream()
                 .map(VariableDefinition::getName).collect(Collectors.toList());
 
+        // check the dependency graph collected by basicRule, instead of traversing the document again
         SourceRule nodeRule = new SourceRule(
                 variableNames,
-                wrapperConfig.getScriptEvaluator(),
+                validatedScripts,
                 basicRule.getSourceWithAnnotatedField(),
                 basicRule.getFieldWithTopTask(),
                 basicRule.getSourceUsedByField(),
                 basicRule.getFieldWithAncestorPath()
         );
-        traverser.visitDepthFirst(nodeRule);
+        nodeRule.validate(basicRule.getDirectiveWithSources());
         // 不用在返回没有使用的节点，因为脏数据可能导致分析不够准确
         if (!nodeRule.getErrors().isEmpty()) {
             return ParseAndValidateResult.newResult().validationErrors(nodeRule.getErrors()).build();
@@ -252,6 +252,37 @@ while parsing expression: `
     }
 
 
+    def "invalid sort keys for @sort"() {
+        given:
+        def query = """
+            query{
+                consumer{
+                    userInfoList(userIds: [1,2,3])
+                    @sort(key: "userId", keys: ["name"])
+                    {
+                        userId
+                        name
+                    }
+                    sortList: userInfoList(userIds: [1,2,3])
+                    @sort(keys: ["userId", "name"], reversed: [true, false, true])
+                    {
+                        userId
+                        name
+                    }
+                }
+            }
+        """
+
+        when:
+        def validateResult = Validator.validateQuery(query, wrappedSchema, wrapperConfig)
+
+        then:
+        validateResult.errors.size() == 2
+        validateResult.errors[0].description == "exactly one of 'key' and 'keys' can be used by @sort on {consumer.userInfoList}."
+        validateResult.errors[1].description == "the size of 'reversed' used by @sort on {consumer.sortList} must be 1 or the count of keys."
+    }
+
+
     def "invalid expression for @sortBy"() {
         given:
         def query = """
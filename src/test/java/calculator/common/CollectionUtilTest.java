@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.common;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class CollectionUtilTest {
+
+    @Test
+    public void primitiveArrayTest() {
+        int[] intArray = {3, 1, 2};
+        assert CollectionUtil.arraySize(intArray) == 3;
+        assert CollectionUtil.arrayToList(intArray).equals(Arrays.asList(3, 1, 2));
+
+        double[] doubleArray = {2.5, -1.0};
+        assert Arrays.equals(CollectionUtil.toObjectArray(doubleArray), new Object[]{2.5, -1.0});
+
+        char[] charArray = {'b', 'a'};
+        assert CollectionUtil.arrayToList(charArray).equals(Arrays.asList('b', 'a'));
+    }
+
+    @Test
+    public void resetListTest() {
+        List<Object> list = new ArrayList<>(Arrays.asList(1, 2, 3));
+        CollectionUtil.resetListOrArray(list, new Object[]{3, 1, 2});
+        assert list.equals(Arrays.asList(3, 1, 2));
+
+        CollectionUtil.resetListOrArray(list, new Object[]{2});
+        assert list.equals(Collections.singletonList(2));
+    }
+
+    @Test
+    public void nonListCollectionTest() {
+        Set<Object> set = new LinkedHashSet<>(Arrays.asList("b", "a"));
+        Object listOrArray = CollectionUtil.collectionToListOrArray(set);
+        assert listOrArray instanceof List;
+        assert listOrArray.equals(Arrays.asList("b", "a"));
+
+        List<Object> list = CollectionUtil.arrayToList(new Object[]{"a", "b"});
+        list.removeIf("a"::equals);
+        assert list.equals(Arrays.asList("b"));
+    }
+}
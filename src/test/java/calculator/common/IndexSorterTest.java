@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.common;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+public class IndexSorterTest {
+
+    @Test
+    public void sortNumericKeysWithNullLast() {
+        Object[] keys = {3, null, 1L, 3, (short) 2, null};
+        assert Arrays.equals(IndexSorter.sortedIndexes(keys, false), new int[]{2, 4, 0, 3, 1, 5});
+        // equal keys keep original order even if reversed.
+        assert Arrays.equals(IndexSorter.sortedIndexes(keys, true), new int[]{0, 3, 4, 2, 1, 5});
+
+        Object[] doubleKeys = {2.5, 1.5f, null, -0.5};
+        assert Arrays.equals(IndexSorter.sortedIndexes(doubleKeys, false), new int[]{3, 1, 0, 2});
+
+        Object[] stringKeys = {"b", null, "a", "c"};
+        assert Arrays.equals(IndexSorter.sortedIndexes(stringKeys, true), new int[]{3, 0, 2, 1});
+    }
+
+    @Test
+    public void sameOrderAsStableSort() {
+        Random random = new Random(42);
+        for (int size : new int[]{0, 1, 15, 16, 17, 100, 1000, 4097}) {
+            Object[] longKeys = new Object[size];
+            Object[] doubleKeys = new Object[size];
+            Object[] objectKeys = new Object[size];
+            for (int i = 0; i < size; i++) {
+                boolean isNull = random.nextInt(10) == 0;
+                longKeys[i] = isNull ? null : (long) random.nextInt(50);
+                doubleKeys[i] = isNull ? null : random.nextInt(50) / 3.0;
+                objectKeys[i] = isNull ? null : String.valueOf(random.nextInt(50));
+            }
+
+            for (Object[] keys : Arrays.asList(longKeys, doubleKeys, objectKeys)) {
+                for (boolean reversed : new boolean[]{false, true}) {
+                    assert Arrays.equals(IndexSorter.sortedIndexes(keys, reversed), expectedIndexes(keys, reversed));
+                }
+            }
+        }
+    }
+
+    private static int[] expectedIndexes(Object[] keys, boolean reversed) {
+        Comparator<Object> comparator = (v1, v2) -> reversed
+                ? ((Comparable<Object>) v2).compareTo(v1)
+                : ((Comparable<Object>) v1).compareTo(v2);
+        Comparator<Object> keyComparator = Comparator.nullsLast(comparator);
+
+        Integer[] indexes = new Integer[keys.length];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = i;
+        }
+        Arrays.sort(indexes, (i1, i2) -> keyComparator.compare(keys[i1], keys[i2]));
+        return Arrays.stream(indexes).mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.common;
+
+import com.googlecode.aviator.AviatorEvaluator;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public class LayeredMapTest {
+
+    @Test
+    public void resolveKeyByLayerPrecedence() {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("userId", 1);
+        variables.put("ele", "variable");
+        Map<String, Object> sourceEnv = new HashMap<>();
+        sourceEnv.put("userId", 2);
+        sourceEnv.put("nullSource", null);
+
+        LayeredMap env = new LayeredMap(3).layer(0, variables).layer(1, "ele", 3).layer(2, sourceEnv);
+        assert Objects.equals(env.get("userId"), 2);
+        assert Objects.equals(env.get("ele"), 3);
+        assert env.containsKey("nullSource");
+        assert env.get("nullSource") == null;
+        assert !env.containsKey("absent");
+        assert env.size() == 3;
+
+        // null layer is an empty layer
+        env.layer(2, null);
+        assert Objects.equals(env.get("userId"), 1);
+        assert !env.containsKey("nullSource");
+    }
+
+    @Test
+    public void scriptAssignmentNotAlterLayers() {
+        Map<String, Object> element = new LinkedHashMap<>();
+        element.put("price", 10);
+
+        LayeredMap env = new LayeredMap(1).layer(0, element);
+        Object result = AviatorEvaluator.execute("price = price * 2; price + 1", env);
+        assert Objects.equals(result, 21L);
+        assert Objects.equals(env.get("price"), 20L);
+        assert Objects.equals(element.get("price"), 10);
+
+        // reused for another element
+        Map<String, Object> another = new LinkedHashMap<>();
+        another.put("price", 5);
+        env.clearWrites().layer(0, another);
+        assert Objects.equals(env.get("price"), 5);
+    }
+}
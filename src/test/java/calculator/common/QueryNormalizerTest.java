@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.common;
+
+import graphql.parser.Parser;
+import org.junit.Test;
+
+import java.util.Objects;
+
+public class QueryNormalizerTest {
+
+    @Test
+    public void normalizeArgumentsAndOperationName() {
+        String query = "" +
+                "query userQuery($b: Int, $a: Int) {\n" +
+                "    # comment\n" +
+                "    consumer {\n" +
+                "        userInfo(userId: $a, clientVersion: \"v1\") @skipBy(predicate: \"a > 1\") { userId }\n" +
+                "        userInfoList(userIds: [1, 2]) { userId }\n" +
+                "    }\n" +
+                "}";
+        String reorderedQuery = "" +
+                "query anotherName($a: Int, $b: Int) {\n" +
+                "    consumer { userInfo(clientVersion: \"v1\", userId: $a) @skipBy(predicate: \"a > 1\") { userId } userInfoList(userIds: [1 2]) { userId } }\n" +
+                "}";
+        String normalizedQuery = QueryNormalizer.normalize(Parser.parse(query), false);
+        assert Objects.equals(normalizedQuery, QueryNormalizer.normalize(Parser.parse(reorderedQuery), false));
+        assert Objects.equals(
+                QueryNormalizer.normalizedHash(Parser.parse(query), false),
+                QueryNormalizer.normalizedHash(Parser.parse(reorderedQuery), false)
+        );
+        assert !normalizedQuery.contains("userQuery");
+
+        // the name of operation is kept if it is used to choose operation
+        assert !Objects.equals(
+                QueryNormalizer.normalize(Parser.parse(query), true),
+                QueryNormalizer.normalize(Parser.parse(reorderedQuery), true)
+        );
+    }
+
+    @Test
+    public void normalizeKeepSelectionOrder() {
+        String query = "query { consumer { userInfo { userId name } } }";
+        String reorderedQuery = "query { consumer { userInfo { name userId } } }";
+        assert !Objects.equals(
+                QueryNormalizer.normalize(Parser.parse(query), false),
+                QueryNormalizer.normalize(Parser.parse(reorderedQuery), false)
+        );
+    }
+
+    @Test
+    public void fingerprint() {
+        String query = "query {\n  consumer { # comment, with comma\n  userInfo(userId: 1, clientVersion: \"a,  b # c\") { userId } }\n}";
+        String formattedQuery = "query{consumer{userInfo(userId:1 clientVersion:\"a,  b # c\"){userId}}}";
+        assert Objects.equals(QueryNormalizer.fingerprint(query), QueryNormalizer.fingerprint(formattedQuery));
+        assert Objects.equals(QueryNormalizer.fingerprint("{ a(b: 1 c: 2) }"), "{a(b:1 c:2)}");
+        assert Objects.equals(QueryNormalizer.fingerprint("{ a(b: \"\"\" x \\\"\"\" \"\"\") }"), "{a(b:\"\"\" x \\\"\"\" \"\"\")}");
+
+        // the string content is significant
+        assert !Objects.equals(QueryNormalizer.fingerprint("{ a(b: \"x y\") }"), QueryNormalizer.fingerprint("{ a(b: \"x  y\") }"));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine;
+
+import graphql.Scalars;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.PropertyDataFetcher;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class DecoratedDataFetcherCacheTest {
+
+    private static final Document document = Document.newDocument().build();
+
+    private static final Field field = Field.newField("name").build();
+
+    private static final GraphQLFieldDefinition fieldDefinition = GraphQLFieldDefinition.newFieldDefinition()
+            .name("name").type(Scalars.GraphQLString).build();
+
+    @Test
+    public void shareStableDataFetcher() {
+        DecoratedDataFetcherCache cache = new DecoratedDataFetcherCache();
+        AtomicInteger decorateCount = new AtomicInteger();
+        Supplier<DataFetcher<?>> decorator = () -> {
+            decorateCount.incrementAndGet();
+            return new ConstantDataFetcher();
+        };
+
+        DataFetcher<?> stableDataFetcher = new ConstantDataFetcher();
+        DecoratedDataFetcherCache firstExecution = cache.copyForExecution();
+        firstExecution.bindDocument(document);
+        DataFetcher<?> decorated = firstExecution.getSharedDataFetcher(document, field, fieldDefinition, stableDataFetcher, decorator);
+        assert firstExecution.getSharedDataFetcher(document, field, fieldDefinition, stableDataFetcher, decorator) == decorated;
+
+        DecoratedDataFetcherCache secondExecution = cache.copyForExecution();
+        secondExecution.bindDocument(document);
+        assert secondExecution.getSharedDataFetcher(document, field, fieldDefinition, stableDataFetcher, decorator) == decorated;
+        assert decorateCount.get() == 1;
+
+        // the default PropertyDataFetcher is created for each invocation, and shared by property name.
+        Field propertyField = Field.newField("name").build();
+        DataFetcher<?> propertyDecorated = secondExecution.getSharedDataFetcher(
+                document, propertyField, fieldDefinition, new PropertyDataFetcher<>("name"), decorator
+        );
+        assert secondExecution.getSharedDataFetcher(
+                document, propertyField, fieldDefinition, new PropertyDataFetcher<>("name"), decorator
+        ) == propertyDecorated;
+        assert decorateCount.get() == 2;
+    }
+
+    @Test
+    public void unstableDataFetcherIsScopedToExecution() {
+        DecoratedDataFetcherCache cache = new DecoratedDataFetcherCache();
+        AtomicInteger decorateCount = new AtomicInteger();
+        Supplier<DataFetcher<?>> decorator = () -> {
+            decorateCount.incrementAndGet();
+            return new ConstantDataFetcher();
+        };
+
+        DataFetcher<?> firstSeenDataFetcher = new ConstantDataFetcher();
+        DecoratedDataFetcherCache firstExecution = cache.copyForExecution();
+        firstExecution.bindDocument(document);
+        DataFetcher<?> shared = firstExecution.getSharedDataFetcher(document, field, fieldDefinition, firstSeenDataFetcher, decorator);
+
+        // e.g. the DataFetcherFactory creates DataFetcher for each invocation.
+        DecoratedDataFetcherCache secondExecution = cache.copyForExecution();
+        secondExecution.bindDocument(document);
+        for (int i = 0; i < 3; i++) {
+            DataFetcher<?> unstableDataFetcher = new ConstantDataFetcher();
+            DataFetcher<?> decorated = secondExecution.getSharedDataFetcher(document, field, fieldDefinition, unstableDataFetcher, decorator);
+            assert decorated != shared;
+            assert secondExecution.getSharedDataFetcher(document, field, fieldDefinition, unstableDataFetcher, decorator) == decorated;
+        }
+        assert decorateCount.get() == 4;
+
+        // the document is not bound to execution.
+        DecoratedDataFetcherCache unboundExecution = cache.copyForExecution();
+        assert unboundExecution.getSharedDataFetcher(document, field, fieldDefinition, firstSeenDataFetcher, decorator) != shared;
+        assert decorateCount.get() == 5;
+    }
+
+    private static class ConstantDataFetcher implements DataFetcher<Object> {
+        @Override
+        public Object get(DataFetchingEnvironment environment) {
+            return "value";
+        }
+    }
+}
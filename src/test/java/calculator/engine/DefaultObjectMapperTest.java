@@ -185,4 +185,28 @@ public class DefaultObjectMapperTest {
 
     }
 
+    @Test
+    public void passThroughSimpleCollectionTest() {
+        Map<String, Object> simpleMap = new LinkedHashMap<>();
+        simpleMap.put("id", 1);
+        simpleMap.put("tags", Arrays.asList("a", "b"));
+        List<Object> simpleList = Arrays.asList(simpleMap, null, 2L);
+
+        DefaultObjectMapper passThroughMapper = new DefaultObjectMapper(true);
+        assert passThroughMapper.toSimpleCollection(simpleList) == simpleList;
+        assert passThroughMapper.toSimpleCollection(simpleMap) == simpleMap;
+        assert new DefaultObjectMapper().toSimpleCollection(simpleMap) != simpleMap;
+
+        // only the part which is not simple is copied
+        Map<String, Object> mixedMap = new LinkedHashMap<>(simpleMap);
+        mixedMap.put("sub", new DemoSubClass("subValue"));
+        mixedMap.put("last", simpleList);
+        Map<String, Object> result = (Map<String, Object>) passThroughMapper.toSimpleCollection(mixedMap);
+        assert result != mixedMap;
+        assert Objects.equals(result.keySet().toString(), "[id, tags, sub, last]");
+        assert result.get("tags") == simpleMap.get("tags");
+        assert result.get("last") == simpleList;
+        assert Objects.equals(result.get("sub"), Collections.singletonMap("subClassField", "subValue"));
+    }
+
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.directive;
+
+import calculator.config.Config;
+import calculator.config.DefaultConfig;
+import calculator.engine.script.AviatorScriptEvaluator;
+import calculator.graphql.DefaultGraphQLSourceBuilder;
+import calculator.graphql.GraphQLSource;
+import calculator.util.GraphQLSourceHolder;
+import calculator.validation.Validator;
+import graphql.ExecutionResult;
+import graphql.ParseAndValidateResult;
+import graphql.schema.GraphQLSchema;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Objects;
+
+public class AggregateTest {
+    private static final GraphQLSchema originalSchema = GraphQLSourceHolder.getDefaultSchema();
+    private static final Config wrapperConfig = DefaultConfig.newConfig().scriptEvaluator(AviatorScriptEvaluator.getDefaultInstance()).build();
+    private static final GraphQLSource graphqlSource = new DefaultGraphQLSourceBuilder().wrapperConfig(wrapperConfig).originalSchema(originalSchema).build();
+
+    @Test
+    public void aggregateSourceList() {
+        String query = "" +
+                "query aggregateSourceList{\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: [1,2,3]) @fetchSource(name: \"itemList\"){\n" +
+                "            itemId\n" +
+                "        }\n" +
+                "        item(itemId: 1){\n" +
+                "            itemCount: itemId @count(dependencySources: \"itemList\")\n" +
+                "            totalPrice: salePrice @sum(dependencySources: \"itemList\", key: \"salePrice\")\n" +
+                "            minStock: stockAmount @min(dependencySources: \"itemList\", key: \"stockAmount\")\n" +
+                "            maxStock: stockAmount @max(dependencySources: \"itemList\", key: \"stockAmount\")\n" +
+                "            onSaleCount: saleStatistics @groupBy(dependencySources: \"itemList\", key: \"onSale\")\n" +
+                "            onSalePrice: saleStatistics @groupBy(dependencySources: \"itemList\", key: \"onSale\", aggregate: SUM, aggregateKey: \"salePrice\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphqlSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Map<String, Object>>> data = executionResult.getData();
+        Map<String, Object> item = data.get("commodity").get("item");
+        assert Objects.equals(item.get("itemCount"), 3);
+        assert Objects.equals(item.get("totalPrice"), 63);
+        assert Objects.equals(item.get("minStock"), 6);
+        assert Objects.equals(item.get("maxStock"), 16);
+
+        Map<String, Number> onSaleCount = (Map<String, Number>) item.get("onSaleCount");
+        assert onSaleCount.size() == 2;
+        assert onSaleCount.get("true").longValue() == 2 && onSaleCount.get("false").longValue() == 1;
+        Map<String, Number> onSalePrice = (Map<String, Number>) item.get("onSalePrice");
+        assert onSalePrice.size() == 2;
+        assert onSalePrice.get("true").longValue() == 32 && onSalePrice.get("false").longValue() == 31;
+    }
+
+    @Test
+    public void aggregateElementInList() {
+        String query = "" +
+                "query aggregateElementInList{\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: [1,2,3]){\n" +
+                "            salePrice @fetchSource(name: \"prices\")\n" +
+                "        }\n" +
+                "        item(itemId: 1){\n" +
+                "            salePrice @sum(dependencySources: \"prices\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphqlSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(data.get("commodity").get("item").toString(), "{salePrice=63}");
+    }
+
+    @Test
+    public void shareAggregationInList() {
+        String query = "" +
+                "query shareAggregationInList{\n" +
+                "    commodity{\n" +
+                "        priceList: itemList(itemIds: [1,2,3]){\n" +
+                "            salePrice @fetchSource(name: \"prices\")\n" +
+                "        }\n" +
+                "        itemList(itemIds: [1,2]){\n" +
+                "            itemId\n" +
+                "            salePrice @sum(dependencySources: \"prices\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphqlSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(
+                data.get("commodity").get("itemList").toString(), "[{itemId=1, salePrice=63}, {itemId=2, salePrice=63}]"
+        );
+    }
+
+    @Test
+    public void onlyOneSourceAllowed() {
+        String query = "" +
+                "query onlyOneSourceAllowed{\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: [1,2,3]){\n" +
+                "            itemId @fetchSource(name: \"itemIds\")\n" +
+                "            salePrice @fetchSource(name: \"prices\")\n" +
+                "        }\n" +
+                "        item(itemId: 1){\n" +
+                "            salePrice @sum(dependencySources: [\"itemIds\",\"prices\"])\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert validateResult.isFailure();
+        assert Objects.equals(
+                validateResult.getValidationErrors().get(0).getDescription(),
+                "only one dependency source can be used by @sum on {commodity.item.salePrice}."
+        );
+    }
+}
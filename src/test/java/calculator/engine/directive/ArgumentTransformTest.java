@@ -41,8 +41,12 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static calculator.util.TestUtil.listsWithSameElements;
+import static graphql.schema.AsyncDataFetcher.async;
 
 public class ArgumentTransformTest {
 
@@ -193,6 +197,92 @@ public class ArgumentTransformTest {
     }
 
 
+    @Test
+    public void transformListArgumentInParallel() {
+        Config parallelConfig = DefaultConfig.newConfig()
+                .scriptEvaluator(AviatorScriptEvaluator.getDefaultInstance())
+                .parallelTransformThreshold(4)
+                .parallelTransformChunkSize(3)
+                .build();
+        GraphQLSource parallelSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(parallelConfig).originalSchema(originalSchema).build();
+
+        String query = ""
+                + "query transformListArgumentInParallel($itemIds: [Int]){ \n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: $itemIds)\n" +
+                // the last directive transforms the argument first.
+                "        @argumentTransform(argumentName: \"itemIds\",operateType: LIST_MAP,expression: \"ele*10\")\n" +
+                "        @argumentTransform(argumentName: \"itemIds\",operateType: FILTER,expression: \"ele >= 4\")\n" +
+                "        {\n" +
+                "            itemId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, parallelSource.getWrappedSchema(), parallelConfig);
+        assert !validateResult.isFailure();
+
+        HashMap<String, Object> variables = new LinkedHashMap<>();
+        variables.put("itemIds", Arrays.asList(9, 1, 8, 2, 7, 3, 6, 4, 5, 10));
+        ExecutionInput input = ExecutionInput
+                .newExecutionInput(query)
+                .variables(variables)
+                .build();
+        ExecutionResult executionResult = parallelSource.getGraphQL().execute(input);
+
+        assert executionResult.getErrors() == null || executionResult.getErrors().isEmpty();
+        Map<String, Map<String, List<Map<String, Object>>>> data = executionResult.getData();
+        // the order of list argument is kept
+        assert Objects.equals(
+                data.get("commodity").get("itemList").toString(),
+                "[{itemId=90}, {itemId=80}, {itemId=70}, {itemId=60}, {itemId=40}, {itemId=50}, {itemId=100}]"
+        );
+    }
+
+    @Test
+    public void transformListArgumentWithRejectingExecutor() {
+        // the executor is saturated, and current thread evaluates all the chunks.
+        AtomicInteger rejectedCount = new AtomicInteger();
+        Executor rejectingExecutor = command -> {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException("executor is saturated.");
+        };
+        Config parallelConfig = DefaultConfig.newConfig()
+                .scriptEvaluator(AviatorScriptEvaluator.getDefaultInstance())
+                .threadPool(rejectingExecutor)
+                .parallelTransformThreshold(4)
+                .parallelTransformChunkSize(2)
+                .build();
+        GraphQLSource parallelSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(parallelConfig).originalSchema(originalSchema).build();
+
+        String query = ""
+                + "query transformListArgumentWithRejectingExecutor($itemIds: [Int]){ \n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: $itemIds)\n" +
+                "        @argumentTransform(argumentName: \"itemIds\",operateType: LIST_MAP,expression: \"ele*10\")\n" +
+                "        {\n" +
+                "            itemId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ExecutionInput input = ExecutionInput
+                .newExecutionInput(query)
+                .variables(Collections.singletonMap("itemIds", Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10)))
+                .build();
+        ExecutionResult executionResult = parallelSource.getGraphQL().execute(input);
+
+        assert executionResult.getErrors() == null || executionResult.getErrors().isEmpty();
+        assert rejectedCount.get() == 1;
+        Map<String, Map<String, List<Map<String, Object>>>> data = executionResult.getData();
+        assert Objects.equals(
+                data.get("commodity").get("itemList").toString(),
+                "[{itemId=10}, {itemId=20}, {itemId=30}, {itemId=40}, {itemId=50}, {itemId=60}, {itemId=70}, {itemId=80}, {itemId=90}, {itemId=100}]"
+        );
+    }
+
     @Test
     public void calculateCouponPrice_Case01() {
         String query = "" +
@@ -591,6 +681,95 @@ public class ArgumentTransformTest {
 
     }
 
+    @Test
+    public void stackedTransformsShareDependencySource() {
+        String query = ""
+                + "query stackedTransformsShareDependencySource ( $couponId: Int,$itemIds: [Int]) {\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: $itemIds)\n" +
+                "        @argumentTransform(argumentName: \"itemIds\", operateType: FILTER,dependencySources: \"itemIdList\",expression: \"listContain(itemIdList,ele)\")\n" +
+                "        @argumentTransform(argumentName: \"itemIds\", operateType: FILTER,dependencySources: \"itemIdList\",expression: \"ele != count(itemIdList)\")\n" +
+                "        {\n" +
+                "            itemId\n" +
+                "        }\n" +
+                "    }\n" +
+                "\n" +
+                "    marketing{\n" +
+                "        coupon(couponId: $couponId){\n" +
+                "            bindingItemIds\n" +
+                "            @fetchSource(name: \"itemIdList\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        HashMap<String, Object> variables = new LinkedHashMap<>();
+        variables.put("couponId", 1L);
+        variables.put("itemIds", Arrays.asList(8, 9, 10, 11));
+        ExecutionInput executionInput = ExecutionInput
+                .newExecutionInput(query)
+                .variables(variables)
+                .build();
+        ExecutionResult executionResult = graphqlSource.getGraphQL().execute(executionInput);
+
+        assert executionResult.getErrors() == null || executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(data.get("commodity").toString(), "{itemList=[{itemId=8}, {itemId=9}]}");
+    }
+
+    @Test
+    public void stackedLayersSubmitOnce() {
+        AtomicInteger submittedCount = new AtomicInteger();
+        Executor countingExecutor = command -> {
+            submittedCount.incrementAndGet();
+            command.run();
+        };
+        Map<String, Map<String, DataFetcher>> dataFetcherInfo = GraphQLSourceHolder.defaultDataFetcherInfo();
+        dataFetcherInfo.get("ItemBaseInfo").put("saleAmount", async(
+                environment -> environment.<Integer>getArgument("itemId") * 10, countingExecutor
+        ));
+        GraphQLSource stackedSource = new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(wrapperConfig)
+                .originalSchema(GraphQLSourceHolder.getSchemaByDataFetcherMap(dataFetcherInfo))
+                .build();
+
+        String query = ""
+                + "query stackedLayersSubmitOnce ($couponId: Int) {\n" +
+                "    commodity{\n" +
+                "        item(itemId: 1){\n" +
+                "            saleAmount(itemId: 1)\n" +
+                // the last directive is the outermost layer, which invokes the inner @map.
+                "            @map(mapper: \"saleAmount + count(itemIdList)\", dependencySources: \"itemIdList\")\n" +
+                "            @argumentTransform(argumentName: \"itemId\", dependencySources: \"itemIdList\", expression: \"seq.get(itemIdList, 0)\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "\n" +
+                "    marketing{\n" +
+                "        coupon(couponId: $couponId){\n" +
+                "            bindingItemIds\n" +
+                "            @fetchSource(name: \"itemIdList\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, stackedSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionInput executionInput = ExecutionInput
+                .newExecutionInput(query)
+                .variables(Collections.singletonMap("couponId", 1L))
+                .build();
+        ExecutionResult executionResult = stackedSource.getGraphQL().execute(executionInput);
+
+        assert executionResult.getErrors() == null || executionResult.getErrors().isEmpty() : executionResult.getErrors();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(data.get("commodity").toString(), "{item={saleAmount=23}}");
+        // the action fetcher of inner layer is invoked directly by the outer layer, so the stacked layers are submitted only once.
+        assert submittedCount.get() == 1 : submittedCount.get();
+    }
+
     @Test
     public void repeatableArgumentTest() {
         String query = "" +
@@ -628,4 +807,50 @@ public class ArgumentTransformTest {
         );
     }
 
+    @Test
+    public void memoizePureExpression() {
+        DefaultConfig memoConfig = DefaultConfig.newConfig()
+                .scriptEvaluator(AviatorScriptEvaluator.getDefaultInstance())
+                .memoizePureExpression()
+                .build();
+        GraphQLSource memoSource = new DefaultGraphQLSourceBuilder().wrapperConfig(memoConfig).originalSchema(originalSchema).build();
+
+        String query = "" +
+                "query memoizePureExpression ($couponId: Int, $itemIds: [Int]){\n" +
+                "    marketing{\n" +
+                "        coupon(couponId: $couponId)\n" +
+                "        @fetchSource(name: \"itemCouponInfo\",sourceConvert: \"list2MapWithAssignedValue('coupon.bindingItemIds','coupon.price')\")\n" +
+                "        {\n" +
+                "            price\n" +
+                "        }\n" +
+                "    }\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: $itemIds){\n" +
+                "            itemId\n" +
+                "            isUsedCoupon: onSale @map(dependencySources: \"itemCouponInfo\",mapper: \"seq.get(itemCouponInfo,itemId)!=nil\")\n" +
+                "            random: salePrice @map(mapper: \"rand(10) + salePrice\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        HashMap<String, Object> variables = new LinkedHashMap<>();
+        variables.put("couponId", 1);
+        variables.put("itemIds", Arrays.asList(9, 10, 9, 11, 11, 9));
+        ExecutionResult executionResult = memoSource.getGraphQL().execute(
+                ExecutionInput.newExecutionInput(query).variables(variables).build()
+        );
+
+        assert executionResult.getErrors().isEmpty();
+        List<Map<String, Object>> itemList = (List<Map<String, Object>>) ((Map<String, Object>) ((Map<String, Object>)
+                executionResult.getData()).get("commodity")).get("itemList");
+        assert Objects.equals(itemList.toString().replaceAll("random=\\d+", "random"),
+                "[{itemId=9, isUsedCoupon=true, random}, {itemId=10, isUsedCoupon=true, random}, "
+                        + "{itemId=9, isUsedCoupon=true, random}, {itemId=11, isUsedCoupon=false, random}, "
+                        + "{itemId=11, isUsedCoupon=false, random}, {itemId=9, isUsedCoupon=true, random}]"
+        );
+        // the expression with 'rand' is not memoized.
+        assert memoConfig.getExpressionMemoStatistics().getHitCount() == 3;
+        assert memoConfig.getExpressionMemoStatistics().getMissCount() == 3;
+        assert wrapperConfig.getExpressionMemoStatistics() == null;
+    }
 }
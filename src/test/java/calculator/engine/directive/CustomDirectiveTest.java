@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.directive;
+
+import calculator.config.Config;
+import calculator.config.DefaultConfig;
+import calculator.engine.SchemaWrapper;
+import calculator.engine.decorator.DecorateEnvironment;
+import calculator.engine.decorator.Decorator;
+import calculator.engine.handler.FieldValueHandler;
+import calculator.engine.handler.HandleEnvironment;
+import calculator.engine.metadata.CustomDirective;
+import calculator.exception.WrapperSchemaException;
+import calculator.graphql.DefaultGraphQLSourceBuilder;
+import calculator.graphql.GraphQLSource;
+import calculator.util.GraphQLSourceHolder;
+import calculator.validation.Validator;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.ParseAndValidateResult;
+import graphql.language.Directive;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLDirective;
+import graphql.schema.GraphQLNonNull;
+import graphql.schema.GraphQLSchema;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static calculator.common.CommonUtil.getArgumentFromDirective;
+import static graphql.Scalars.GraphQLInt;
+import static graphql.introspection.Introspection.DirectiveLocation.FIELD;
+
+public class CustomDirectiveTest {
+
+    private static final GraphQLSchema originalSchema = GraphQLSourceHolder.getDefaultSchema();
+
+    // directive @upperCase on FIELD
+    private static final CustomDirective UPPER_CASE = CustomDirective.newDirective(
+            GraphQLDirective.newDirective().name("upperCase").validLocation(FIELD).build()
+    ).decorator(new Decorator() {
+        @Override
+        public boolean supportDirective(Directive directive, DecorateEnvironment environment) {
+            return Objects.equals("upperCase", directive.getName());
+        }
+
+        @Override
+        public DataFetcher<?> decorate(Directive directive, DecorateEnvironment environment) {
+            DataFetcher<?> dataFetcher = environment.getOriginalDataFetcher();
+            return fetchingEnvironment -> {
+                Object value = dataFetcher.get(fetchingEnvironment);
+                return value == null ? null : value.toString().toUpperCase();
+            };
+        }
+    }).build();
+
+    // directive @take(count: Int!) on FIELD
+    private static final CustomDirective TAKE = CustomDirective.newDirective(
+            GraphQLDirective.newDirective().name("take").validLocation(FIELD)
+                    .argument(GraphQLArgument.newArgument().name("count").type(GraphQLNonNull.nonNull(GraphQLInt)))
+                    .build()
+    ).fieldValueHandler(new FieldValueHandler() {
+        @Override
+        public boolean supportDirective(Directive directive) {
+            return Objects.equals("take", directive.getName());
+        }
+
+        @Override
+        public void transformListResultByDirectives(HandleEnvironment handleEnvironment) {
+            int count = ((Number) getArgumentFromDirective(handleEnvironment.getDirective(), "count")).intValue();
+            List<Object> values = handleEnvironment.getResult().getData();
+            if (values.size() > count) {
+                values.subList(count, values.size()).clear();
+            }
+        }
+    }).build();
+
+    @Test
+    public void executeCustomDirectives() {
+        Config wrapperConfig = DefaultConfig.newConfig().customDirective(UPPER_CASE).customDirective(TAKE).build();
+        GraphQLSource graphqlSource = new DefaultGraphQLSourceBuilder().wrapperConfig(wrapperConfig).originalSchema(originalSchema).build();
+
+        String query = "" +
+                "query($itemIds:[Int]){\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: $itemIds) @filter(predicate: \"itemId > 1\") @take(count: 2){\n" +
+                "            itemId\n" +
+                "            name @upperCase\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionInput input = ExecutionInput.newExecutionInput(query)
+                .variables(Collections.singletonMap("itemIds", Arrays.asList(1, 2, 3, 4)))
+                .build();
+        ExecutionResult executionResult = graphqlSource.getGraphQL().execute(input);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(
+                data.get("commodity").get("itemList").toString(),
+                "[{itemId=2, name=ITEM_NAME_2}, {itemId=3, name=ITEM_NAME_3}]"
+        );
+    }
+
+    @Test
+    public void duplicateDirectiveName() {
+        CustomDirective filter = CustomDirective.newDirective(
+                GraphQLDirective.newDirective().name("filter").validLocation(FIELD).build()
+        ).fieldValueHandler(TAKE.getFieldValueHandler()).build();
+        Config wrapperConfig = DefaultConfig.newConfig().customDirective(filter).build();
+        try {
+            SchemaWrapper.wrap(wrapperConfig, originalSchema);
+            assert false;
+        } catch (WrapperSchemaException e) {
+            assert e.getMessage().contains("filter");
+        }
+    }
+}
@@ -29,6 +29,7 @@ import graphql.ParseAndValidateResult;
 import graphql.schema.GraphQLSchema;
 import org.junit.Test;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 
@@ -67,6 +68,48 @@ public class FetchSourceTest {
         assert Objects.equals(data.get("commodity").get("item").toString(), "{itemId=1, userId=2, userIdInUserInfo=2}");
     }
 
+    @Test
+    public void reuseDecoratedDataFetcherByExecutions() {
+        String query = "" +
+                "query reuseDecoratedDataFetcherByExecutions($userId: Int){\n" +
+                "    consumer{\n" +
+                "        userInfo(userId: $userId){\n" +
+                "            userId @fetchSource(name: \"userId\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "    \n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: [1,2]){\n" +
+                "            itemId\n" +
+                "            doubleItemId: itemId @map(mapper: \"itemId * 2\")\n" +
+                "            userId: itemId @map(mapper: \"userId\",dependencySources: \"userId\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        // the persisted query executes the same document, so the decorated DataFetchers are reused.
+        String queryId = graphqlSource.getPersistedQueryRegistry().register(query);
+
+        ExecutionResult firstResult = graphqlSource.getPersistedQueryRegistry().execute(queryId, Collections.singletonMap("userId", 2));
+        assert firstResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> firstData = firstResult.getData();
+        assert Objects.equals(
+                firstData.get("commodity").get("itemList").toString(),
+                "[{itemId=1, doubleItemId=2, userId=2}, {itemId=2, doubleItemId=4, userId=2}]"
+        );
+
+        // the decorated DataFetcher depending on fetchSource gets the result of current execution.
+        ExecutionResult secondResult = graphqlSource.getPersistedQueryRegistry().execute(queryId, Collections.singletonMap("userId", 3));
+        assert secondResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> secondData = secondResult.getData();
+        assert Objects.equals(
+                secondData.get("commodity").get("itemList").toString(),
+                "[{itemId=1, doubleItemId=2, userId=3}, {itemId=2, doubleItemId=4, userId=3}]"
+        );
+    }
+
     @Test
     public void sourceOnAncestorPath_case02() {
         String query = "" +
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.directive;
+
+import calculator.config.Config;
+import calculator.config.DefaultConfig;
+import calculator.engine.script.AviatorScriptEvaluator;
+import calculator.graphql.DefaultGraphQLSourceBuilder;
+import calculator.graphql.GraphQLSource;
+import calculator.util.GraphQLSourceHolder;
+import calculator.validation.Validator;
+import graphql.ExecutionResult;
+import graphql.ParseAndValidateResult;
+import graphql.schema.GraphQLSchema;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Objects;
+
+public class JoinTest {
+    private static final GraphQLSchema originalSchema = GraphQLSourceHolder.getDefaultSchema();
+    private static final Config wrapperConfig = DefaultConfig.newConfig().scriptEvaluator(AviatorScriptEvaluator.getDefaultInstance()).build();
+    private static final GraphQLSource graphqlSource = new DefaultGraphQLSourceBuilder().wrapperConfig(wrapperConfig).originalSchema(originalSchema).build();
+
+    @Test
+    public void joinSourceListByKey() {
+        String query = "" +
+                "query joinSourceListByKey{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [2,3]) @fetchSource(name: \"sellers\"){\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: [1,2,3]){\n" +
+                "            itemId\n" +
+                "            sellerId\n" +
+                "            sellerName: name @join(dependencySources: \"sellers\", localKey: \"sellerId\", foreignKey: \"userId\", valueKey: \"name\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphqlSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(
+                data.get("commodity").get("itemList").toString(),
+                "[{itemId=1, sellerId=2, sellerName=2_name}, {itemId=2, sellerId=3, sellerName=3_name}, {itemId=3, sellerId=4, sellerName=null}]"
+        );
+    }
+
+    @Test
+    public void joinElementInList() {
+        String query = "" +
+                "query joinElementInList{\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: [2,3]){\n" +
+                "            userId @fetchSource(name: \"sellerIds\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: [1,2,3]){\n" +
+                "            itemId\n" +
+                "            joinedSellerId: sellerId @join(dependencySources: \"sellerIds\", localKey: \"sellerId\", foreignKey: \"ele\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphqlSource.getWrappedSchema(), wrapperConfig);
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphqlSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(
+                data.get("commodity").get("itemList").toString(),
+                "[{itemId=1, joinedSellerId=2}, {itemId=2, joinedSellerId=3}, {itemId=3, joinedSellerId=null}]"
+        );
+    }
+}
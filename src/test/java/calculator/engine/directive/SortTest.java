@@ -94,6 +94,39 @@ public class SortTest {
         );
     }
 
+    @Test
+    public void multiKeySortCase() {
+        Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
+        GraphQLSource graphQLSource = GraphQLSourceHolder.getGraphQLByDataFetcherMap(dataFetcherInfoMap);
+
+        String query = "" +
+                "query multiKeySortCase{\n" +
+                "    consumer{\n" +
+                "        sortByList: userInfoList(userIds: [1,2,3,4,5,6])\n" +
+                "        @sortBy(comparators: [\"userId%2\", \"userId\"], reversed: [false, true])\n" +
+                "        {\n" +
+                "            userId\n" +
+                "        }\n" +
+                "        sortList: userInfoList(userIds: [3,1,2])\n" +
+                "        @sort(keys: [\"name\", \"userId\"], reversed: true)\n" +
+                "        {\n" +
+                "            userId\n" +
+                "            name\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ParseAndValidateResult validateResult = Validator.validateQuery(query, graphQLSource.getWrappedSchema(), DefaultConfig.newConfig().build());
+        assert !validateResult.isFailure();
+
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+        assert executionResult.getErrors().isEmpty();
+        assert Objects.equals(
+                executionResult.getData().toString(),
+                "{consumer={sortByList=[{userId=6}, {userId=4}, {userId=2}, {userId=5}, {userId=3}, {userId=1}], " +
+                        "sortList=[{userId=3, name=3_name}, {userId=2, name=2_name}, {userId=1, name=1_name}]}}"
+        );
+    }
+
     @Test
     public void sortByCase_01() {
         Map<String, Map<String, DataFetcher>> dataFetcherInfoMap = GraphQLSourceHolder.defaultDataFetcherInfo();
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.handler;
+
+import calculator.engine.DefaultObjectMapper;
+import calculator.engine.script.AviatorScriptEvaluator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class ListPipelineTest {
+
+    private static Map<String, Object> item(int id, String category, Integer price) {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("id", id);
+        item.put("category", category);
+        item.put("price", price);
+        return item;
+    }
+
+    private static ListPipeline newPipeline(Object listOrArray) {
+        return new ListPipeline(listOrArray, new DefaultObjectMapper(), AviatorScriptEvaluator.getDefaultInstance());
+    }
+
+    private static List<Object> items() {
+        return new ArrayList<>(Arrays.asList(
+                item(1, "b", 30), item(2, "a", 10), item(3, "b", null),
+                item(4, "a", 20), item(5, "c", 10), item(6, "a", 10)
+        ));
+    }
+
+    @Test
+    public void applyTransformationsInOrder() {
+        List<Object> items = items();
+        ListPipeline pipeline = newPipeline(items);
+        pipeline.filter("id != 5");
+        // the first element of each category is kept
+        pipeline.distinct("category");
+        pipeline.sortBy(Collections.singletonList("price"), new boolean[]{true});
+        pipeline.finish();
+
+        assert Objects.equals(items, Arrays.asList(item(1, "b", 30), item(2, "a", 10)));
+    }
+
+    @Test
+    public void mergeAdjacentSorts() {
+        List<Object> items = items();
+        ListPipeline pipeline = newPipeline(items);
+        // the later sort is the primary order
+        pipeline.sort(Collections.singletonList("price"), new boolean[]{false});
+        pipeline.sort(Collections.singletonList("category"), new boolean[]{false});
+        pipeline.finish();
+
+        List<Object> expected = items();
+        Collections.sort(expected, (o1, o2) -> {
+            Integer p1 = (Integer) ((Map) o1).get("price"), p2 = (Integer) ((Map) o2).get("price");
+            return p1 == null ? (p2 == null ? 0 : 1) : (p2 == null ? -1 : p1.compareTo(p2));
+        });
+        Collections.sort(expected, (o1, o2) -> ((String) ((Map) o1).get("category")).compareTo((String) ((Map) o2).get("category")));
+        assert Objects.equals(items, expected);
+    }
+
+    @Test
+    public void distinctBasicElementsAfterSort() {
+        Object[] elements = {3, 1, null, 3, 2};
+        ListPipeline pipeline = newPipeline(elements);
+        pipeline.sortBy(Collections.singletonList("ele"), new boolean[]{false});
+        pipeline.finish();
+        assert Arrays.equals(elements, new Object[]{1, 2, 3, 3, null});
+
+        List<Object> list = new ArrayList<>(Arrays.asList(elements));
+        pipeline = newPipeline(list);
+        pipeline.distinct("ele");
+        pipeline.finish();
+        assert Objects.equals(list, Arrays.asList(1, 2, 3, null));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.metadata;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FetchSourceTaskTest {
+
+    @Test
+    public void snapshotIsBuiltOnce() {
+        CompletableFuture<Object> taskFuture = new CompletableFuture<>();
+        FetchSourceTask sourceTask = FetchSourceTask.newFetchSourceTask()
+                .sourceName("source")
+                .taskFuture(taskFuture)
+                .build();
+        taskFuture.complete(Collections.singletonMap("id", 1));
+
+        AtomicInteger buildCount = new AtomicInteger();
+        for (int i = 0; i < 500; i++) {
+            Object snapshot = sourceTask.getSnapshot(value -> {
+                buildCount.incrementAndGet();
+                return Collections.singletonMap("snapshot", value);
+            });
+            assert snapshot.equals(Collections.singletonMap("snapshot", Collections.singletonMap("id", 1)));
+        }
+        assert buildCount.get() == 1;
+
+        // the copied task has its own snapshot.
+        FetchSourceTask copiedTask = sourceTask.copyWithNewFuture(new IdentityHashMap<>());
+        copiedTask.getTaskFuture().complete(null);
+        assert copiedTask.getSnapshot(value -> value.toString()) == null;
+    }
+
+    @Test
+    public void aggregationIsComputedOnce() {
+        CompletableFuture<Object> taskFuture = CompletableFuture.completedFuture(Arrays.asList(1, 2, 3));
+        FetchSourceTask sourceTask = FetchSourceTask.newFetchSourceTask()
+                .sourceName("source")
+                .taskFuture(taskFuture)
+                .build();
+
+        AtomicInteger computeCount = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            assert sourceTask.getAggregation(Arrays.asList("count", null), key -> computeCount.incrementAndGet()).equals(1);
+            // the null result is cached as well.
+            assert sourceTask.getAggregation(Arrays.asList("min", "price"), key -> {
+                computeCount.incrementAndGet();
+                return null;
+            }) == null;
+        }
+        assert computeCount.get() == 2;
+    }
+}
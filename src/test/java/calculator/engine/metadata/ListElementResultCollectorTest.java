@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.metadata;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ListElementResultCollectorTest {
+
+    @Test
+    public void collectByIndex() {
+        ListElementResultCollector collector = new ListElementResultCollector();
+        collector.expectSize(3);
+
+        int first = collector.registerElement();
+        int second = collector.registerElement();
+        int third = collector.registerElement();
+        CompletableFuture<List<Object>> resultFuture = collector.allElementsRegistered();
+
+        collector.completeElement(third, 3);
+        collector.completeElement(first, 1);
+        assert !resultFuture.isDone();
+
+        collector.completeElement(second, null);
+        assert resultFuture.isDone();
+        assert resultFuture.join().equals(Arrays.asList(1, null, 3));
+    }
+
+    @Test
+    public void completeBeforeAllRegistered() {
+        ListElementResultCollector collector = new ListElementResultCollector();
+        collector.completeElement(collector.registerElement(), "a");
+        assert collector.allElementsRegistered().join().equals(Collections.singletonList("a"));
+
+        ListElementResultCollector emptyCollector = new ListElementResultCollector();
+        assert emptyCollector.allElementsRegistered().join().isEmpty();
+    }
+
+    @Test
+    public void collectConcurrentlyBeyondExpectedSize() throws Exception {
+        ListElementResultCollector collector = new ListElementResultCollector();
+        collector.expectSize(10);
+
+        int elementCount = 10000;
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < elementCount; i++) {
+            indexes.add(collector.registerElement());
+        }
+        CompletableFuture<List<Object>> resultFuture = collector.allElementsRegistered();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Collections.shuffle(indexes);
+            for (Integer index : indexes) {
+                executor.execute(() -> collector.completeElement(index, index));
+            }
+
+            List<Object> results = resultFuture.get(10, TimeUnit.SECONDS);
+            assert results.size() == elementCount;
+            for (int i = 0; i < elementCount; i++) {
+                assert results.get(i).equals(i);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void completeExceptionally() {
+        ListElementResultCollector collector = new ListElementResultCollector();
+        collector.registerElement();
+        int second = collector.registerElement();
+        CompletableFuture<List<Object>> resultFuture = collector.allElementsRegistered();
+
+        collector.completeElementExceptionally(new RuntimeException("element failed"));
+        assert resultFuture.isCompletedExceptionally();
+
+        collector.completeElement(second, 2);
+        assert resultFuture.isCompletedExceptionally();
+    }
+}
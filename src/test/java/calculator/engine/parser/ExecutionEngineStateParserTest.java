@@ -18,10 +18,12 @@
 package calculator.engine.parser;
 
 
+import calculator.common.CommonUtil;
 import calculator.config.Config;
 import calculator.config.DefaultConfig;
 import calculator.engine.ExecutionEngineState;
 import calculator.engine.ExecutionEngineStateParser;
+import calculator.engine.ExecutionPlan;
 import calculator.util.GraphQLSourceHolder;
 import calculator.engine.SchemaWrapper;
 import calculator.engine.metadata.FetchSourceTask;
@@ -29,6 +31,7 @@ import calculator.validation.Validator;
 import graphql.ParseAndValidateResult;
 import graphql.analysis.QueryTraverser;
 import graphql.com.google.common.base.Objects;
+import graphql.execution.ResultPath;
 import graphql.parser.Parser;
 import graphql.schema.GraphQLSchema;
 import org.junit.Test;
@@ -89,4 +92,60 @@ public class ExecutionEngineStateParserTest {
         assert bindingItemIdsTask.isTopTask();
         assert bindingItemIdsTask.getResultKey().equals("bindingItemIds");
     }
+
+    @Test
+    public void calculatorDirectiveFreePlan() {
+        String query = "" +
+                "query {\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: [1,2]) @skip(if: false) {\n" +
+                "            itemId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ExecutionPlan executionPlan = ExecutionPlan.newExecutionPlan(wrappedSchema, Parser.parse(query));
+        ExecutionEngineState engineState = executionPlan.newExecutionState();
+        assert engineState.isCalculatorDirectiveFree();
+        // the state of directive-free query is shared by executions
+        assert engineState == executionPlan.newExecutionState();
+    }
+
+    @Test
+    public void newExecutionStateFromPlan() {
+        String query = "" +
+                "query {\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: [1,2]){\n" +
+                "            itemId @fetchSource(name: \"itemIds\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "    consumer{\n" +
+                "        userInfoList(userIds: 1) @argumentTransform(argumentName: \"userIds\", operateType: MAP, dependencySources: \"itemIds\", expression: \"itemIds\"){\n" +
+                "            userId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        ExecutionPlan executionPlan = ExecutionPlan.newExecutionPlan(wrappedSchema, Parser.parse(query));
+        ExecutionEngineState firstState = executionPlan.newExecutionState();
+        ExecutionEngineState secondState = executionPlan.newExecutionState();
+        assert !firstState.isCalculatorDirectiveFree();
+        assert Objects.equal(firstState.getFetchSourceTaskByPath().keySet(), secondState.getFetchSourceTaskByPath().keySet());
+
+        // the tasks are copied with new futures, and the task tree is kept
+        FetchSourceTask firstTopTask = firstState.getFetchSourceTaskByPath().get("commodity.itemList");
+        FetchSourceTask secondTopTask = secondState.getFetchSourceTaskByPath().get("commodity.itemList");
+        assert firstTopTask != secondTopTask;
+        assert firstTopTask.getTaskFuture() != secondTopTask.getTaskFuture();
+        assert firstTopTask.getChildrenTaskList().get(0) == firstState.getFetchSourceTaskByPath().get("commodity.itemList.itemId");
+        assert secondTopTask.getChildrenTaskList().get(0) == secondState.getFetchSourceTaskByPath().get("commodity.itemList.itemId");
+
+        // task is found by result path, and the list index is ignored
+        assert secondState.getFetchSourceTask(ResultPath.parse("/commodity/itemList[1]/itemId")) == secondTopTask.getChildrenTaskList().get(0);
+        assert secondState.getFetchSourceTask(ResultPath.parse("/commodity/itemList")) == secondTopTask;
+        assert secondState.getFetchSourceTask(ResultPath.parse("/commodity/itemList[0]/name")) == null;
+        assert secondState.getFetchSourceTask(ResultPath.parse("/consumer/userInfoList")) == null;
+        assert Objects.equal(CommonUtil.fieldPath(ResultPath.parse("/commodity/itemList[1]/itemId")), "commodity.itemList.itemId");
+    }
 }
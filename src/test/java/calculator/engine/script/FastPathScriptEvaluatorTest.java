@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.script;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+public class FastPathScriptEvaluatorTest {
+
+    private static final AviatorScriptEvaluator aviatorEvaluator = AviatorScriptEvaluator.getDefaultInstance();
+
+    private static final FastPathScriptEvaluator fastPathEvaluator = new FastPathScriptEvaluator();
+
+    private static final List<String> VARIABLES = Arrays.asList("i", "l", "d", "f", "s", "b", "n", "m.i", "m.s", "m.n", "big", "absent");
+
+    private static final List<String> LITERALS = Arrays.asList("0", "1", "-2", "3", "2.5", "0.0", "'ON'", "'a'", "true", "false", "nil");
+
+    private static final List<String> OPERATORS = Arrays.asList(
+            "+", "-", "*", "/", "%", "==", "!=", "<", "<=", ">", ">=", "&&", "||"
+    );
+
+    @Test
+    public void fastPathSubset() {
+        for (String script : Arrays.asList("price > 100", "status == 'ON'", "ele * 100", "id", "item.price * (1 - rate) >= 0.5 && !deleted")) {
+            assert fastPathEvaluator.isFastPathScript(script) : script;
+        }
+        for (String script : Arrays.asList("seq.get(list, 0)", "a = 1", "x > 1 ? 1 : 2", "'#{name}'", "100M", "a[0]", "s =~ /a/", "__env__")) {
+            assert !fastPathEvaluator.isFastPathScript(script) : script;
+        }
+    }
+
+    @Test
+    public void sameResultsAsAviator() {
+        Random random = new Random(2022);
+        int fastPathCount = 0;
+        for (int round = 0; round < 3000; round++) {
+            String script = randomExpression(random, 3);
+            Map<String, Object> env = randomEnv(random);
+
+            Object expected;
+            Class<?> expectedError = null;
+            try {
+                expected = aviatorEvaluator.evaluate(script, env);
+            } catch (Exception e) {
+                expected = null;
+                expectedError = e.getClass();
+            }
+
+            Object actual;
+            Class<?> actualError = null;
+            try {
+                actual = fastPathEvaluator.evaluate(script, env);
+            } catch (Exception e) {
+                actual = null;
+                actualError = e.getClass();
+            }
+
+            String message = script + " with " + env;
+            assert Objects.equals(expectedError, actualError) : message;
+            assert Objects.equals(expected, actual) : message + ": " + expected + " != " + actual;
+            assert expected == null || expected.getClass() == actual.getClass() : message;
+
+            // the results of fast path itself, without falling back to Aviator.
+            FastExpression fastExpression = FastExpression.parse(script);
+            if (fastExpression != null && expectedError == null) {
+                try {
+                    Object fastResult = fastExpression.eval(env);
+                    assert Objects.equals(expected, fastResult) && (expected == null || expected.getClass() == fastResult.getClass()) : message;
+                    fastPathCount++;
+                } catch (RuntimeException e) {
+                    assert e == FastExpression.UNSUPPORTED : message;
+                }
+            }
+        }
+        assert fastPathCount > 300 : fastPathCount;
+    }
+
+    @Test
+    public void batchEvaluation() {
+        List<Object> elements = Arrays.asList(1, 5, null, 8);
+        Object[] results = fastPathEvaluator.evaluateBatch(
+                fastPathEvaluator.compile("ele > limit"), elements, Collections.singletonMap("limit", 2),
+                ele -> Collections.singletonMap("ele", ele)
+        );
+        Object[] expected = aviatorEvaluator.evaluateBatch(
+                aviatorEvaluator.compile("ele > limit"), elements, Collections.singletonMap("limit", 2),
+                ele -> Collections.singletonMap("ele", ele)
+        );
+        assert Arrays.equals(results, expected);
+    }
+
+    private static String randomExpression(Random random, int depth) {
+        int kind = depth == 0 ? random.nextInt(2) : random.nextInt(6);
+        switch (kind) {
+            case 0:
+                return VARIABLES.get(random.nextInt(VARIABLES.size()));
+            case 1:
+                return LITERALS.get(random.nextInt(LITERALS.size()));
+            case 2:
+                return (random.nextBoolean() ? "!" : "-") + randomExpression(random, depth - 1);
+            case 3:
+                return "(" + randomExpression(random, depth - 1) + ")";
+            default:
+                return randomExpression(random, depth - 1)
+                        + " " + OPERATORS.get(random.nextInt(OPERATORS.size())) + " "
+                        + randomExpression(random, depth - 1);
+        }
+    }
+
+    private static Map<String, Object> randomEnv(Random random) {
+        Map<String, Object> env = new HashMap<>();
+        env.put("i", random.nextInt(7) - 3);
+        env.put("l", (long) random.nextInt(7) - 3);
+        env.put("d", random.nextInt(7) - 3 + 0.5);
+        env.put("f", random.nextBoolean() ? 0.0f : 1.5f);
+        env.put("s", random.nextBoolean() ? "ON" : "OFF");
+        env.put("b", random.nextBoolean());
+        env.put("n", null);
+        env.put("big", new BigDecimal("1.5"));
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("i", random.nextInt(3));
+        map.put("s", "a");
+        map.put("n", null);
+        env.put("m", map);
+        return env;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.script;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InvariantHoistedScriptTest {
+
+    private static final ScriptEvaluator scriptEvaluator = AviatorScriptEvaluator.getDefaultInstance();
+
+    private static final Set<String> ELEMENT_VARIABLES = Collections.singleton("ele");
+
+    @Test
+    public void hoistInvariantParts() {
+        InvariantHoistedScript script = InvariantHoistedScript.hoist(
+                scriptEvaluator, "ele.price > seq.max(source.prices) * 0.8 && (ele.count + offset) > 0", ELEMENT_VARIABLES
+        );
+        assert script.isHoisted();
+        assert Objects.equals(script.getHoistedScript().getArguments(), Arrays.asList("ele", "__hoisted_0", "offset"));
+
+        AtomicInteger sourceReadCount = new AtomicInteger();
+        Map<String, Object> sharedArguments = new HashMap<String, Object>() {
+            @Override
+            public Object get(Object key) {
+                if (Objects.equals(key, "source")) {
+                    sourceReadCount.incrementAndGet();
+                }
+                return super.get(key);
+            }
+        };
+        sharedArguments.put("source", Collections.singletonMap("prices", Arrays.asList(10, 50, 20)));
+        sharedArguments.put("offset", 1);
+
+        List<Object> elements = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> element = new HashMap<>();
+            element.put("price", i);
+            element.put("count", 0);
+            elements.add(element);
+        }
+
+        Object[] results = script.newBatchEvaluator(sharedArguments, ele -> Collections.singletonMap("ele", ele)).apply(elements);
+        assert sourceReadCount.get() <= 2 : sourceReadCount.get();
+        Object[] expected = scriptEvaluator.evaluateBatch(
+                script.getOriginalScript(), elements, sharedArguments, ele -> Collections.singletonMap("ele", ele)
+        );
+        assert Arrays.equals(results, expected);
+        assert Arrays.asList(results).indexOf(true) == 41;
+    }
+
+    @Test
+    public void hoistedScriptOnFastPath() {
+        FastPathScriptEvaluator fastPathEvaluator = new FastPathScriptEvaluator();
+        InvariantHoistedScript script = InvariantHoistedScript.hoist(
+                fastPathEvaluator, "ele.price > seq.max(source.prices) * 0.8", ELEMENT_VARIABLES
+        );
+        assert script.isHoisted();
+        assert !(script.getOriginalScript() instanceof FastCompiledScript);
+        assert script.getHoistedScript() instanceof FastCompiledScript;
+
+        Map<String, Object> sharedArguments = Collections.singletonMap(
+                "source", Collections.singletonMap("prices", Arrays.asList(10, 50, 20))
+        );
+        List<Object> elements = Arrays.asList(
+                Collections.singletonMap("price", 30), Collections.singletonMap("price", 50)
+        );
+        Object[] results = script.newBatchEvaluator(sharedArguments, ele -> Collections.singletonMap("ele", ele)).apply(elements);
+        assert Arrays.equals(results, new Object[]{false, true});
+    }
+
+    @Test
+    public void fallbackToOriginalScript() {
+        // the invariant part is short-circuited by element, and throws if evaluated eagerly.
+        InvariantHoistedScript script = InvariantHoistedScript.hoist(
+                scriptEvaluator, "ele == nil || ele > seq.get(source, 0)", ELEMENT_VARIABLES
+        );
+        assert script.isHoisted();
+        Object[] results = script.newBatchEvaluator(Collections.emptyMap(), ele -> Collections.singletonMap("ele", ele))
+                .apply(Arrays.asList(null, null));
+        assert Arrays.equals(results, new Object[]{true, true});
+
+        // the statements, lambda and impure functions are not hoisted.
+        for (String unsupported : Arrays.asList(
+                "x = seq.max(source); ele > x",
+                "seq.filter(ele, lambda(x) -> x > seq.max(source) end)",
+                "ele > rand(source)",
+                "ele > seq.max(ele.items)",
+                "ele > 1 + 2")) {
+            assert !InvariantHoistedScript.hoist(scriptEvaluator, unsupported, ELEMENT_VARIABLES).isHoisted() : unsupported;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.engine.script;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class ScriptEvaluatorBatchTest {
+
+    private static final ScriptEvaluator aviatorEvaluator = AviatorScriptEvaluator.getDefaultInstance();
+
+    // use the default batch implementation of interface.
+    private static final ScriptEvaluator delegateEvaluator = new ScriptEvaluator() {
+        @Override
+        public Object evaluate(String script, Map<String, Object> arguments) {
+            return aviatorEvaluator.evaluate(script, arguments);
+        }
+
+        @Override
+        public ValidateInfo isValidScript(String script) {
+            return aviatorEvaluator.isValidScript(script);
+        }
+
+        @Override
+        public List<String> getScriptArgument(String script) {
+            return aviatorEvaluator.getScriptArgument(script);
+        }
+    };
+
+    @Test
+    public void evaluateBatchWithSharedArguments() {
+        List<Object> elements = Arrays.asList(1, 2, null, 4);
+        Map<String, Object> shared = new HashMap<>();
+        shared.put("base", 10);
+        shared.put("ele", -1);
+
+        for (ScriptEvaluator evaluator : Arrays.asList(aviatorEvaluator, delegateEvaluator)) {
+            Object[] results = evaluator.evaluateBatch(
+                    evaluator.compile("ele == nil ? base : base + ele"), elements, shared,
+                    ele -> Collections.singletonMap("ele", ele)
+            );
+            assert Arrays.equals(results, new Object[]{11L, 12L, 10, 14L}) : evaluator;
+        }
+    }
+
+    @Test
+    public void evaluatePredicateBatch() {
+        List<Object> elements = Arrays.asList(1, 5, 3, 8);
+        for (ScriptEvaluator evaluator : Arrays.asList(aviatorEvaluator, delegateEvaluator)) {
+            BitSet satisfied = evaluator.evaluatePredicateBatch(
+                    evaluator.compile("ele > limit"), elements, Collections.singletonMap("limit", 2),
+                    ele -> Collections.singletonMap("ele", ele)
+            );
+            assert Objects.equals(satisfied.toString(), "{1, 2, 3}") : evaluator;
+        }
+    }
+
+    @Test
+    public void assignmentNotAlterArguments() {
+        Map<String, Object> element = new HashMap<>();
+        element.put("price", 1);
+        Map<String, Object> shared = new HashMap<>();
+        shared.put("rate", 3);
+
+        for (ScriptEvaluator evaluator : Arrays.asList(aviatorEvaluator, delegateEvaluator)) {
+            Object[] results = evaluator.evaluateBatch(
+                    evaluator.compile("rate = rate * price; rate"), Arrays.asList(element, element), shared, ele -> (Map) ele
+            );
+            assert Arrays.equals(results, new Object[]{3L, 3L}) : evaluator;
+            assert Objects.equals(shared.get("rate"), 3);
+            assert element.size() == 1;
+        }
+    }
+}
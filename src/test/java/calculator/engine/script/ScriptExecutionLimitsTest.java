@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package calculator.engine.script;
+
+import calculator.config.Config;
+import calculator.config.DefaultConfig;
+import calculator.exception.ScriptExecutionLimitException;
+import calculator.graphql.DefaultGraphQLSourceBuilder;
+import calculator.graphql.GraphQLSource;
+import calculator.util.GraphQLSourceHolder;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.schema.GraphQLSchema;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class ScriptExecutionLimitsTest {
+
+    private static final ScriptEvaluator limitedEvaluator = new AviatorScriptEvaluator(
+            ScriptExecutionLimits.newLimits().maxLoopCount(100).maxElapsedMillis(50).maxResultSize(3).build()
+    );
+
+    @Test
+    public void exceedLoopCount() {
+        assert Objects.equals(limitedEvaluator.evaluate("let s = 0; for i in range(0, 100) { s = s + i; } s", null), 4950L);
+        assert Objects.equals(limitedEvaluator.evaluate("string.length('abc')", null), 3L);
+
+        try {
+            limitedEvaluator.evaluate("let s = 0; for i in range(0, 101) { s = s + i; } s", null);
+            assert false;
+        } catch (ScriptExecutionLimitException e) {
+            assert Objects.equals(e.getLimitName(), "maxLoopCount");
+            assert e.getLimit() == 100;
+        }
+    }
+
+    @Test
+    public void exceedElapsedTime() {
+        ScriptEvaluator evaluator = new AviatorScriptEvaluator(
+                ScriptExecutionLimits.newLimits().maxElapsedMillis(50).build()
+        );
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put("s", 0);
+        try {
+            evaluator.evaluate("for i in range(0, 1000000000) { s = s + i; } s", arguments);
+            assert false;
+        } catch (ScriptExecutionLimitException e) {
+            assert Objects.equals(e.getLimitName(), "maxElapsedMillis");
+            assert e.getLimit() == 50;
+        }
+    }
+
+    @Test
+    public void exceedResultSize() {
+        assert Objects.equals(limitedEvaluator.evaluate("seq.list(1, 2, 3)", null), Arrays.asList(1L, 2L, 3L));
+
+        CompiledScript script = limitedEvaluator.compile("seq.list(1, 2, 3, ele)");
+        try {
+            limitedEvaluator.evaluateBatch(script, Collections.singletonList(4), null, ele -> Collections.singletonMap("ele", ele));
+            assert false;
+        } catch (ScriptExecutionLimitException e) {
+            assert Objects.equals(e.getLimitName(), "maxResultSize");
+            assert Objects.equals(e.getExtensions().get("limit"), 3L);
+        }
+    }
+
+    @Test
+    public void failFieldWithLimitError() {
+        GraphQLSchema originalSchema = GraphQLSourceHolder.getDefaultSchema();
+        Config config = DefaultConfig.newConfig()
+                .scriptExecutionLimits(ScriptExecutionLimits.newLimits().maxLoopCount(2).build())
+                .build();
+        GraphQLSource graphqlSource = new DefaultGraphQLSourceBuilder().wrapperConfig(config).originalSchema(originalSchema).build();
+
+        String query = "" +
+                "query($itemIds:[Int]){\n" +
+                "    commodity{\n" +
+                "        itemList(itemIds: $itemIds)\n" +
+                "        @filter(predicate: \"let n = 0; for i in range(0, itemId) { n = n + 1; } n > 1\")\n" +
+                "        {\n" +
+                "            itemId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        ExecutionInput input = ExecutionInput.newExecutionInput(query)
+                .variables(Collections.singletonMap("itemIds", Arrays.asList(1, 2, 3)))
+                .build();
+        ExecutionResult executionResult = graphqlSource.getGraphQL().execute(input);
+
+        List<GraphQLError> errors = executionResult.getErrors();
+        assert errors.size() == 1;
+        assert Objects.equals(errors.get(0).getPath(), Arrays.asList("commodity", "itemList"));
+        assert Objects.equals(errors.get(0).getExtensions().get("classification"), "ScriptExecutionLimit");
+        assert Objects.equals(errors.get(0).getExtensions().get("limitName"), "maxLoopCount");
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert data.get("commodity").get("itemList") == null;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.graphql;
+
+import calculator.config.Config;
+import calculator.config.DefaultConfig;
+import calculator.engine.script.AviatorScriptEvaluator;
+import calculator.util.GraphQLSourceHolder;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.schema.GraphQLSchema;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BoundedDocumentCachedProviderTest {
+    private static final GraphQLSchema originalSchema = GraphQLSourceHolder.getDefaultSchema();
+    private static final Config wrapperConfig = DefaultConfig.newConfig().scriptEvaluator(AviatorScriptEvaluator.getDefaultInstance()).build();
+
+    private static GraphQLSource newGraphQLSource(BoundedDocumentCachedProvider provider) {
+        return new DefaultGraphQLSourceBuilder()
+                .wrapperConfig(wrapperConfig)
+                .originalSchema(originalSchema)
+                .preparsedDocumentProvider(provider)
+                .build();
+    }
+
+    @Test
+    public void hitAndMissStatistics() {
+        BoundedDocumentCachedProvider provider = BoundedDocumentCachedProvider.newProvider().build();
+        GraphQLSource graphQLSource = newGraphQLSource(provider);
+
+        String query = "query{ commodity{ item(itemId: 1){ itemId } } }";
+        for (int i = 0; i < 3; i++) {
+            ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+            assert executionResult.getErrors().isEmpty();
+            assert executionResult.getData().toString().equals("{commodity={item={itemId=1}}}");
+        }
+
+        DocumentCacheStatistics statistics = provider.getStatistics();
+        assert statistics.getMissCount() == 1;
+        assert statistics.getHitCount() == 2;
+        assert statistics.getLoadCount() == 1;
+        assert provider.size() == 1;
+    }
+
+    @Test
+    public void loadConcurrentMissesOnce() throws Exception {
+        BoundedDocumentCachedProvider provider = BoundedDocumentCachedProvider.newProvider().build();
+        GraphQLSource graphQLSource = newGraphQLSource(provider);
+
+        String query = "query{ commodity{ item(itemId: 1){ itemId } } }";
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<ExecutionResult>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    startLatch.await();
+                    return graphQLSource.getGraphQL().execute(query);
+                }));
+            }
+            startLatch.countDown();
+            for (Future<ExecutionResult> result : results) {
+                assert result.get().getErrors().isEmpty();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assert provider.getStatistics().getLoadCount() == 1;
+        assert provider.size() == 1;
+    }
+
+    @Test
+    public void shareEntryByNormalizedQuery() {
+        BoundedDocumentCachedProvider provider = BoundedDocumentCachedProvider.newProvider().build();
+        GraphQLSource graphQLSource = newGraphQLSource(provider);
+
+        String query = "query firstQuery{ consumer{ userInfo(userId: 1, clientVersion: \"v1\"){ userId } } }";
+        String reorderedQuery = "" +
+                "query secondQuery {\n" +
+                "    # the same query with different arguments order\n" +
+                "    consumer { userInfo(clientVersion: \"v1\" userId: 1) { userId } }\n" +
+                "}";
+        assert graphQLSource.getGraphQL().execute(query).getErrors().isEmpty();
+        assert graphQLSource.getGraphQL().execute(reorderedQuery).getErrors().isEmpty();
+        assert provider.getStatistics().getLoadCount() == 1;
+        assert provider.getStatistics().getHitCount() == 1;
+
+        // operation name is kept in the cache key when it is specified
+        ExecutionResult executionResult = graphQLSource.getGraphQL().execute(
+                ExecutionInput.newExecutionInput(reorderedQuery).operationName("secondQuery")
+        );
+        assert executionResult.getErrors().isEmpty();
+        assert provider.getStatistics().getLoadCount() == 2;
+    }
+
+    @Test
+    public void cacheValidationFailure() {
+        BoundedDocumentCachedProvider provider = BoundedDocumentCachedProvider.newProvider().build();
+        GraphQLSource graphQLSource = newGraphQLSource(provider);
+
+        String query = "query{ commodity{ item(itemId: 1){ itemId @map(mapper: \"userId\",dependencySources: \"userId\") } } }";
+        for (int i = 0; i < 2; i++) {
+            ExecutionResult executionResult = graphQLSource.getGraphQL().execute(query);
+            assert !executionResult.getErrors().isEmpty();
+        }
+        assert provider.getStatistics().getLoadCount() == 1;
+        assert provider.getStatistics().getHitCount() == 1;
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        BoundedDocumentCachedProvider provider = BoundedDocumentCachedProvider.newProvider().maximumSize(2).build();
+        GraphQLSource graphQLSource = newGraphQLSource(provider);
+
+        String query1 = "query{ commodity{ item(itemId: 1){ itemId } } }";
+        String query2 = "query{ commodity{ item(itemId: 2){ itemId } } }";
+        String query3 = "query{ commodity{ item(itemId: 3){ itemId } } }";
+        graphQLSource.getGraphQL().execute(query1);
+        graphQLSource.getGraphQL().execute(query2);
+        // query1 is used recently, and query2 will be evicted
+        graphQLSource.getGraphQL().execute(query1);
+        graphQLSource.getGraphQL().execute(query3);
+        assert provider.size() == 2;
+        assert provider.getStatistics().getEvictionCount() == 1;
+
+        graphQLSource.getGraphQL().execute(query1);
+        assert provider.getStatistics().getHitCount() == 2;
+        graphQLSource.getGraphQL().execute(query2);
+        assert provider.getStatistics().getLoadCount() == 4;
+    }
+
+    @Test
+    public void expireAfterWrite() {
+        AtomicLong time = new AtomicLong();
+        BoundedDocumentCachedProvider provider = BoundedDocumentCachedProvider.newProvider()
+                .expireAfterWrite(Duration.ofSeconds(10))
+                .ticker(time::get)
+                .build();
+        GraphQLSource graphQLSource = newGraphQLSource(provider);
+
+        String query = "query{ commodity{ item(itemId: 1){ itemId } } }";
+        graphQLSource.getGraphQL().execute(query);
+        time.addAndGet(Duration.ofSeconds(5).toNanos());
+        graphQLSource.getGraphQL().execute(query);
+        assert provider.getStatistics().getHitCount() == 1;
+
+        time.addAndGet(Duration.ofSeconds(5).toNanos());
+        graphQLSource.getGraphQL().execute(query);
+        assert provider.getStatistics().getHitCount() == 1;
+        assert provider.getStatistics().getLoadCount() == 2;
+    }
+
+    @Test
+    public void refreshOnSchemaChange() {
+        BoundedDocumentCachedProvider provider = BoundedDocumentCachedProvider.newProvider().refreshExecutor(Runnable::run).build();
+        GraphQLSource graphQLSource = newGraphQLSource(provider);
+
+        String query = "query{ commodity{ item(itemId: 1){ itemId } } }";
+        graphQLSource.getGraphQL().execute(query);
+        assert provider.getStatistics().getLoadCount() == 1;
+
+        // the cached query is validated again by the new schema
+        GraphQLSource newGraphQLSource = newGraphQLSource(provider);
+        provider.refresh().join();
+        ExecutionResult executionResult = newGraphQLSource.getGraphQL().execute(ExecutionInput.newExecutionInput(query));
+        assert executionResult.getErrors().isEmpty();
+        assert provider.getStatistics().getLoadCount() == 1;
+        assert provider.getStatistics().getHitCount() == 1;
+    }
+}
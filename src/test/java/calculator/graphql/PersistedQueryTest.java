@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package calculator.graphql;
+
+import calculator.config.Config;
+import calculator.config.DefaultConfig;
+import calculator.engine.script.AviatorScriptEvaluator;
+import calculator.exception.PersistedQueryException;
+import calculator.util.GraphQLSourceHolder;
+import graphql.ExecutionResult;
+import graphql.schema.GraphQLSchema;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+public class PersistedQueryTest {
+    private static final GraphQLSchema originalSchema = GraphQLSourceHolder.getDefaultSchema();
+    private static final Config wrapperConfig = DefaultConfig.newConfig().scriptEvaluator(AviatorScriptEvaluator.getDefaultInstance()).build();
+    private static final GraphQLSource graphqlSource = new DefaultGraphQLSourceBuilder().wrapperConfig(wrapperConfig).originalSchema(originalSchema).build();
+
+    @Test
+    public void executeRegisteredQuery() {
+        String query = "" +
+                "query executeRegisteredQuery($itemId: Int){\n" +
+                "    consumer{\n" +
+                "        userInfo(userId: 2){\n" +
+                "            userId @fetchSource(name: \"userId\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "    \n" +
+                "    commodity{\n" +
+                "        item(itemId: $itemId){\n" +
+                "            itemId\n" +
+                "            userId: itemId @map(mapper: \"userId\",dependencySources: \"userId\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        PersistedQueryRegistry registry = graphqlSource.getPersistedQueryRegistry();
+        String queryId = registry.register(query);
+        assert Objects.equals(queryId, registry.register(query));
+        assert registry.getPersistedQuery(queryId).getDocument() != null;
+
+        // tasks of fetchSource should not be shared by different executions
+        for (int itemId = 1; itemId <= 3; itemId++) {
+            ExecutionResult executionResult = registry.execute(queryId, Collections.singletonMap("itemId", itemId));
+            assert executionResult.getErrors().isEmpty();
+            Map<String, Map<String, Object>> data = executionResult.getData();
+            assert Objects.equals(data.get("commodity").get("item").toString(), "{itemId=" + itemId + ", userId=2}");
+        }
+    }
+
+    @Test
+    public void executeWithCustomizedInput() {
+        String query = "" +
+                "query executeWithCustomizedInput($itemId: Int){\n" +
+                "    commodity{\n" +
+                "        item(itemId: $itemId){\n" +
+                "            itemId\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+        PersistedQueryRegistry registry = graphqlSource.getPersistedQueryRegistry();
+        String queryId = registry.register(query);
+
+        // the query text is always the registered one.
+        ExecutionResult executionResult = registry.execute(queryId, builder -> builder
+                .query("query{ unknownField }")
+                .variables(Collections.singletonMap("itemId", 5))
+                .graphQLContext(Collections.singletonMap("tenant", "test"))
+        );
+        assert executionResult.getErrors().isEmpty();
+        Map<String, Map<String, Object>> data = executionResult.getData();
+        assert Objects.equals(data.get("commodity").get("item").toString(), "{itemId=5}");
+    }
+
+    @Test
+    public void registerInvalidQuery() {
+        String query = "" +
+                "query registerInvalidQuery{\n" +
+                "    commodity{\n" +
+                "        item(itemId: 1){\n" +
+                "            itemId\n" +
+                "            userId: itemId @map(mapper: \"userId\",dependencySources: \"userId\")\n" +
+                "        }\n" +
+                "    }\n" +
+                "}";
+
+        try {
+            graphqlSource.getPersistedQueryRegistry().register("registerInvalidQuery", query);
+            assert false;
+        } catch (PersistedQueryException e) {
+            assert !e.getErrors().isEmpty();
+        }
+        assert graphqlSource.getPersistedQueryRegistry().getPersistedQuery("registerInvalidQuery") == null;
+    }
+
+    @Test
+    public void executeUnknownQuery() {
+        ExecutionResult executionResult = graphqlSource.getPersistedQueryRegistry().execute("unknownQueryId", Collections.emptyMap());
+        assert executionResult.getErrors().size() == 1;
+        assert Objects.equals(executionResult.getErrors().get(0).getMessage(), "persisted query not found: unknownQueryId");
+    }
+}
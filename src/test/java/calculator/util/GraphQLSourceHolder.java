@@ -108,6 +108,7 @@ public class GraphQLSourceHolder {
         RuntimeWiring.Builder runtimeWiring = RuntimeWiring.newRuntimeWiring();
         runtimeWiring.scalar(ExtendedScalars.GraphQLBigDecimal);
         runtimeWiring.scalar(ExtendedScalars.GraphQLBigInteger);
+        runtimeWiring.scalar(ExtendedScalars.Json);
         for (Map.Entry<String, Map<String, DataFetcher>> entry : defaultDataFetcherInfo().entrySet()) {
             TypeRuntimeWiring.Builder typeWiring = TypeRuntimeWiring.newTypeWiring(entry.getKey()).dataFetchers(entry.getValue());
             runtimeWiring.type(typeWiring);
@@ -119,6 +120,7 @@ public class GraphQLSourceHolder {
         RuntimeWiring.Builder runtimeWiring = RuntimeWiring.newRuntimeWiring();
         runtimeWiring.scalar(ExtendedScalars.GraphQLBigDecimal);
         runtimeWiring.scalar(ExtendedScalars.GraphQLBigInteger);
+        runtimeWiring.scalar(ExtendedScalars.Json);
         TypeRuntimeWiring.Builder typeWiring = TypeRuntimeWiring.newTypeWiring("Query").dataFetchers(
                 Collections.singletonMap("userInfoList", async(userListDataFetcher))
         );
@@ -130,6 +132,7 @@ public class GraphQLSourceHolder {
         RuntimeWiring.Builder runtimeWiring = RuntimeWiring.newRuntimeWiring();
         runtimeWiring.scalar(ExtendedScalars.GraphQLBigDecimal);
         runtimeWiring.scalar(ExtendedScalars.GraphQLBigInteger);
+        runtimeWiring.scalar(ExtendedScalars.Json);
         for (Map.Entry<String, Map<String, DataFetcher>> entry : dataFetcherConfig.entrySet()) {
             TypeRuntimeWiring.Builder typeWiring = TypeRuntimeWiring.newTypeWiring(entry.getKey()).dataFetchers(entry.getValue());
             runtimeWiring.type(typeWiring);
@@ -164,6 +167,7 @@ public class GraphQLSourceHolder {
         RuntimeWiring.Builder runtimeWiring = RuntimeWiring.newRuntimeWiring();
         runtimeWiring.scalar(ExtendedScalars.GraphQLBigDecimal);
         runtimeWiring.scalar(ExtendedScalars.GraphQLBigInteger);
+        runtimeWiring.scalar(ExtendedScalars.Json);
         for (Map.Entry<String, Map<String, DataFetcher>> entry : dataFetcherInfoMap.entrySet()) {
             TypeRuntimeWiring.Builder typeWiring = TypeRuntimeWiring.newTypeWiring(entry.getKey()).dataFetchers(entry.getValue());
             runtimeWiring.type(typeWiring);